@@ -1,17 +1,24 @@
 package com.melnyk.profitsoft_2;
 
+import com.melnyk.profitsoft_2.config.props.CacheProps;
 import com.melnyk.profitsoft_2.config.props.CorsProps;
 import com.melnyk.profitsoft_2.config.props.PaginationProps;
+import com.melnyk.profitsoft_2.config.props.ReportProps;
+import com.melnyk.profitsoft_2.config.props.UploadProps;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
-@EnableConfigurationProperties({PaginationProps.class, CorsProps.class})
+@EnableConfigurationProperties({
+    PaginationProps.class, CorsProps.class, ReportProps.class, UploadProps.class, CacheProps.class
+})
 @EnableCaching
 @EnableAsync
+@EnableScheduling
 public class Profitsoft2Application {
 
 	public static void main(String[] args) {
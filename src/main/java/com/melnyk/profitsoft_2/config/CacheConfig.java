@@ -1,28 +1,44 @@
 package com.melnyk.profitsoft_2.config;
 
+import com.melnyk.profitsoft_2.config.props.CacheProps;
+import com.melnyk.profitsoft_2.dto.response.BookDetailsDto;
+import com.melnyk.profitsoft_2.service.AuthorSnapshot;
+import com.melnyk.profitsoft_2.service.GenreSnapshot;
+import org.ehcache.config.ResourcePools;
 import org.ehcache.config.builders.CacheConfigurationBuilder;
 import org.ehcache.config.builders.ExpiryPolicyBuilder;
 import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.config.units.MemoryUnit;
+import org.ehcache.core.config.DefaultConfiguration;
+import org.ehcache.impl.config.persistence.DefaultPersistenceConfiguration;
 import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
 import org.springframework.cache.jcache.JCacheCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import javax.cache.Caching;
 import javax.cache.spi.CachingProvider;
+import java.io.Serializable;
 import java.time.Duration;
 
 /**
  * Central application cache configuration.
  *
- * <p>Enables Spring caching and creates three Ehcache-backed JCache regions:
+ * <p>Enables Spring caching and creates Ehcache-backed JCache regions:
  * <ul>
- *     <li>{@link #GENRE_CACHE_NAME} – for cached Genre entities</li>
- *     <li>{@link #AUTHOR_CACHE_NAME} – for cached Author entities</li>
+ *     <li>{@link #GENRE_CACHE_NAME} – for cached GenreSnapshot objects, by id and by name</li>
+ *     <li>{@link #AUTHOR_CACHE_NAME} – for cached AuthorSnapshot objects</li>
  *     <li>{@link #BOOK_CACHE_NAME} – for cached BookDetailsDto objects</li>
+ *     <li>{@link #SEARCH_COUNT_CACHE_NAME} – for cached total counts of search results</li>
+ *     <li>{@link #BOOK_SEARCH_CACHE_NAME} – for cached pages of book search results</li>
  * </ul>
  *
- * <p>Caches are configured with heap storage (1000 entries) and a TTL of 10 minutes.
+ * <p>Storage and TTL of each region are set by {@link CacheProps}. A region is kept on heap, regions of serializable
+ * keys and values may also have off-heap and disk tiers, all regions but search ones. Search counts aren't
+ * invalidated on changes, so they live for 30 seconds by default.
+ * Statistics of every region are enabled, Spring Boot binds them to Micrometer as {@code cache.gets},
+ * {@code cache.puts}, {@code cache.evictions} and {@code cache.removals} meters tagged by cache name.
  * Ehcache is used as the underlying provider via the JCache (JSR-107) API.</p>
  */
 @Configuration
@@ -31,42 +47,97 @@ public class CacheConfig {
     public static final String GENRE_CACHE_NAME = "GENRE_ENTITY";
     public static final String AUTHOR_CACHE_NAME = "AUTHOR_ENTITY";
     public static final String BOOK_CACHE_NAME = "BOOK_DTO";
+    public static final String SEARCH_COUNT_CACHE_NAME = "SEARCH_COUNT";
+    public static final String BOOK_SEARCH_CACHE_NAME = "BOOK_SEARCH";
 
     @Bean
-    public JCacheCacheManager cacheManager() {
-        return new JCacheCacheManager(jCacheManager());
+    public JCacheCacheManager cacheManager(javax.cache.CacheManager jCacheManager) {
+        return new JCacheCacheManager(jCacheManager);
     }
 
     @Bean
-    public javax.cache.CacheManager jCacheManager() {
+    public javax.cache.CacheManager jCacheManager(CacheProps props) {
+        javax.cache.CacheManager cacheManager = createCacheManager(props);
+
+        createRegion(cacheManager, props, GENRE_CACHE_NAME, Serializable.class, GenreSnapshot.class, Duration.ofMinutes(10));
+        createRegion(cacheManager, props, AUTHOR_CACHE_NAME, Long.class, AuthorSnapshot.class, Duration.ofMinutes(10));
+        createRegion(cacheManager, props, BOOK_CACHE_NAME, Long.class, BookDetailsDto.class, Duration.ofMinutes(10));
+        createRegion(cacheManager, props, SEARCH_COUNT_CACHE_NAME, Object.class, Object.class, Duration.ofSeconds(30));
+        createRegion(cacheManager, props, BOOK_SEARCH_CACHE_NAME, Object.class, Object.class, Duration.ofMinutes(10));
+
+        return cacheManager;
+    }
+
+    /**
+     * Returns the default cache manager, or a manager with persistence in {@code diskDir}
+     * if any region has a disk tier.
+     */
+    private javax.cache.CacheManager createCacheManager(CacheProps props) {
         CachingProvider provider = Caching.getCachingProvider();
-        javax.cache.CacheManager cacheManager = provider.getCacheManager();
+        boolean diskUsed = props.getRegions().values().stream()
+            .anyMatch(region -> region.getDiskSize().toBytes() > 0);
+        if (!diskUsed) {
+            return provider.getCacheManager();
+        }
+        DefaultConfiguration configuration = new DefaultConfiguration(
+            provider.getDefaultClassLoader(),
+            new DefaultPersistenceConfiguration(props.getDiskDir().toFile())
+        );
+        return ((EhcacheCachingProvider) provider).getCacheManager(provider.getDefaultURI(), configuration);
+    }
 
-        createCacheIfAbsent(cacheManager, GENRE_CACHE_NAME, Eh107Configuration.fromEhcacheCacheConfiguration(
-            CacheConfigurationBuilder.newCacheConfigurationBuilder(
-                    Object.class, Object.class,
-                    ResourcePoolsBuilder.heap(1000)
-                ).withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofMinutes(10)))
-                .build()
-        ));
+    /**
+     * Creates the region with the storage from the properties, a region without properties is kept on heap only.
+     *
+     * @param defaultTimeToLive TTL of the region without properties
+     */
+    private <K, V> void createRegion(
+        javax.cache.CacheManager cacheManager,
+        CacheProps props,
+        String cacheName,
+        Class<K> keyType,
+        Class<V> valueType,
+        Duration defaultTimeToLive
+    ) {
+        CacheProps.Region region = props.getRegions().get(cacheName);
+        if (region == null) {
+            region = new CacheProps.Region();
+            region.setTimeToLive(defaultTimeToLive);
+        }
 
-        createCacheIfAbsent(cacheManager, AUTHOR_CACHE_NAME, Eh107Configuration.fromEhcacheCacheConfiguration(
+        createCacheIfAbsent(cacheManager, cacheName, Eh107Configuration.fromEhcacheCacheConfiguration(
             CacheConfigurationBuilder.newCacheConfigurationBuilder(
-                    Object.class, Object.class,
-                    ResourcePoolsBuilder.heap(1000)
-                ).withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofMinutes(10)))
+                    keyType, valueType,
+                    createResourcePools(cacheName, keyType, valueType, region)
+                ).withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(region.getTimeToLive()))
                 .build()
         ));
+        cacheManager.enableStatistics(cacheName, true);
+    }
 
-        createCacheIfAbsent(cacheManager, BOOK_CACHE_NAME, Eh107Configuration.fromEhcacheCacheConfiguration(
-            CacheConfigurationBuilder.newCacheConfigurationBuilder(
-                    Object.class, Object.class,
-                    ResourcePoolsBuilder.heap(1000)
-                ).withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofMinutes(10)))
-                .build()
-        ));
+    private static ResourcePools createResourcePools(
+        String cacheName,
+        Class<?> keyType,
+        Class<?> valueType,
+        CacheProps.Region region
+    ) {
+        long offheapBytes = region.getOffheapSize().toBytes();
+        long diskBytes = region.getDiskSize().toBytes();
+        boolean serializable = Serializable.class.isAssignableFrom(keyType)
+            && Serializable.class.isAssignableFrom(valueType);
+        if ((offheapBytes > 0 || diskBytes > 0) && !serializable) {
+            throw new IllegalStateException("Cache %s stores entries of types %s and %s, it can be kept on heap only"
+                .formatted(cacheName, keyType, valueType));
+        }
 
-        return cacheManager;
+        ResourcePoolsBuilder pools = ResourcePoolsBuilder.heap(region.getHeapEntries());
+        if (offheapBytes > 0) {
+            pools = pools.offheap(offheapBytes, MemoryUnit.B);
+        }
+        if (diskBytes > 0) {
+            pools = pools.disk(diskBytes, MemoryUnit.B, false);
+        }
+        return pools.build();
     }
 
     private <K, V, C extends javax.cache.configuration.Configuration<K, V>> javax.cache.Cache<K, V> createCacheIfAbsent(javax.cache.CacheManager cacheManager, String cacheName, C config) {
@@ -74,4 +145,4 @@ public class CacheConfig {
         return cache != null ? cache : cacheManager.createCache(cacheName, config);
     }
 
-}
\ No newline at end of file
+}
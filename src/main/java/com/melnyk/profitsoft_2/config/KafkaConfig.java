@@ -18,4 +18,13 @@ public class KafkaConfig {
             .build();
     }
 
+    @Bean
+    public NewTopic cacheInvalidationTopic(
+        @Value("${kafka.topics.cache-invalidation}") String cacheInvalidationTopic
+    ) {
+        return TopicBuilder
+            .name(cacheInvalidationTopic)
+            .build();
+    }
+
 }
@@ -0,0 +1,141 @@
+package com.melnyk.profitsoft_2.config.props;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@ConfigurationProperties("cache")
+public class CacheProps {
+
+    /**
+     * Directory of the disk tier of regions with a disk size
+     */
+    private Path diskDir = Path.of(System.getProperty("java.io.tmpdir"), "book-cache");
+
+    /**
+     * Storage and expiration of cache regions by cache name, e.g. {@code cache.regions.[BOOK_DTO].heap-entries}
+     */
+    private Map<String, Region> regions = new HashMap<>();
+
+    /**
+     * Settings of the invalidation of caches of other application nodes
+     */
+    private Invalidation invalidation = new Invalidation();
+
+    /**
+     * Settings of the loading of hot entries into caches at startup
+     */
+    private Warmup warmup = new Warmup();
+
+    /**
+     * Settings of the background reloading of entries of regions with {@code refresh-after}
+     */
+    private Refresh refresh = new Refresh();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Region {
+
+        /**
+         * Count of entries kept on heap
+         */
+        private long heapEntries = 1000;
+
+        /**
+         * Size of the off-heap tier, values are serialized there; zero disables the tier
+         */
+        private DataSize offheapSize = DataSize.ofBytes(0);
+
+        /**
+         * Size of the disk tier in {@code diskDir}, it's not kept between restarts; zero disables the tier
+         */
+        private DataSize diskSize = DataSize.ofBytes(0);
+
+        /**
+         * How long an entry is kept after it's put
+         */
+        private Duration timeToLive = Duration.ofMinutes(10);
+
+        /**
+         * Age after which an entry is reloaded in the background when it's read, so a hot entry is replaced
+         * before it expires; must be less than {@code timeToLive}, not set disables refresh-ahead
+         */
+        private Duration refreshAfter;
+
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Invalidation {
+
+        /**
+         * Whether entries changed on this node are evicted on other nodes through the Kafka topic
+         * {@code kafka.topics.cache-invalidation}
+         */
+        private boolean enabled = true;
+
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Warmup {
+
+        /**
+         * Whether caches are loaded before the application is ready to accept traffic
+         */
+        private boolean enabled = true;
+
+        /**
+         * File with ids of hot books and authors, it's written on shutdown and read on the next startup;
+         * nodes sharing the file warm up with the hot set of the node stopped last
+         */
+        private Path hotKeysFile = Path.of(System.getProperty("java.io.tmpdir"), "book-cache", "hot-keys.json");
+
+        /**
+         * Max count of book ids kept in the hot keys file
+         */
+        private int maxBooks = 10000;
+
+        /**
+         * Max count of author ids kept in the hot keys file
+         */
+        private int maxAuthors = 1000;
+
+        /**
+         * Count of entries loaded by one query
+         */
+        private int batchSize = 500;
+
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Refresh {
+
+        /**
+         * Count of threads reloading entries
+         */
+        private int poolSize = 2;
+
+        /**
+         * Count of entries waiting for reloading, entries read when the queue is full aren't reloaded
+         */
+        private int queueCapacity = 1000;
+
+    }
+
+}
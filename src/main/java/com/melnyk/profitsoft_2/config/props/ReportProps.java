@@ -0,0 +1,91 @@
+package com.melnyk.profitsoft_2.config.props;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@ConfigurationProperties("report")
+public class ReportProps {
+
+    /**
+     * Count of rows fetched from the database and written to the report at once
+     */
+    private int chunkSize = 500;
+
+    /**
+     * Settings of asynchronous report jobs
+     */
+    private Jobs jobs = new Jobs();
+
+    /**
+     * Settings of Excel reports split into sheets
+     */
+    private Partition partition = new Partition();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Jobs {
+
+        /**
+         * Directory where generated report files are stored until they are downloaded or expired
+         */
+        private Path spoolDir = Path.of(System.getProperty("java.io.tmpdir"), "book-reports");
+
+        /**
+         * Count of reports generated concurrently
+         */
+        private int poolSize = 2;
+
+        /**
+         * Count of submitted jobs that can wait for a free worker
+         */
+        private int queueCapacity = 20;
+
+        /**
+         * How long a finished job and its file are kept
+         */
+        private Duration retention = Duration.ofHours(1);
+
+        /**
+         * Max count of finished jobs kept at once, the oldest ones are removed first
+         */
+        private int maxRetained = 100;
+
+        /**
+         * How often expired jobs are removed
+         */
+        private Duration cleanupInterval = Duration.ofMinutes(1);
+
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Partition {
+
+        /**
+         * Count of partitions fetched from the database concurrently
+         */
+        private int poolSize = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * Max count of prepared rows buffered for each partition until they are written into the sheet
+         */
+        private int bufferSize = 1000;
+
+        /**
+         * Count of authors written into one sheet when the report is split by authors
+         */
+        private int authorsPerSheet = 100;
+
+    }
+
+}
@@ -0,0 +1,128 @@
+package com.melnyk.profitsoft_2.config.props;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@ConfigurationProperties("upload")
+public class UploadProps {
+
+    /**
+     * Count of uploaded objects parsed, checked and inserted at once
+     */
+    private int chunkSize = 500;
+
+    /**
+     * Settings of asynchronous upload jobs
+     */
+    private Jobs jobs = new Jobs();
+
+    /**
+     * Settings of failure reports
+     */
+    private Failures failures = new Failures();
+
+    /**
+     * Settings of the upload pipeline
+     */
+    private Pipeline pipeline = new Pipeline();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Jobs {
+
+        /**
+         * Directory where uploaded files are stored until their jobs are finished
+         */
+        private Path spoolDir = Path.of(System.getProperty("java.io.tmpdir"), "book-uploads");
+
+        /**
+         * Count of files uploaded concurrently
+         */
+        private int poolSize = 1;
+
+        /**
+         * Count of submitted jobs that can wait for a free worker
+         */
+        private int queueCapacity = 20;
+
+        /**
+         * How long a finished job is kept
+         */
+        private Duration retention = Duration.ofDays(1);
+
+        /**
+         * How often expired jobs are removed
+         */
+        private Duration cleanupInterval = Duration.ofMinutes(10);
+
+        /**
+         * How often a node confirms that it still runs its jobs and looks for jobs of stopped nodes
+         */
+        private Duration heartbeatInterval = Duration.ofSeconds(30);
+
+        /**
+         * How long a job isn't taken over by another node after the last heartbeat of its owner
+         */
+        private Duration leaseTimeout = Duration.ofMinutes(2);
+
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Failures {
+
+        /**
+         * Directory where NDJSON files with failed objects are stored
+         */
+        private Path dir = Path.of(System.getProperty("java.io.tmpdir"), "book-upload-failures");
+
+        /**
+         * Max count of failed objects returned in the response when the full list is written into a file
+         */
+        private int inlineLimit = 100;
+
+        /**
+         * How long a failures file is kept after its last change
+         */
+        private Duration retention = Duration.ofDays(1);
+
+        /**
+         * How often expired failure files are removed
+         */
+        private Duration cleanupInterval = Duration.ofMinutes(10);
+
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Pipeline {
+
+        /**
+         * Count of threads inserting chunks of one upload concurrently, each in its own transaction
+         */
+        private int writers = 2;
+
+        /**
+         * Max count of chunks waiting between the parse, validate and insert stages
+         */
+        private int queueCapacity = 4;
+
+        /**
+         * Max count of uploads processed at once, further uploads are rejected
+         */
+        private int maxConcurrentUploads = 3;
+
+    }
+
+}
@@ -9,13 +9,17 @@ import com.melnyk.profitsoft_2.service.AuthorService;
 import com.melnyk.profitsoft_2.util.URIUtil;
 import com.melnyk.profitsoft_2.validaton.Groups;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.headers.Header;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.MediaType;
@@ -26,6 +30,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.net.URI;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/authors")
@@ -110,6 +115,31 @@ public class AuthorController {
         return ResponseEntity.ok(authors);
     }
 
+    @GetMapping("/_autocomplete")
+    @Operation(
+        summary = "Autocomplete authors",
+        description = "Retrieves authors whose full name contains the query or is similar to it, the most similar first",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Authors retrieved successfully",
+                content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    array = @ArraySchema(schema = @Schema(implementation = AuthorInfoDto.class)))
+            ),
+            @ApiResponse(responseCode = "400", description = "Invalid request data",
+                content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = ProblemDetail.class)))
+        }
+    )
+    public ResponseEntity<List<AuthorInfoDto>> autocompleteAuthors(
+        @Parameter(description = "Typed part of the full name")
+        @RequestParam @NotBlank String query,
+        @Parameter(description = "Max count of returned authors")
+        @RequestParam(defaultValue = "10") @Min(1) @Max(50) int limit
+    ) {
+        return ResponseEntity.ok(authorService.autocomplete(query, limit));
+    }
+
     @PutMapping("/{id}")
     @Operation(
         summary = "Update author",
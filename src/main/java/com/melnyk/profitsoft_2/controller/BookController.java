@@ -4,24 +4,37 @@ import com.melnyk.profitsoft_2.dto.request.BookRequestDto;
 import com.melnyk.profitsoft_2.dto.request.filter.impl.BookFilter;
 import com.melnyk.profitsoft_2.dto.response.BookDetailsDto;
 import com.melnyk.profitsoft_2.dto.response.BookInfoDto;
+import com.melnyk.profitsoft_2.dto.response.BookSuggestionDto;
 import com.melnyk.profitsoft_2.dto.response.PageDto;
+import com.melnyk.profitsoft_2.dto.response.ReportJobDto;
+import com.melnyk.profitsoft_2.dto.response.UploadJobDto;
 import com.melnyk.profitsoft_2.dto.response.UploadResponse;
 import com.melnyk.profitsoft_2.service.BookService;
+import com.melnyk.profitsoft_2.service.ReportFormat;
+import com.melnyk.profitsoft_2.service.ReportJobService;
+import com.melnyk.profitsoft_2.service.ReportPartitioning;
+import com.melnyk.profitsoft_2.service.UploadFailureMode;
+import com.melnyk.profitsoft_2.service.UploadFailureService;
+import com.melnyk.profitsoft_2.service.UploadJobService;
+import com.melnyk.profitsoft_2.service.UploadMode;
 import com.melnyk.profitsoft_2.util.URIUtil;
 import com.melnyk.profitsoft_2.validaton.Groups;
 import com.melnyk.profitsoft_2.validaton.JsonFile;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.headers.Header;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
@@ -32,6 +45,8 @@ import org.springframework.web.util.UriComponentsBuilder;
 
 import java.io.IOException;
 import java.net.URI;
+import java.util.List;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/books")
@@ -41,6 +56,9 @@ import java.net.URI;
 public class BookController {
 
     private final BookService bookService;
+    private final ReportJobService reportJobService;
+    private final UploadJobService uploadJobService;
+    private final UploadFailureService uploadFailureService;
 
     @PostMapping
     @Operation(
@@ -104,6 +122,32 @@ public class BookController {
         return ResponseEntity.ok(bookService.getById(id));
     }
 
+    @GetMapping("/_suggest")
+    @Operation(
+        summary = "Suggest books",
+        description = "Retrieves books whose title or author name has words starting with every word of the query, "
+            + "books are found in an in-memory index",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Books retrieved successfully",
+                content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    array = @ArraySchema(schema = @Schema(implementation = BookSuggestionDto.class)))
+            ),
+            @ApiResponse(responseCode = "400", description = "Invalid request data",
+                content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = ProblemDetail.class)))
+        }
+    )
+    public ResponseEntity<List<BookSuggestionDto>> suggestBooks(
+        @Parameter(description = "Typed part of the title or author name")
+        @RequestParam String query,
+        @Parameter(description = "Max count of returned books")
+        @RequestParam(defaultValue = "10") @Min(1) @Max(50) int limit
+    ) {
+        return ResponseEntity.ok(bookService.suggest(query, limit));
+    }
+
     @PostMapping("/_list")
     @Operation(
         summary = "Search books",
@@ -186,15 +230,26 @@ public class BookController {
         return ResponseEntity.noContent().build();
     }
 
-    @PostMapping(value = "/_report", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    @PostMapping(value = "/_report", produces = {
+        MediaType.APPLICATION_OCTET_STREAM_VALUE,
+        ReportFormat.XLSX_MEDIA_TYPE_VALUE,
+        ReportFormat.CSV_MEDIA_TYPE_VALUE,
+        MediaType.APPLICATION_NDJSON_VALUE
+    })
     @Operation(
         summary = "Generates a book report",
-        description = "Generates a report (Excel) based on the provided filter",
+        description = "Generates a report based on the provided filter. Format of the report (Excel, CSV " +
+            "or NDJSON) is selected by the Accept header, Excel is used by default. Excel report can be split " +
+            "into sheets by genres or author ranges, the sheets are prepared in parallel",
         responses = {
             @ApiResponse(
                 responseCode = "200",
                 description = "Report file successfully generated",
-                content = @Content(mediaType = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+                content = {
+                    @Content(mediaType = MediaType.APPLICATION_OCTET_STREAM_VALUE),
+                    @Content(mediaType = ReportFormat.CSV_MEDIA_TYPE_VALUE),
+                    @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE)
+                }
             ),
             @ApiResponse(
                 responseCode = "400",
@@ -216,9 +271,114 @@ public class BookController {
     )
     public void generateBookReport(
         @RequestBody @Valid BookFilter filter,
+        @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+        @Parameter(description = "Splits the Excel report into sheets by genres or author ranges")
+        @RequestParam(defaultValue = "NONE") ReportPartitioning partitionBy,
+        HttpServletResponse response
+    ) throws IOException {
+        bookService.generateReport(filter, ReportFormat.fromAcceptHeader(accept), partitionBy, response);
+    }
+
+    @PostMapping("/_report/jobs")
+    @Operation(
+        summary = "Submits a book report job",
+        description = "Starts generating a report in background based on the provided filter",
+        responses = {
+            @ApiResponse(responseCode = "202", description = "Report job accepted",
+                headers = @Header(name = "Location"),
+                content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = ReportJobDto.class))
+            ),
+            @ApiResponse(responseCode = "400", description = "Invalid filter",
+                content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = ProblemDetail.class))
+            ),
+            @ApiResponse(responseCode = "503", description = "Too many report jobs in progress",
+                content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = ProblemDetail.class)))
+        }
+    )
+    public ResponseEntity<ReportJobDto> submitBookReportJob(
+        @RequestBody @Valid BookFilter filter,
+        @Parameter(description = "Format of the report")
+        @RequestParam(defaultValue = "EXCEL") ReportFormat format,
+        @Parameter(description = "Splits the Excel report into sheets by genres or author ranges")
+        @RequestParam(defaultValue = "NONE") ReportPartitioning partitionBy,
+        UriComponentsBuilder uriBuilder
+    ) {
+        ReportJobDto job = reportJobService.submit(filter, format, partitionBy);
+        URI uri = URIUtil.createLocationUri(uriBuilder, "/api/books/_report/jobs", job.id());
+        return ResponseEntity.accepted().location(uri).body(job);
+    }
+
+    @GetMapping("/_report/jobs/{id}")
+    @Operation(
+        summary = "Get book report job",
+        description = "Retrieves status and progress of the report job",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Report job found",
+                content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = ReportJobDto.class))
+            ),
+            @ApiResponse(responseCode = "404", description = "Report job not found",
+                content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = ProblemDetail.class)))
+        }
+    )
+    public ResponseEntity<ReportJobDto> getBookReportJob(
+        @PathVariable UUID id
+    ) {
+        return ResponseEntity.ok(reportJobService.getById(id));
+    }
+
+    @GetMapping("/_report/jobs/{id}/file")
+    @Operation(
+        summary = "Downloads book report",
+        description = "Downloads the report file generated by the completed report job",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Report file",
+                content = @Content(mediaType = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+            ),
+            @ApiResponse(responseCode = "400", description = "Report job is not completed",
+                content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = ProblemDetail.class))
+            ),
+            @ApiResponse(responseCode = "404", description = "Report job not found",
+                content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = ProblemDetail.class)))
+        }
+    )
+    public void downloadBookReport(
+        @PathVariable UUID id,
         HttpServletResponse response
     ) throws IOException {
-        bookService.generateReport(filter, response);
+        reportJobService.download(id, response);
+    }
+
+    @DeleteMapping("/_report/jobs/{id}")
+    @Operation(
+        summary = "Delete book report job",
+        description = "Cancels the report job if it is in progress and deletes its file",
+        responses = {
+            @ApiResponse(responseCode = "204", description = "Report job deleted"),
+            @ApiResponse(responseCode = "404", description = "Report job not found",
+                content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = ProblemDetail.class)))
+        }
+    )
+    public ResponseEntity<?> deleteBookReportJob(
+        @PathVariable UUID id
+    ) {
+        reportJobService.deleteById(id);
+        return ResponseEntity.noContent().build();
     }
 
     @PostMapping(value = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
@@ -258,10 +418,95 @@ public class BookController {
             description = "JSON file with array of BookRequestDto",
             required = true
         )
-        @RequestPart("file") @Valid @JsonFile MultipartFile file
+        @RequestPart("file") @Valid @JsonFile MultipartFile file,
+        @Parameter(description = "BATCH saves books through JPA, COPY streams them with PostgreSQL COPY for large files")
+        @RequestParam(defaultValue = "BATCH") UploadMode mode,
+        @Parameter(description = "ALL returns every failed object, SUMMARY returns the first ones and writes all of them into a downloadable NDJSON file")
+        @RequestParam(defaultValue = "ALL") UploadFailureMode failures
     ) throws IOException {
-        UploadResponse response = bookService.uploadFromFile(file);
+        UploadResponse response = bookService.uploadFromFile(file, mode, failures);
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/upload/failures/{id}")
+    @Operation(
+        summary = "Downloads upload failures",
+        description = "Downloads the NDJSON file with all objects rejected by an upload",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Failures file",
+                content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE)
+            ),
+            @ApiResponse(responseCode = "404", description = "Failures file not found",
+                content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = ProblemDetail.class)))
+        }
+    )
+    public void downloadBookUploadFailures(
+        @PathVariable UUID id,
+        HttpServletResponse response
+    ) throws IOException {
+        uploadFailureService.download(id, response);
+    }
+
+    @PostMapping(value = "/upload/jobs", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(
+        summary = "Submits a book upload job",
+        description = "Stores the JSON file and creates books from it in background",
+        responses = {
+            @ApiResponse(responseCode = "202", description = "Upload job accepted",
+                headers = @Header(name = "Location"),
+                content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = UploadJobDto.class))
+            ),
+            @ApiResponse(responseCode = "400", description = "Invalid file",
+                content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = ProblemDetail.class))
+            ),
+            @ApiResponse(responseCode = "503", description = "Too many upload jobs in progress",
+                content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = ProblemDetail.class)))
+        }
+    )
+    public ResponseEntity<UploadJobDto> submitBookUploadJob(
+        @Parameter(
+            name = "file",
+            description = "JSON file with array of BookRequestDto",
+            required = true
+        )
+        @RequestPart("file") @Valid @JsonFile MultipartFile file,
+        @Parameter(description = "BATCH saves books through JPA, COPY streams them with PostgreSQL COPY for large files")
+        @RequestParam(defaultValue = "BATCH") UploadMode mode,
+        UriComponentsBuilder uriBuilder
+    ) throws IOException {
+        UploadJobDto job = uploadJobService.submit(file, mode);
+        URI uri = URIUtil.createLocationUri(uriBuilder, "/api/books/upload/jobs", job.id());
+        return ResponseEntity.accepted().location(uri).body(job);
+    }
+
+    @GetMapping("/upload/jobs/{id}")
+    @Operation(
+        summary = "Get book upload job",
+        description = "Retrieves status and progress of the upload job",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Upload job found",
+                content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = UploadJobDto.class))
+            ),
+            @ApiResponse(responseCode = "404", description = "Upload job not found",
+                content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = ProblemDetail.class)))
+        }
+    )
+    public ResponseEntity<UploadJobDto> getBookUploadJob(
+        @PathVariable UUID id
+    ) {
+        return ResponseEntity.ok(uploadJobService.getById(id));
+    }
+
 }
@@ -0,0 +1,142 @@
+package com.melnyk.profitsoft_2.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.ehcache.config.ResourcePools;
+import org.ehcache.config.ResourceType;
+import org.ehcache.config.SizedResourcePool;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.core.internal.statistics.DefaultTierStatistics;
+import org.ehcache.core.statistics.TierStatistics;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Management endpoint {@code /actuator/cacheRegions} of the Ehcache regions of {@link CacheManager}.
+ *
+ * <p>Shows the size of each tier of a region with the count of its mappings and its occupied bytes, read from
+ * the statistics which Ehcache keeps for the tier, so no entry is read; hits, misses, puts and evictions are
+ * exported as {@code cache.*} metrics. Regions are resized and cleared
+ * at runtime only over JMX, by {@link CacheRegionsJmxEndpointExtension}, the web endpoint is read-only.
+ * A resized region keeps its size until a restart, then it's sized by the properties again.</p>
+ */
+@Component
+@Endpoint(id = "cacheRegions")
+@RequiredArgsConstructor
+public class CacheRegionsEndpoint {
+
+    /**
+     * Names of the Ehcache statistics of the tiers.
+     */
+    private static final Map<ResourceType<?>, String> TIER_STATISTICS_NAMES = Map.of(
+        ResourceType.Core.HEAP, "OnHeap",
+        ResourceType.Core.OFFHEAP, "OffHeap",
+        ResourceType.Core.DISK, "Disk"
+    );
+
+    private final CacheManager cacheManager;
+
+    @ReadOperation
+    public Map<String, RegionDescriptor> regions() {
+        Map<String, RegionDescriptor> regions = new TreeMap<>();
+        for (String name : cacheManager.getCacheNames()) {
+            RegionDescriptor region = region(name);
+            if (region != null) {
+                regions.put(name, region);
+            }
+        }
+        return regions;
+    }
+
+    /**
+     * Returns the region, or {@code null} (404) if it doesn't exist.
+     */
+    @ReadOperation
+    public RegionDescriptor region(@Selector String name) {
+        javax.cache.Cache<?, ?> cache = getNativeCache(name);
+        if (cache == null) {
+            return null;
+        }
+
+        org.ehcache.Cache<?, ?> ehcache = cache.unwrap(org.ehcache.Cache.class);
+        ResourcePools pools = ehcache.getRuntimeConfiguration().getResourcePools();
+        Map<String, TierDescriptor> tiers = new LinkedHashMap<>();
+        for (ResourceType<?> type : pools.getResourceTypeSet()) {
+            if (pools.getPoolForResource(type) instanceof SizedResourcePool pool
+                && TIER_STATISTICS_NAMES.containsKey(type)) {
+                TierStatistics statistics = new DefaultTierStatistics(ehcache, TIER_STATISTICS_NAMES.get(type));
+                tiers.put(type.toString().toLowerCase(Locale.ROOT), new TierDescriptor(
+                    pool.getSize() + " " + pool.getUnit(), statistics.getMappings(), statistics.getOccupiedByteSize()));
+            }
+        }
+        return new RegionDescriptor(tiers);
+    }
+
+    /**
+     * Sets the count of entries kept on heap. Entries aren't dropped at once, a shrunk heap tier evicts
+     * extra entries on the next writes.
+     */
+    public RegionDescriptor resize(@Selector String name, long heapEntries) {
+        javax.cache.Cache<?, ?> cache = getNativeCache(name);
+        if (cache == null) {
+            return null;
+        }
+        if (heapEntries <= 0) {
+            throw new InvalidEndpointRequestException(
+                "heapEntries must be positive", "Invalid heapEntries " + heapEntries);
+        }
+
+        try {
+            cache.unwrap(org.ehcache.Cache.class).getRuntimeConfiguration()
+                .updateResourcePools(ResourcePoolsBuilder.heap(heapEntries).build());
+        } catch (IllegalArgumentException | UnsupportedOperationException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), "Region %s can't be resized".formatted(name));
+        }
+        return region(name);
+    }
+
+    /**
+     * Removes all entries of the region on this node.
+     */
+    public RegionDescriptor clear(@Selector String name) {
+        javax.cache.Cache<?, ?> cache = getNativeCache(name);
+        if (cache == null) {
+            return null;
+        }
+        cache.clear();
+        return region(name);
+    }
+
+    private javax.cache.Cache<?, ?> getNativeCache(String name) {
+        Cache cache = cacheManager.getCache(name);
+        return cache != null && cache.getNativeCache() instanceof javax.cache.Cache<?, ?> nativeCache
+            ? nativeCache
+            : null;
+    }
+
+    /**
+     * State of a region.
+     *
+     * @param tiers tiers by their names, e.g. {@code heap} or {@code offheap}
+     */
+    public record RegionDescriptor(Map<String, TierDescriptor> tiers) { }
+
+    /**
+     * State of a tier of a region.
+     *
+     * @param size configured size of the tier, e.g. {@code 1000 entries} or {@code 67108864 B}
+     * @param mappings count of entries in the tier, an entry of a lower tier may be in a higher tier too
+     * @param occupiedBytes bytes occupied by the entries, {@code -1} for the heap tier sized in entries
+     */
+    public record TierDescriptor(String size, long mappings, long occupiedBytes) { }
+
+}
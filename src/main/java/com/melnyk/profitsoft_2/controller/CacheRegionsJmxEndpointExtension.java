@@ -0,0 +1,38 @@
+package com.melnyk.profitsoft_2.controller;
+
+import com.melnyk.profitsoft_2.controller.CacheRegionsEndpoint.RegionDescriptor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.jmx.annotation.EndpointJmxExtension;
+import org.springframework.stereotype.Component;
+
+/**
+ * Operations of {@link CacheRegionsEndpoint} changing the regions, they are available over JMX only, so callers
+ * of the public web port can't resize or clear the caches.
+ */
+@Component
+@EndpointJmxExtension(endpoint = CacheRegionsEndpoint.class)
+@RequiredArgsConstructor
+public class CacheRegionsJmxEndpointExtension {
+
+    private final CacheRegionsEndpoint endpoint;
+
+    /**
+     * Sets the count of entries kept on heap, see {@link CacheRegionsEndpoint#resize(String, long)}.
+     */
+    @WriteOperation
+    public RegionDescriptor resize(@Selector String name, long heapEntries) {
+        return endpoint.resize(name, heapEntries);
+    }
+
+    /**
+     * Removes all entries of the region on this node.
+     */
+    @DeleteOperation
+    public RegionDescriptor clear(@Selector String name) {
+        return endpoint.clear(name);
+    }
+
+}
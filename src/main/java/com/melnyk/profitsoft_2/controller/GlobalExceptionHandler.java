@@ -6,6 +6,7 @@ import com.melnyk.profitsoft_2.exception.ResourceNotFoundException;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.jspecify.annotations.Nullable;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.http.*;
 import org.springframework.validation.BindException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -69,6 +70,15 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return buildProblemDetail(HttpStatus.BAD_REQUEST, "Bad request", "Bad request");
     }
 
+    @ExceptionHandler(TaskRejectedException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ProblemDetail handleTaskRejected(TaskRejectedException ex) {
+        log.warn("[{}] {}",
+            ex.getClass().getName(),
+            ex.getMessage());
+        return buildProblemDetail(HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable", "Too many jobs in progress, try again later");
+    }
+
     @ExceptionHandler(JacksonException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ProblemDetail handleJacksonException(JacksonException ex) {
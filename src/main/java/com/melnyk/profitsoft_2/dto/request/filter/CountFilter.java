@@ -0,0 +1,20 @@
+package com.melnyk.profitsoft_2.dto.request.filter;
+
+/**
+ * Filter interface for choosing how the total count of found entities is computed.
+ */
+public interface CountFilter {
+
+    /** Count mode, {@link CountMode#EXACT} if {@code null}. */
+    CountMode count();
+
+    /**
+     * Returns the key of the count of found entities: the filter without pagination fields
+     * and with normalized search strings, so all pages of a search share it.
+     */
+    Object countKey();
+
+    /** Returns {@code true} if the filter has no conditions and selects all entities. */
+    boolean selectsAll();
+
+}
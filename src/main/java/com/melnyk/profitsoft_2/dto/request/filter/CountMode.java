@@ -0,0 +1,23 @@
+package com.melnyk.profitsoft_2.dto.request.filter;
+
+/**
+ * How the total count of found entities is computed for a search page.
+ */
+public enum CountMode {
+
+    /** Counted by a {@code count(*)} query for every page. */
+    EXACT,
+
+    /** Not counted, the page only tells whether there is a next page. */
+    NONE,
+
+    /**
+     * Taken from the table statistics of the database when the filter selects all entities,
+     * otherwise the same as {@link #CACHED}.
+     */
+    ESTIMATED,
+
+    /** Counted once and cached for a short time, pages of the same search share the count. */
+    CACHED
+
+}
@@ -14,4 +14,10 @@ public interface PageFilter {
     /** Sorting criteria, e.g., "id,asc" or "name,desc". */
     String sort();
 
+    /**
+     * Cursor returned with the previous page, when it's present the page is selected after the cursor
+     * instead of by {@code page}, a blank cursor selects the first page.
+     */
+    String cursor();
+
 }
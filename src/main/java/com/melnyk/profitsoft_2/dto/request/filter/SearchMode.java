@@ -0,0 +1,17 @@
+package com.melnyk.profitsoft_2.dto.request.filter;
+
+/**
+ * How the query of a search is matched.
+ */
+public enum SearchMode {
+
+    /** Case-insensitive substring of the title. */
+    SUBSTRING,
+
+    /**
+     * Full-text search over the title, description and author name: every word of the query must be
+     * a prefix of a word of the book, books are ranked by relevance unless a sort is given.
+     */
+    FULL_TEXT
+
+}
@@ -1,10 +1,8 @@
 package com.melnyk.profitsoft_2.dto.request.filter.impl;
 
-import com.melnyk.profitsoft_2.dto.request.filter.CreationFilter;
-import com.melnyk.profitsoft_2.dto.request.filter.PageFilter;
-import com.melnyk.profitsoft_2.dto.request.filter.QueryFilter;
-import com.melnyk.profitsoft_2.dto.request.filter.UpdatedFilter;
+import com.melnyk.profitsoft_2.dto.request.filter.*;
 import com.melnyk.profitsoft_2.entity.Author;
+import com.melnyk.profitsoft_2.util.FilterUtil;
 import com.melnyk.profitsoft_2.validaton.SortExpression;
 
 import java.time.Instant;
@@ -16,8 +14,38 @@ public record AuthorFilter(
     Integer page,
     Integer size,
     @SortExpression(targetType = Author.class) String sort,
+    String cursor,
+    CountMode count,
     Instant startCreatedAt,
     Instant endCreatedAt,
     Instant startUpdatedAt,
     Instant endUpdatedAt
-) implements QueryFilter, PageFilter, CreationFilter, UpdatedFilter { }
+) implements QueryFilter, PageFilter, CountFilter, CreationFilter, UpdatedFilter {
+
+    private static final AuthorFilter ALL = new AuthorFilter(
+        null, null, null, null, null, null, null, null, null, null, null, null);
+
+    @Override
+    public AuthorFilter countKey() {
+        return new AuthorFilter(
+            FilterUtil.normalize(query),
+            FilterUtil.normalize(firstName),
+            FilterUtil.normalize(lastName),
+            null,
+            null,
+            null,
+            null,
+            null,
+            startCreatedAt,
+            endCreatedAt,
+            startUpdatedAt,
+            endUpdatedAt
+        );
+    }
+
+    @Override
+    public boolean selectsAll() {
+        return ALL.equals(countKey());
+    }
+
+}
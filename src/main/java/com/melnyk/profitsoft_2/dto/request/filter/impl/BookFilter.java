@@ -1,10 +1,8 @@
 package com.melnyk.profitsoft_2.dto.request.filter.impl;
 
-import com.melnyk.profitsoft_2.dto.request.filter.CreationFilter;
-import com.melnyk.profitsoft_2.dto.request.filter.PageFilter;
-import com.melnyk.profitsoft_2.dto.request.filter.QueryFilter;
-import com.melnyk.profitsoft_2.dto.request.filter.UpdatedFilter;
+import com.melnyk.profitsoft_2.dto.request.filter.*;
 import com.melnyk.profitsoft_2.entity.Book;
+import com.melnyk.profitsoft_2.util.FilterUtil;
 import com.melnyk.profitsoft_2.validaton.SortExpression;
 
 import java.time.Instant;
@@ -12,6 +10,7 @@ import java.util.Set;
 
 public record BookFilter(
     String query,
+    SearchMode search,
     Integer minYearPublished,
     Integer maxYearPublished,
     Set<Long> authorIds,
@@ -21,8 +20,52 @@ public record BookFilter(
     Integer page,
     Integer size,
     @SortExpression(targetType = Book.class) String sort,
+    String cursor,
+    CountMode count,
     Instant startCreatedAt,
     Instant endCreatedAt,
     Instant startUpdatedAt,
     Instant endUpdatedAt
-) implements QueryFilter, PageFilter, CreationFilter, UpdatedFilter { }
+) implements QueryFilter, PageFilter, CountFilter, CreationFilter, UpdatedFilter {
+
+    private static final BookFilter ALL = new BookFilter(
+        null, null, null, null, null, null, null, null, null, null, null, null, null, null, null, null, null);
+
+    @Override
+    public BookFilter countKey() {
+        String normalizedQuery = FilterUtil.normalize(query);
+        return new BookFilter(
+            normalizedQuery,
+            normalizedQuery != null && search == SearchMode.FULL_TEXT ? SearchMode.FULL_TEXT : null,
+            minYearPublished,
+            maxYearPublished,
+            FilterUtil.normalize(authorIds),
+            minPages,
+            maxPages,
+            FilterUtil.normalize(genreIds),
+            null,
+            null,
+            null,
+            null,
+            null,
+            startCreatedAt,
+            endCreatedAt,
+            startUpdatedAt,
+            endUpdatedAt
+        );
+    }
+
+    @Override
+    public boolean selectsAll() {
+        return ALL.equals(countKey());
+    }
+
+    /**
+     * Checks whether found books are ordered by relevance: a full-text search without a sort and a cursor.
+     */
+    public boolean rankedByRelevance() {
+        return search == SearchMode.FULL_TEXT && FilterUtil.toPrefixTsQuery(query) != null
+            && (sort == null || sort.isBlank()) && cursor == null;
+    }
+
+}
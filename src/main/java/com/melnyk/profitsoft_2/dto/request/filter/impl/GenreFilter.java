@@ -1,10 +1,8 @@
 package com.melnyk.profitsoft_2.dto.request.filter.impl;
 
-import com.melnyk.profitsoft_2.dto.request.filter.CreationFilter;
-import com.melnyk.profitsoft_2.dto.request.filter.PageFilter;
-import com.melnyk.profitsoft_2.dto.request.filter.QueryFilter;
-import com.melnyk.profitsoft_2.dto.request.filter.UpdatedFilter;
+import com.melnyk.profitsoft_2.dto.request.filter.*;
 import com.melnyk.profitsoft_2.entity.Genre;
+import com.melnyk.profitsoft_2.util.FilterUtil;
 import com.melnyk.profitsoft_2.validaton.SortExpression;
 
 import java.time.Instant;
@@ -14,8 +12,35 @@ public record GenreFilter(
     Integer page,
     Integer size,
     @SortExpression(targetType = Genre.class) String sort,
+    String cursor,
+    CountMode count,
     Instant startCreatedAt,
     Instant endCreatedAt,
     Instant startUpdatedAt,
     Instant endUpdatedAt
-) implements QueryFilter, PageFilter, CreationFilter, UpdatedFilter { }
+) implements QueryFilter, PageFilter, CountFilter, CreationFilter, UpdatedFilter {
+
+    private static final GenreFilter ALL = new GenreFilter(null, null, null, null, null, null, null, null, null, null);
+
+    @Override
+    public GenreFilter countKey() {
+        return new GenreFilter(
+            FilterUtil.normalize(query),
+            null,
+            null,
+            null,
+            null,
+            null,
+            startCreatedAt,
+            endCreatedAt,
+            startUpdatedAt,
+            endUpdatedAt
+        );
+    }
+
+    @Override
+    public boolean selectsAll() {
+        return ALL.equals(countKey());
+    }
+
+}
@@ -0,0 +1,9 @@
+package com.melnyk.profitsoft_2.dto.response;
+
+/**
+ * The DTO class that represents a book suggested while typing a title or an author name
+ */
+public record BookSuggestionDto(
+    Long id,
+    String title
+) { }
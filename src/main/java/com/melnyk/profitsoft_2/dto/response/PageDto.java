@@ -1,22 +1,40 @@
 package com.melnyk.profitsoft_2.dto.response;
 
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 
 /**
- * The dto class that represents a pagination page
+ * The dto class that represents a pagination page.
+ *
+ * <p>{@code totalElements} and {@code totalPages} are {@code null} when the search isn't counted. Pages selected
+ * by a cursor have no {@code page} either, {@code nextCursor} is {@code null} on the last page.</p>
  */
 public record PageDto<T extends InfoDto>(
     List<T> content,
-    int page,
+    Integer page,
     int size,
-    long totalElements,
-    int totalPages
+    Long totalElements,
+    Integer totalPages,
+    boolean hasNext,
+    String nextCursor
 ) {
 
-    public PageDto(Page<T> page) {
-        this(page.getContent(), page.getNumber(), page.getSize(), page.getTotalElements(), page.getTotalPages());
+    public PageDto(Slice<T> slice) {
+        this(
+            slice.getContent(),
+            slice.getNumber(),
+            slice.getSize(),
+            slice instanceof Page<T> page ? page.getTotalElements() : null,
+            slice instanceof Page<T> page ? page.getTotalPages() : null,
+            slice.hasNext(),
+            null
+        );
     }
 
-}
\ No newline at end of file
+    public PageDto(List<T> content, int size, String nextCursor) {
+        this(content, null, size, null, null, nextCursor != null, nextCursor);
+    }
+
+}
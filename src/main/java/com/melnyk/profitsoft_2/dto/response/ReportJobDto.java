@@ -0,0 +1,27 @@
+package com.melnyk.profitsoft_2.dto.response;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * The DTO class that represents state of an asynchronous report job
+ */
+public record ReportJobDto(
+    UUID id,
+    Status status,
+    long rowsWritten,
+    Instant createdAt,
+    Instant startedAt,
+    Instant finishedAt,
+    String error
+) {
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED,
+        CANCELLED
+    }
+
+}
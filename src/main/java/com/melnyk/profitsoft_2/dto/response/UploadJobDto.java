@@ -0,0 +1,25 @@
+package com.melnyk.profitsoft_2.dto.response;
+
+import com.melnyk.profitsoft_2.entity.UploadJob;
+import com.melnyk.profitsoft_2.service.UploadMode;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * The DTO class that represents state of an asynchronous upload job
+ */
+public record UploadJobDto(
+    UUID id,
+    UploadJob.Status status,
+    UploadMode mode,
+    String fileName,
+    long parsedCount,
+    long createdCount,
+    long failedCount,
+    UUID failuresFileId,
+    Instant createdAt,
+    Instant startedAt,
+    Instant finishedAt,
+    String error
+) {}
@@ -1,12 +1,17 @@
 package com.melnyk.profitsoft_2.dto.response;
 
+import com.melnyk.profitsoft_2.service.UploadFailureReason;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 /**
  * The DTO class that contains result of upload operation
@@ -40,9 +45,26 @@ public class UploadResponse {
     private int failedCount;
 
     /**
-     * List of {@link FailedItem}
+     * List of {@link FailedItem}, only the first ones if the full list is written into a file
      */
     @Builder.Default
     private List<FailedItem> failedItems = new ArrayList<>();
 
+    /**
+     * Count of failed objects per reason
+     */
+    @Builder.Default
+    private Map<UploadFailureReason, Long> failureCounts = new EnumMap<>(UploadFailureReason.class);
+
+    /**
+     * Id of the NDJSON file with all failed objects, {@code null} if all of them are in {@link #failedItems}
+     */
+    private UUID failuresFileId;
+
+    /**
+     * Time in milliseconds spent in each stage of the upload (parse, lookup, validate, insert)
+     */
+    @Builder.Default
+    private Map<String, Long> stageTimings = new LinkedHashMap<>();
+
 }
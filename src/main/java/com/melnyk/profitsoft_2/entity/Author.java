@@ -37,8 +37,10 @@ public class Author {
     @Builder.Default
     private List<Book> books = new ArrayList<>();
 
+    @Column(nullable = false)
     private Instant createdAt;
 
+    @Column(nullable = false)
     private Instant updatedAt;
 
     @PrePersist
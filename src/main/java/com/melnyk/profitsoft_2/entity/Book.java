@@ -52,8 +52,10 @@ public class Book {
     @Builder.Default
     private Set<Genre> genres = new HashSet<>();
 
+    @Column(nullable = false)
     private Instant createdAt;
 
+    @Column(nullable = false)
     private Instant updatedAt;
 
     @PrePersist
@@ -35,8 +35,10 @@ public class Genre {
     @Builder.Default
     private List<Book> books = new ArrayList<>();
 
+    @Column(nullable = false)
     private Instant createdAt;
 
+    @Column(nullable = false)
     private Instant updatedAt;
 
     @PrePersist
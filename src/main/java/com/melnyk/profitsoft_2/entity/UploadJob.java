@@ -0,0 +1,103 @@
+package com.melnyk.profitsoft_2.entity;
+
+import com.melnyk.profitsoft_2.service.UploadMode;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Asynchronous books upload. {@code parsedCount} and {@code failuresSize} are the checkpoint of the job:
+ * they're updated in the same transaction as the inserted books, so a resumed job skips exactly the objects
+ * that were already processed and drops failures written after the checkpoint.
+ */
+@Entity
+@Table(name = "upload_jobs")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UploadJob {
+
+    @Id
+    private UUID id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private UploadMode mode;
+
+    private String fileName;
+
+    @Column(nullable = false)
+    private String spoolFile;
+
+    @Column(nullable = false)
+    private long parsedCount;
+
+    @Column(nullable = false)
+    private long createdCount;
+
+    @Column(nullable = false)
+    private long failedCount;
+
+    /**
+     * Size of the failures file at the checkpoint, the file id is the job id
+     */
+    @Column(nullable = false)
+    private long failuresSize;
+
+    private String error;
+
+    /**
+     * Node which runs the job, {@code null} if any node may take it
+     */
+    private String owner;
+
+    /**
+     * Time when the owner last confirmed that it runs the job
+     */
+    private Instant heartbeatAt;
+
+    private Instant createdAt;
+
+    private Instant startedAt;
+
+    private Instant finishedAt;
+
+    @PrePersist
+    public void prePersist() {
+        createdAt = Instant.now();
+    }
+
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        UploadJob job = (UploadJob) o;
+        return Objects.equals(id, job.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+}
@@ -0,0 +1,11 @@
+package com.melnyk.profitsoft_2.event;
+
+import java.util.List;
+
+/**
+ * Entries changed on this node, they are evicted from the caches of other nodes.
+ *
+ * @param cacheName name of the cache
+ * @param keys keys of the changed entries
+ */
+public record CacheInvalidationEvent(String cacheName, List<Long> keys) { }
@@ -0,0 +1,53 @@
+package com.melnyk.profitsoft_2.event;
+
+import com.melnyk.profitsoft_2.service.impl.CacheVersions;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+/**
+ * Evicts entries changed on other application nodes from the local caches.
+ *
+ * <p>Every node reads all invalidations by its own consumer group, starting from the latest offset,
+ * invalidations sent while the node was down don't matter as its caches were empty.</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "cache.invalidation", name = "enabled", matchIfMissing = true)
+public class CacheInvalidationKafkaListener {
+
+    private final CacheManager cacheManager;
+    private final CacheVersions cacheVersions;
+    private final CacheInvalidationKafkaPublisher publisher;
+
+    @KafkaListener(
+        topics = "${kafka.topics.cache-invalidation}",
+        groupId = "cache-invalidation-#{@cacheInvalidationKafkaPublisher.nodeId}",
+        properties = "auto.offset.reset=latest"
+    )
+    public void on(
+        CacheInvalidationEvent event,
+        @Header(CacheInvalidationKafkaPublisher.ORIGIN_HEADER) byte[] origin
+    ) {
+        if (publisher.getNodeId().equals(new String(origin, StandardCharsets.UTF_8))) {
+            return;
+        }
+        Optional.ofNullable(cacheManager.getCache(event.cacheName())).ifPresent(cache -> evict(cache, event));
+    }
+
+    private void evict(Cache cache, CacheInvalidationEvent event) {
+        // a load of the entry started before isn't cached
+        event.keys().forEach(key -> cacheVersions.evict(cache, key));
+        log.debug("Evicted {} entries of cache {} changed on another node", event.keys().size(), event.cacheName());
+    }
+
+}
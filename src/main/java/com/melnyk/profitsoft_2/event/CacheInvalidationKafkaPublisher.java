@@ -0,0 +1,57 @@
+package com.melnyk.profitsoft_2.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Sends cache invalidations to other application nodes, each node is marked by a random id,
+ * so {@link CacheInvalidationKafkaListener} skips invalidations of its own node.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "cache.invalidation", name = "enabled", matchIfMissing = true)
+public class CacheInvalidationKafkaPublisher {
+
+    public static final String ORIGIN_HEADER = "origin";
+
+    private final KafkaTemplate<String, CacheInvalidationEvent> kafkaTemplate;
+
+    @Getter
+    private final String nodeId = UUID.randomUUID().toString();
+
+    @Value("${kafka.topics.cache-invalidation}")
+    private String cacheInvalidationTopic;
+
+    // a cache entry may be changed after the commit, outside of a transaction
+    @Async
+    @TransactionalEventListener(
+        classes = CacheInvalidationEvent.class,
+        phase = TransactionPhase.AFTER_COMMIT,
+        fallbackExecution = true
+    )
+    public void on(CacheInvalidationEvent event) {
+        try {
+            ProducerRecord<String, CacheInvalidationEvent> record =
+                new ProducerRecord<>(cacheInvalidationTopic, event.cacheName(), event);
+            record.headers().add(ORIGIN_HEADER, nodeId.getBytes(StandardCharsets.UTF_8));
+            kafkaTemplate.send(record);
+            log.debug("Sent cache invalidation {}", event);
+        } catch (Exception e) {
+            log.warn("Sending cache invalidation fail. ", e);
+        }
+    }
+
+}
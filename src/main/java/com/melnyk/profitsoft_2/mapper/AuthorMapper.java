@@ -4,6 +4,7 @@ import com.melnyk.profitsoft_2.dto.request.AuthorRequestDto;
 import com.melnyk.profitsoft_2.dto.response.AuthorDetailsDto;
 import com.melnyk.profitsoft_2.dto.response.AuthorInfoDto;
 import com.melnyk.profitsoft_2.entity.Author;
+import com.melnyk.profitsoft_2.service.AuthorSnapshot;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.Mappings;
@@ -13,6 +14,8 @@ public interface AuthorMapper {
 
     AuthorDetailsDto toDetailsDto(Author author);
     AuthorInfoDto toInfoDto(Author author);
+    AuthorDetailsDto toDetailsDto(AuthorSnapshot author);
+    AuthorInfoDto toInfoDto(AuthorSnapshot author);
 
     @Mappings({
         @Mapping(target = "id", ignore = true),
@@ -3,17 +3,55 @@ package com.melnyk.profitsoft_2.mapper;
 import com.melnyk.profitsoft_2.dto.request.BookRequestDto;
 import com.melnyk.profitsoft_2.dto.response.BookDetailsDto;
 import com.melnyk.profitsoft_2.dto.response.BookInfoDto;
+import com.melnyk.profitsoft_2.dto.response.GenreInfoDto;
 import com.melnyk.profitsoft_2.entity.Book;
+import com.melnyk.profitsoft_2.repository.BookGenreView;
+import com.melnyk.profitsoft_2.repository.BookInfoView;
+import com.melnyk.profitsoft_2.service.AuthorSnapshot;
+import com.melnyk.profitsoft_2.service.GenreSnapshot;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.Mappings;
 
+import java.util.Collection;
+import java.util.List;
+
 @Mapper(uses = {AuthorMapper.class, GenreMapper.class})
 public interface BookMapper {
 
     BookDetailsDto toDetailsDto(Book entity);
+
+    /**
+     * Maps a saved book whose author and genres may be uninitialized references, they are taken from the snapshots.
+     */
+    @Mappings({
+        @Mapping(target = "id", source = "entity.id"),
+        @Mapping(target = "author", source = "authorSnapshot"),
+        @Mapping(target = "genres", source = "genreSnapshots"),
+        @Mapping(target = "createdAt", source = "entity.createdAt"),
+        @Mapping(target = "updatedAt", source = "entity.updatedAt")
+    })
+    BookDetailsDto toDetailsDto(Book entity, AuthorSnapshot authorSnapshot, Collection<GenreSnapshot> genreSnapshots);
+
     BookInfoDto toInfoDto(Book entity);
 
+    @Mapping(target = "genres", source = "bookGenres")
+    BookInfoDto toInfoDto(Book entity, List<BookGenreView> bookGenres);
+
+    @Mappings({
+        @Mapping(target = "author.id", source = "view.authorId"),
+        @Mapping(target = "author.firstName", source = "view.authorFirstName"),
+        @Mapping(target = "author.lastName", source = "view.authorLastName"),
+        @Mapping(target = "genres", source = "genres")
+    })
+    BookInfoDto toInfoDto(BookInfoView view, List<BookGenreView> genres);
+
+    @Mappings({
+        @Mapping(target = "id", source = "genreId"),
+        @Mapping(target = "name", source = "genreName")
+    })
+    GenreInfoDto toGenreInfoDto(BookGenreView view);
+
     @Mappings({
         @Mapping(target = "id", ignore = true),
         @Mapping(target = "author", ignore = true),
@@ -4,6 +4,7 @@ import com.melnyk.profitsoft_2.dto.request.GenreRequestDto;
 import com.melnyk.profitsoft_2.dto.response.GenreDetailsDto;
 import com.melnyk.profitsoft_2.dto.response.GenreInfoDto;
 import com.melnyk.profitsoft_2.entity.Genre;
+import com.melnyk.profitsoft_2.service.GenreSnapshot;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.Mappings;
@@ -13,6 +14,8 @@ public interface GenreMapper {
 
     GenreDetailsDto toDetailsDto(Genre genre);
     GenreInfoDto toInfoDto(Genre genre);
+    GenreDetailsDto toDetailsDto(GenreSnapshot genre);
+    GenreInfoDto toInfoDto(GenreSnapshot genre);
 
     @Mappings({
         @Mapping(target = "id", ignore = true),
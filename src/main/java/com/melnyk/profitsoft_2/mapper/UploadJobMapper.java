@@ -0,0 +1,14 @@
+package com.melnyk.profitsoft_2.mapper;
+
+import com.melnyk.profitsoft_2.dto.response.UploadJobDto;
+import com.melnyk.profitsoft_2.entity.UploadJob;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper
+public interface UploadJobMapper {
+
+    @Mapping(target = "failuresFileId", source = "id")
+    UploadJobDto toDto(UploadJob job);
+
+}
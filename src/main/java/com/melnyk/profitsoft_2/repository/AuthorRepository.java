@@ -3,9 +3,33 @@ package com.melnyk.profitsoft_2.repository;
 import com.melnyk.profitsoft_2.entity.Author;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface AuthorRepository extends JpaRepository<Author, Long>, JpaSpecificationExecutor<Author> {
 
+    @Query("select a.id from Author a order by a.id")
+    List<Long> findAllIds();
+
+    /**
+     * Selects authors whose lower-cased full name contains the query or is similar to it, the most similar first.
+     * Requires PostgreSQL with {@code pg_trgm}, the conditions are served by {@code idx_authors_full_name_trgm}.
+     *
+     * @param query lower-cased query
+     * @param pattern {@code LIKE} pattern of the query
+     * @param limit max count of selected authors
+     * @return selected authors
+     */
+    @Query(value = """
+        SELECT a.* FROM authors a
+        WHERE lower(a.first_name || ' ' || a.last_name) LIKE :pattern
+            OR :query <% lower(a.first_name || ' ' || a.last_name)
+        ORDER BY word_similarity(:query, lower(a.first_name || ' ' || a.last_name)) DESC, a.id
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<Author> findMostSimilar(String query, String pattern, int limit);
+
 }
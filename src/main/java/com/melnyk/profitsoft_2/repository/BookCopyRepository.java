@@ -0,0 +1,30 @@
+package com.melnyk.profitsoft_2.repository;
+
+import com.melnyk.profitsoft_2.entity.Book;
+
+import java.util.List;
+
+/**
+ * Bulk insert of {@link Book} entities with the PostgreSQL {@code COPY} command, bypassing the persistence context.
+ */
+public interface BookCopyRepository {
+
+    /**
+     * Checks whether the database supports {@link #copyInsert(List)}.
+     */
+    boolean isCopySupported();
+
+    /**
+     * Inserts books with their genres through a staging table filled by {@code COPY}.
+     *
+     * <p>Ids are allocated from {@code books_id_seq} in blocks the same way as Hibernate does, so the
+     * inserted books don't clash with ones persisted by JPA. Books with a title that already exists for the
+     * author are skipped set-based, without failing the whole insert. Must be called inside a transaction.</p>
+     *
+     * @param books books to insert, their author and genres must be set; ids are assigned by the method,
+     *              timestamps take the column defaults
+     * @return books that were skipped because of the title and author conflict
+     */
+    List<Book> copyInsert(List<Book> books);
+
+}
@@ -0,0 +1,163 @@
+package com.melnyk.profitsoft_2.repository;
+
+import com.melnyk.profitsoft_2.entity.Book;
+import com.melnyk.profitsoft_2.entity.Genre;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.sql.*;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+public class BookCopyRepositoryImpl implements BookCopyRepository {
+
+    /**
+     * Allocation size of {@code books_id_seq}, the same as increment of the sequence
+     * and allocation size of the {@link Book} id generator
+     */
+    private static final int ID_ALLOCATION_SIZE = 50;
+
+    private static final String CREATE_STAGING_TABLE_SQL = """
+        CREATE TEMPORARY TABLE IF NOT EXISTS books_upload_staging (
+            id BIGINT NOT NULL,
+            title VARCHAR(255) NOT NULL,
+            description TEXT,
+            author_id BIGINT NOT NULL,
+            year_published INT NOT NULL,
+            pages INT NOT NULL,
+            genre_ids BIGINT[] NOT NULL
+        ) ON COMMIT DELETE ROWS
+        """;
+
+    private static final String TRUNCATE_STAGING_TABLE_SQL = "TRUNCATE books_upload_staging";
+
+    private static final String COPY_STAGING_SQL = """
+        COPY books_upload_staging (id, title, description, author_id, year_published, pages, genre_ids)
+        FROM STDIN WITH (FORMAT csv)
+        """;
+
+    private static final String ALLOCATE_IDS_SQL = "SELECT nextval('books_id_seq') FROM generate_series(1, ?)";
+
+    /**
+     * Inserts staged books skipping conflicting ones, then inserts genres of the inserted books
+     * and returns ids of the skipped books.
+     */
+    private static final String INSERT_FROM_STAGING_SQL = """
+        WITH inserted AS (
+            INSERT INTO books (id, title, description, author_id, year_published, pages)
+            SELECT id, title, description, author_id, year_published, pages
+            FROM books_upload_staging
+            ON CONFLICT ON CONSTRAINT uq_books_title_author_id DO NOTHING
+            RETURNING id
+        ), inserted_genres AS (
+            INSERT INTO books_genres (book_id, genre_id)
+            SELECT s.id, unnest(s.genre_ids)
+            FROM books_upload_staging s
+            JOIN inserted i ON i.id = s.id
+        )
+        SELECT s.id
+        FROM books_upload_staging s
+        WHERE NOT EXISTS (SELECT 1 FROM inserted i WHERE i.id = s.id)
+        """;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public boolean isCopySupported() {
+        return entityManager.unwrap(Session.class)
+            .doReturningWork(connection -> connection.isWrapperFor(PGConnection.class));
+    }
+
+    @Override
+    public List<Book> copyInsert(List<Book> books) {
+        if (books.isEmpty()) {
+            return List.of();
+        }
+
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            assignIds(connection, books);
+
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(CREATE_STAGING_TABLE_SQL);
+                // rows of a previous call in the same transaction are still there
+                statement.execute(TRUNCATE_STAGING_TABLE_SQL);
+            }
+
+            CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            try {
+                copyManager.copyIn(COPY_STAGING_SQL, new StringReader(toCsv(books)));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            Map<Long, Book> booksById = books.stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+            List<Book> skipped = new ArrayList<>();
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(INSERT_FROM_STAGING_SQL)) {
+                while (rs.next()) {
+                    skipped.add(booksById.get(rs.getLong(1)));
+                }
+            }
+            return skipped;
+        });
+    }
+
+    /**
+     * Allocates ids in blocks, each sequence value {@code v} reserves ids {@code (v - 49)..v}.
+     */
+    private void assignIds(Connection connection, List<Book> books) throws SQLException {
+        int assigned = 0;
+        try (PreparedStatement statement = connection.prepareStatement(ALLOCATE_IDS_SQL)) {
+            // usually one round-trip, only the first value of the sequence reserves a shorter block
+            while (assigned < books.size()) {
+                int remaining = books.size() - assigned;
+                statement.setInt(1, (remaining + ID_ALLOCATION_SIZE - 1) / ID_ALLOCATION_SIZE);
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        long hi = rs.getLong(1);
+                        for (long id = Math.max(1, hi - ID_ALLOCATION_SIZE + 1); id <= hi && assigned < books.size(); id++) {
+                            books.get(assigned++).setId(id);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private String toCsv(List<Book> books) {
+        StringBuilder csv = new StringBuilder();
+        for (Book book : books) {
+            String genreIds = book.getGenres().stream()
+                .map(Genre::getId)
+                .map(String::valueOf)
+                .collect(Collectors.joining(",", "{", "}"));
+
+            csv.append(book.getId()).append(',')
+                .append(quote(book.getTitle())).append(',')
+                .append(book.getDescription() == null ? "" : quote(book.getDescription())).append(',')
+                .append(book.getAuthor().getId()).append(',')
+                .append(book.getYearPublished()).append(',')
+                .append(book.getPages()).append(',')
+                .append(quote(genreIds))
+                .append('\n');
+        }
+        return csv.toString();
+    }
+
+    /**
+     * Quotes the value, so an empty string isn't read as {@code NULL}.
+     */
+    private static String quote(String value) {
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+}
@@ -0,0 +1,10 @@
+package com.melnyk.profitsoft_2.repository;
+
+/**
+ * Genre of a book.
+ *
+ * @param bookId id of the book
+ * @param genreId id of the genre
+ * @param genreName name of the genre
+ */
+public record BookGenreView(Long bookId, Long genreId, String genreName) { }
@@ -0,0 +1,24 @@
+package com.melnyk.profitsoft_2.repository;
+
+/**
+ * Columns of a book listed in search results with the name of its author, without its genres.
+ *
+ * @param id id of the book
+ * @param title title of the book
+ * @param description description of the book
+ * @param authorId id of the author
+ * @param authorFirstName first name of the author
+ * @param authorLastName last name of the author
+ * @param yearPublished year the book was published
+ * @param pages count of pages
+ */
+public record BookInfoView(
+    Long id,
+    String title,
+    String description,
+    Long authorId,
+    String authorFirstName,
+    String authorLastName,
+    Integer yearPublished,
+    Integer pages
+) { }
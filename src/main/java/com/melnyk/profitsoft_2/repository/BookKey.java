@@ -0,0 +1,41 @@
+package com.melnyk.profitsoft_2.repository;
+
+/**
+ * Natural key of a book, the title is unique within books of the author.
+ *
+ * @param title title of the book
+ * @param authorId id of the author
+ */
+public record BookKey(String title, Long authorId) {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /**
+     * Returns a 64-bit hash of the key. Unlike {@link #hashCode()}, its collisions are rare enough
+     * to use it as a compact fingerprint of the key, but they are still possible.
+     */
+    public long hash64() {
+        long hash = FNV_OFFSET_BASIS;
+        if (title != null) {
+            for (int i = 0; i < title.length(); i++) {
+                hash = (hash ^ title.charAt(i)) * FNV_PRIME;
+            }
+        }
+        hash ^= authorId != null ? mix(authorId) : 0;
+        return mix(hash);
+    }
+
+    /**
+     * Finalization step of MurmurHash3, spreads every input bit over the whole result.
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb93fe53bd0b7L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+}
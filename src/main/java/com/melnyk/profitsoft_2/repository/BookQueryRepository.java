@@ -0,0 +1,52 @@
+package com.melnyk.profitsoft_2.repository;
+
+import com.melnyk.profitsoft_2.entity.Book;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.stream.Stream;
+
+/**
+ * Custom read queries for {@link Book} that are not covered by Spring Data derived queries.
+ */
+public interface BookQueryRepository {
+
+    /**
+     * Streams all books matching the specification using a database cursor.
+     *
+     * <p>Rows are fetched lazily in portions of {@code fetchSize}, so the caller must consume the stream
+     * inside a transaction and close it when done.</p>
+     *
+     * @param spec specification of the books to select
+     * @param sort sort order of the stream
+     * @param fetchSize count of rows fetched from the database per round-trip
+     * @return lazy stream of read-only {@link Book} entities with their authors, the genres are not fetched
+     */
+    Stream<Book> streamAll(Specification<Book> spec, Sort sort, int fetchSize);
+
+    /**
+     * Selects a page of ids of books matching the specification, without loading the books.
+     *
+     * <p>Together with {@link BookRepository#findInfoViewsByIdIn} and {@link BookRepository#findGenreViewsByBookIdIn}
+     * it selects a page of books in two phases, so the columns of the page's books are selected by the ids
+     * and the joins don't affect the pagination.</p>
+     *
+     * @param spec specification of the books to select
+     * @param pageable page to select, without a sort the ids are ordered by the specification
+     * @return page of book ids in the requested order
+     */
+    Page<Long> findIds(Specification<Book> spec, Pageable pageable);
+
+    /**
+     * Selects a page of ids of books matching the specification without counting them, see {@link #findIds}.
+     *
+     * @param spec specification of the books to select
+     * @param pageable page to select, without a sort the ids are ordered by the specification
+     * @return slice of book ids in the requested order
+     */
+    Slice<Long> findIdSlice(Specification<Book> spec, Pageable pageable);
+
+}
@@ -0,0 +1,116 @@
+package com.melnyk.profitsoft_2.repository;
+
+import com.melnyk.profitsoft_2.entity.Book;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+public class BookQueryRepositoryImpl implements BookQueryRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Stream<Book> streamAll(Specification<Book> spec, Sort sort, int fetchSize) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Book> query = cb.createQuery(Book.class);
+        Root<Book> root = query.from(Book.class);
+
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        // the author is a single row per book, unlike the genres it doesn't multiply the streamed rows;
+        // the specification may have fetched it already, a second fetch would join the authors twice
+        boolean authorFetched = root.getFetches().stream()
+            .anyMatch(fetch -> fetch.getAttribute().getName().equals("author"));
+        if (!authorFetched) {
+            root.fetch("author");
+        }
+        query.select(root);
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+
+        return entityManager.createQuery(query)
+            .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+            .setHint(HibernateHints.HINT_READ_ONLY, true)
+            .getResultStream();
+    }
+
+    @Override
+    public Page<Long> findIds(Specification<Book> spec, Pageable pageable) {
+        TypedQuery<Long> query = createIdQuery(spec, pageable);
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        List<Long> ids = query.getResultList();
+
+        // the count query is skipped when the page itself shows the total
+        return PageableExecutionUtils.getPage(ids, pageable, () -> count(spec));
+    }
+
+    @Override
+    public Slice<Long> findIdSlice(Specification<Book> spec, Pageable pageable) {
+        TypedQuery<Long> query = createIdQuery(spec, pageable);
+        if (pageable.isUnpaged()) {
+            return new SliceImpl<>(query.getResultList(), pageable, false);
+        }
+
+        // one more id shows whether the next page exists
+        List<Long> ids = query
+            .setFirstResult((int) pageable.getOffset())
+            .setMaxResults(pageable.getPageSize() + 1)
+            .getResultList();
+        boolean hasNext = ids.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? ids.subList(0, pageable.getPageSize()) : ids, pageable, hasNext);
+    }
+
+    private TypedQuery<Long> createIdQuery(Specification<Book> spec, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Book> root = query.from(Book.class);
+
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(root.get("id"));
+        // without a sort the order of the specification is kept, e.g. the relevance of a full-text search
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+        }
+
+        return entityManager.createQuery(query);
+    }
+
+    private long count(Specification<Book> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Book> root = query.from(Book.class);
+
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(cb.count(root));
+        query.orderBy(List.of());
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+}
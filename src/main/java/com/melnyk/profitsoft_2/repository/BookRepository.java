@@ -1,15 +1,23 @@
 package com.melnyk.profitsoft_2.repository;
 
 import com.melnyk.profitsoft_2.entity.Book;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface BookRepository extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book> {
+public interface BookRepository extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book>, BookQueryRepository,
+    BookCopyRepository {
 
     @EntityGraph(attributePaths = { "author", "genres" })
     Optional<Book> findByTitleAndAuthorId(String title, Long authorId);
@@ -17,4 +25,81 @@ public interface BookRepository extends JpaRepository<Book, Long>, JpaSpecificat
     @EntityGraph(attributePaths = { "author", "genres" })
     Optional<Book> findById(Long id);
 
+    @EntityGraph(attributePaths = { "author", "genres" })
+    List<Book> findAllByIdIn(Collection<Long> ids);
+
+    /**
+     * Returns columns of the books listed in search results with names of their authors, without loading
+     * the entities. The order of the books is undefined.
+     */
+    @Query("""
+        select new com.melnyk.profitsoft_2.repository.BookInfoView(
+            b.id, b.title, b.description, a.id, a.firstName, a.lastName, b.yearPublished, b.pages)
+        from Book b
+        join b.author a
+        where b.id in :ids
+        """)
+    List<BookInfoView> findInfoViewsByIdIn(Collection<Long> ids);
+
+    /**
+     * Returns genres of the books, ordered by book and genre name.
+     */
+    @Query("""
+        select new com.melnyk.profitsoft_2.repository.BookGenreView(b.id, g.id, g.name)
+        from Book b
+        join b.genres g
+        where b.id in :bookIds
+        order by b.id, g.name
+        """)
+    List<BookGenreView> findGenreViewsByBookIdIn(Collection<Long> bookIds);
+
+    /**
+     * Returns keys of existing books with any of the titles and any of the authors,
+     * the caller checks exact (title, authorId) pairs.
+     */
+    @Query("""
+        select new com.melnyk.profitsoft_2.repository.BookKey(b.title, b.author.id)
+        from Book b
+        where b.title in :titles and b.author.id in :authorIds
+        """)
+    List<BookKey> findKeysByTitlesAndAuthorIds(Collection<String> titles, Collection<Long> authorIds);
+
+    /**
+     * Streams titles of all books with names of their authors, the caller must consume the stream
+     * inside a transaction and close it.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+        select new com.melnyk.profitsoft_2.repository.BookTitleView(b.id, b.title, a.id, a.firstName, a.lastName)
+        from Book b
+        join b.author a
+        """)
+    Stream<BookTitleView> streamAllTitleViews();
+
+    /**
+     * Returns titles of books of the author with the author name.
+     */
+    @Query("""
+        select new com.melnyk.profitsoft_2.repository.BookTitleView(b.id, b.title, a.id, a.firstName, a.lastName)
+        from Book b
+        join b.author a
+        where a.id = :authorId
+        """)
+    List<BookTitleView> findTitleViewsByAuthorId(Long authorId);
+
+    /**
+     * Returns titles of books with any of the titles and any of the authors,
+     * the caller checks exact (title, authorId) pairs.
+     */
+    @Query("""
+        select new com.melnyk.profitsoft_2.repository.BookTitleView(b.id, b.title, a.id, a.firstName, a.lastName)
+        from Book b
+        join b.author a
+        where b.title in :titles and a.id in :authorIds
+        """)
+    List<BookTitleView> findTitleViewsByTitlesAndAuthorIds(Collection<String> titles, Collection<Long> authorIds);
+
 }
@@ -0,0 +1,12 @@
+package com.melnyk.profitsoft_2.repository;
+
+/**
+ * Title of a book with the name of its author.
+ *
+ * @param id id of the book
+ * @param title title of the book
+ * @param authorId id of the author
+ * @param authorFirstName first name of the author
+ * @param authorLastName last name of the author
+ */
+public record BookTitleView(Long id, String title, Long authorId, String authorFirstName, String authorLastName) { }
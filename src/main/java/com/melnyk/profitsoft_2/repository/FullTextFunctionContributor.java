@@ -0,0 +1,65 @@
+package com.melnyk.profitsoft_2.repository;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.query.sqm.function.SqmFunctionRegistry;
+import org.hibernate.type.BasicTypeRegistry;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Registers PostgreSQL full-text search functions for JPQL and criteria queries.
+ *
+ * <p>The functions render the same {@code tsvector} expressions as the GIN indexes
+ * {@code idx_books_full_text} and {@code idx_authors_full_text}, so PostgreSQL can use the indexes.
+ * An expression changed here must be changed in the indexes as well.</p>
+ *
+ * <p>Documents are built with the {@code simple} configuration: words are lower-cased but not stemmed, which
+ * suits titles and names in any language and keeps prefix matching predictable. Title words weigh more than
+ * description words in the rank.</p>
+ *
+ * <p>The functions are registered for PostgreSQL only.</p>
+ */
+public class FullTextFunctionContributor implements FunctionContributor {
+
+    /** {@code book_fts_match(title, description, tsQuery)} - whether the book document matches the query. */
+    public static final String BOOK_MATCH = "book_fts_match";
+
+    /** {@code book_fts_rank(title, description, tsQuery)} - relevance of the book document to the query. */
+    public static final String BOOK_RANK = "book_fts_rank";
+
+    /** {@code author_fts_match(firstName, lastName, tsQuery)} - whether the author name matches the query. */
+    public static final String AUTHOR_MATCH = "author_fts_match";
+
+    private static final String BOOK_DOCUMENT =
+        "(setweight(to_tsvector('simple', ?1), 'A') || setweight(to_tsvector('simple', coalesce(?2, '')), 'B'))";
+    private static final String AUTHOR_DOCUMENT = "to_tsvector('simple', ?1 || ' ' || ?2)";
+    private static final String QUERY = "to_tsquery('simple', ?3)";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        if (!(functionContributions.getDialect() instanceof PostgreSQLDialect)) {
+            return;
+        }
+
+        SqmFunctionRegistry functionRegistry = functionContributions.getFunctionRegistry();
+        BasicTypeRegistry typeRegistry = functionContributions.getTypeConfiguration().getBasicTypeRegistry();
+
+        functionRegistry.registerPattern(
+            BOOK_MATCH,
+            "(" + BOOK_DOCUMENT + " @@ " + QUERY + ")",
+            typeRegistry.resolve(StandardBasicTypes.BOOLEAN)
+        );
+        functionRegistry.registerPattern(
+            BOOK_RANK,
+            "ts_rank(" + BOOK_DOCUMENT + ", " + QUERY + ")",
+            typeRegistry.resolve(StandardBasicTypes.DOUBLE)
+        );
+        functionRegistry.registerPattern(
+            AUTHOR_MATCH,
+            "(" + AUTHOR_DOCUMENT + " @@ " + QUERY + ")",
+            typeRegistry.resolve(StandardBasicTypes.BOOLEAN)
+        );
+    }
+
+}
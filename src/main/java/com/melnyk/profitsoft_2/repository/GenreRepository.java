@@ -3,8 +3,10 @@ package com.melnyk.profitsoft_2.repository;
 import com.melnyk.profitsoft_2.entity.Genre;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +14,22 @@ public interface GenreRepository extends JpaRepository<Genre, Long>, JpaSpecific
 
     Optional<Genre> findByName(String name);
 
+    /**
+     * Selects genres whose lower-cased name contains the query or is similar to it, the most similar first.
+     * Requires PostgreSQL with {@code pg_trgm}, the conditions are served by {@code idx_genres_name_trgm}.
+     *
+     * @param query lower-cased query
+     * @param pattern {@code LIKE} pattern of the query
+     * @param limit max count of selected genres
+     * @return selected genres
+     */
+    @Query(value = """
+        SELECT g.* FROM genres g
+        WHERE lower(g.name) LIKE :pattern
+            OR :query <% lower(g.name)
+        ORDER BY word_similarity(:query, lower(g.name)) DESC, g.id
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<Genre> findMostSimilar(String query, String pattern, int limit);
+
 }
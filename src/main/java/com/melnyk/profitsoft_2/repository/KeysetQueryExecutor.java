@@ -0,0 +1,231 @@
+package com.melnyk.profitsoft_2.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.*;
+import jakarta.persistence.metamodel.ManagedType;
+import jakarta.persistence.metamodel.SingularAttribute;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Executes keyset (seek) pagination queries.
+ *
+ * <p>A page is selected with {@code WHERE (sortKey, id) > (lastSortKey, lastId)} instead of skipping rows
+ * with {@code OFFSET}, so its cost doesn't depend on how deep the page is, and no {@code count(*)} query is
+ * executed. The condition is written as {@code sortKey > ? OR (sortKey = ? AND id > ?)} because JPA criteria
+ * can't compare row values, both forms are served by an index on {@code (sortKey, id)}.</p>
+ *
+ * <p>The position is passed between requests as an opaque cursor: URL-safe Base64 of a JSON object with the sort
+ * property, its direction and the sort key and id of the last returned entity. Entities are ordered by id within
+ * equal sort keys, so the sort must have a single order and its property must not be nullable, which is checked
+ * against the JPA metamodel before the query is executed.</p>
+ */
+@Component
+@RequiredArgsConstructor
+public class KeysetQueryExecutor {
+
+    private static final String ID_PROPERTY = "id";
+
+    private final ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Selects entities that follow the cursor.
+     *
+     * @param type type of the entities
+     * @param spec specification of the entities to select
+     * @param sort sort of the entities by a single property, it must be the same for all pages of a cursor
+     * @param size max count of selected entities
+     * @param cursor cursor returned with the previous page, {@code null} or blank for the first page
+     * @return selected entities and cursor of the next page
+     * @throws IllegalArgumentException if the sort has more than one order or its property is nullable,
+     *                                  or if the cursor is malformed or was created for another sort order
+     */
+    public <T> KeysetSlice<T> findSlice(Class<T> type, Specification<T> spec, Sort sort, int size, String cursor) {
+        return findSlice(type, spec, sort, size, cursor, root -> root, type);
+    }
+
+    /**
+     * Selects ids of entities that follow the cursor, only the ids and the sort keys are selected.
+     *
+     * @param type type of the entities
+     * @param idType type of the ids
+     * @see #findSlice(Class, Specification, Sort, int, String)
+     */
+    public <T, I> KeysetSlice<I> findIdSlice(
+        Class<T> type,
+        Class<I> idType,
+        Specification<T> spec,
+        Sort sort,
+        int size,
+        String cursor
+    ) {
+        return findSlice(type, spec, sort, size, cursor, root -> root.get(ID_PROPERTY), idType);
+    }
+
+    private <T, R> KeysetSlice<R> findSlice(
+        Class<T> type,
+        Specification<T> spec,
+        Sort sort,
+        int size,
+        String cursor,
+        Function<Root<T>, Selection<?>> selection,
+        Class<R> resultType
+    ) {
+        Sort.Order order = getOrder(type, sort);
+        Cursor position = cursor != null && !cursor.isBlank() ? decode(cursor, order) : null;
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<T> root = query.from(type);
+        Path<Comparable<Object>> sortPath = getPath(root, order.getProperty());
+        Path<Comparable<Object>> idPath = root.get(ID_PROPERTY);
+
+        List<Predicate> predicates = new ArrayList<>();
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            predicates.add(predicate);
+        }
+        if (position != null) {
+            predicates.add(seek(cb, sortPath, idPath, order, position));
+        }
+
+        query.multiselect(selection.apply(root), sortPath, idPath);
+        query.where(predicates.toArray(Predicate[]::new));
+        query.orderBy(order.isAscending()
+            ? List.of(cb.asc(sortPath), cb.asc(idPath))
+            : List.of(cb.desc(sortPath), cb.desc(idPath)));
+
+        List<Tuple> rows = entityManager.createQuery(query)
+            .setMaxResults(size + 1)
+            .getResultList();
+
+        List<R> content = new ArrayList<>(Math.min(rows.size(), size));
+        for (int i = 0; i < rows.size() && i < size; i++) {
+            content.add(resultType.cast(rows.get(i).get(0)));
+        }
+
+        String nextCursor = null;
+        if (rows.size() > size) {
+            Tuple last = rows.get(size - 1);
+            nextCursor = encode(order, last.get(1), last.get(2));
+        }
+        return new KeysetSlice<>(content, nextCursor);
+    }
+
+    /**
+     * Returns the single order of the sort, checking that the sort keys of all entities are non-null.
+     */
+    private Sort.Order getOrder(Class<?> type, Sort sort) {
+        List<Sort.Order> orders = sort.toList();
+        if (orders.size() != 1) {
+            throw new IllegalArgumentException("Cursor pagination requires sorting by a single property");
+        }
+
+        Sort.Order order = orders.getFirst();
+        String property = order.getProperty();
+        ManagedType<?> managedType = entityManager.getMetamodel().managedType(type);
+        for (String part : property.split("\\.")) {
+            // a nullable association makes the properties of the associated entity nullable too
+            if (!(managedType.getAttribute(part) instanceof SingularAttribute<?, ?> attribute)
+                || attribute.isOptional()) {
+                throw new IllegalArgumentException(
+                    "Cursor pagination isn't supported for sorting by nullable property '%s'".formatted(property));
+            }
+            if (attribute.getType() instanceof ManagedType<?> associatedType) {
+                managedType = associatedType;
+            }
+        }
+        return order;
+    }
+
+    private Predicate seek(
+        CriteriaBuilder cb,
+        Path<Comparable<Object>> sortPath,
+        Path<Comparable<Object>> idPath,
+        Sort.Order order,
+        Cursor position
+    ) {
+        Comparable<Object> id = convert(position.id(), idPath);
+        if (order.getProperty().equals(ID_PROPERTY)) {
+            return order.isAscending() ? cb.greaterThan(idPath, id) : cb.lessThan(idPath, id);
+        }
+
+        Comparable<Object> key = convert(position.key(), sortPath);
+        if (order.isAscending()) {
+            return cb.or(
+                cb.greaterThan(sortPath, key),
+                cb.and(cb.equal(sortPath, key), cb.greaterThan(idPath, id))
+            );
+        }
+        return cb.or(
+            cb.lessThan(sortPath, key),
+            cb.and(cb.equal(sortPath, key), cb.lessThan(idPath, id))
+        );
+    }
+
+    private <V> V convert(Object value, Path<V> path) {
+        try {
+            return objectMapper.convertValue(value, path.getJavaType());
+        } catch (JacksonException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    private String encode(Sort.Order order, Object key, Object id) {
+        Cursor cursor = new Cursor(order.getProperty(), order.getDirection(), key, id);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(objectMapper.writeValueAsBytes(cursor));
+    }
+
+    private Cursor decode(String value, Sort.Order order) {
+        Cursor cursor;
+        try {
+            cursor = objectMapper.readValue(Base64.getUrlDecoder().decode(value), Cursor.class);
+        } catch (IllegalArgumentException | JacksonException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+
+        if (cursor.key() == null || cursor.id() == null
+            || !order.getProperty().equals(cursor.property()) || order.getDirection() != cursor.direction()) {
+            throw new IllegalArgumentException("Cursor doesn't match sort order '%s,%s'".formatted(
+                order.getProperty(), order.getDirection().name().toLowerCase()));
+        }
+        return cursor;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> Path<V> getPath(Root<?> root, String property) {
+        Path<?> path = root;
+        for (String part : property.split("\\.")) {
+            path = path.get(part);
+        }
+        return (Path<V>) path;
+    }
+
+    /**
+     * Position of a cursor: sort property and direction of the pages, sort key and id of the last entity.
+     */
+    private record Cursor(String property, Sort.Direction direction, Object key, Object id) { }
+
+    /**
+     * Page selected by a cursor.
+     *
+     * @param content selected entities
+     * @param nextCursor cursor of the next page or {@code null} if this page is the last one
+     */
+    public record KeysetSlice<T>(List<T> content, String nextCursor) { }
+
+}
@@ -0,0 +1,29 @@
+package com.melnyk.profitsoft_2.repository;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Registers functions for matching names in JPQL and criteria queries.
+ *
+ * <p>{@code author_full_name(firstName, lastName)} renders {@code lower(first_name || ' ' || last_name)},
+ * the expression of the trigram index {@code idx_authors_full_name_trgm}. Criteria {@code concat} binds
+ * the separator as a parameter, and PostgreSQL doesn't match such an expression with the index.
+ * An expression changed here must be changed in the index and in {@link AuthorRepository} as well.</p>
+ */
+public class NameFunctionContributor implements FunctionContributor {
+
+    /** {@code author_full_name(firstName, lastName)} - lower-cased full name of an author. */
+    public static final String AUTHOR_FULL_NAME = "author_full_name";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        functionContributions.getFunctionRegistry().registerPattern(
+            AUTHOR_FULL_NAME,
+            "lower(?1 || ' ' || ?2)",
+            functionContributions.getTypeConfiguration().getBasicTypeRegistry().resolve(StandardBasicTypes.STRING)
+        );
+    }
+
+}
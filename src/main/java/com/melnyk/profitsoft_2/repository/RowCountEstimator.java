@@ -0,0 +1,56 @@
+package com.melnyk.profitsoft_2.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Table;
+import org.hibernate.Session;
+import org.postgresql.PGConnection;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.OptionalLong;
+
+/**
+ * Estimates row counts of tables from the statistics of PostgreSQL, which is much cheaper than {@code count(*)}
+ * for large tables. The statistics are updated by {@code VACUUM}, {@code ANALYZE} and autovacuum, so the estimate
+ * may lag behind recent inserts and deletes.
+ */
+@Component
+public class RowCountEstimator {
+
+    private static final String ESTIMATE_SQL = "SELECT reltuples::bigint FROM pg_class WHERE oid = to_regclass(?)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Estimates the count of rows in the table of the entity.
+     *
+     * @param type entity type annotated with {@link Table}
+     * @return estimated count or empty if the database isn't PostgreSQL or the table was never analyzed
+     */
+    public OptionalLong estimate(Class<?> type) {
+        Table table = type.getAnnotation(Table.class);
+        if (table == null || table.name().isEmpty()) {
+            return OptionalLong.empty();
+        }
+
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            if (!connection.isWrapperFor(PGConnection.class)) {
+                return OptionalLong.empty();
+            }
+            try (PreparedStatement statement = connection.prepareStatement(ESTIMATE_SQL)) {
+                statement.setString(1, table.name());
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    // reltuples is -1 until the table is analyzed
+                    if (resultSet.next() && resultSet.getLong(1) >= 0) {
+                        return OptionalLong.of(resultSet.getLong(1));
+                    }
+                    return OptionalLong.empty();
+                }
+            }
+        });
+    }
+
+}
@@ -0,0 +1,103 @@
+package com.melnyk.profitsoft_2.repository;
+
+import com.melnyk.profitsoft_2.entity.UploadJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface UploadJobRepository extends JpaRepository<UploadJob, UUID> {
+
+    List<UploadJob> findAllByStatusInOrderByCreatedAt(Collection<UploadJob.Status> statuses);
+
+    /**
+     * Makes the node the owner of the job if it isn't finished and has no owner, or its owner hasn't sent
+     * a heartbeat since {@code staleBefore}. Of nodes claiming the job at once only one gets it.
+     *
+     * @return 1 if the job is claimed
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+        update UploadJob j
+        set j.owner = :owner,
+            j.heartbeatAt = :now
+        where j.id = :id
+          and j.finishedAt is null
+          and (j.owner is null or (j.owner <> :owner and j.heartbeatAt < :staleBefore))
+        """)
+    int claim(UUID id, String owner, Instant now, Instant staleBefore);
+
+    /**
+     * Confirms that the node still runs its unfinished jobs.
+     */
+    @Transactional
+    @Modifying
+    @Query("update UploadJob j set j.heartbeatAt = :now where j.owner = :owner and j.finishedAt is null")
+    int heartbeat(String owner, Instant now);
+
+    /**
+     * Gives up unfinished jobs of the node, so other nodes can take them at once.
+     */
+    @Transactional
+    @Modifying
+    @Query("update UploadJob j set j.owner = null where j.owner = :owner and j.finishedAt is null")
+    int release(String owner);
+
+    /**
+     * Gives up the job if it's owned by the node.
+     */
+    @Transactional
+    @Modifying
+    @Query("update UploadJob j set j.owner = null where j.id = :id and j.owner = :owner")
+    int release(UUID id, String owner);
+
+    /**
+     * Moves the checkpoint of the job if it's still owned by the node. Joins the transaction of the caller,
+     * so the progress is committed together with the books inserted by it.
+     *
+     * @return 0 if the job was taken over by another node
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+        update UploadJob j
+        set j.parsedCount = j.parsedCount + :parsedCount,
+            j.createdCount = j.createdCount + :createdCount,
+            j.failedCount = j.failedCount + :failedCount,
+            j.failuresSize = :failuresSize
+        where j.id = :id
+          and j.owner = :owner
+        """)
+    int addProgress(UUID id, String owner, long parsedCount, long createdCount, long failedCount, long failuresSize);
+
+    /**
+     * Finishes the job if it's still owned by the node.
+     *
+     * @return 0 if the job was taken over by another node
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+        update UploadJob j
+        set j.status = :status,
+            j.error = :error,
+            j.finishedAt = :finishedAt
+        where j.id = :id
+          and j.owner = :owner
+        """)
+    int finish(UUID id, String owner, UploadJob.Status status, String error, Instant finishedAt);
+
+    @Transactional
+    @Modifying
+    @Query("delete from UploadJob j where j.finishedAt < :finishedBefore")
+    int deleteAllFinishedBefore(Instant finishedBefore);
+
+}
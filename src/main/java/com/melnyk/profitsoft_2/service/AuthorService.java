@@ -9,18 +9,45 @@ import com.melnyk.profitsoft_2.entity.Author;
 import com.melnyk.profitsoft_2.exception.ResourceAlreadyExistsException;
 import com.melnyk.profitsoft_2.exception.ResourceNotFoundException;
 
+import java.util.Collection;
+import java.util.List;
+
 public interface AuthorService {
 
     AuthorDetailsDto create(AuthorRequestDto body) throws ResourceAlreadyExistsException;
 
     AuthorDetailsDto getById(Long id) throws ResourceNotFoundException;
 
-    Author getByIdOrThrow(Long id) throws ResourceNotFoundException;
+    /**
+     * Returns a cached snapshot of the author.
+     */
+    AuthorSnapshot getSnapshotOrThrow(Long id) throws ResourceNotFoundException;
+
+    /**
+     * Returns a reference to the author for an association, without selecting it. The author must exist,
+     * e.g. its snapshot was found, and the reference must be used in the current transaction only.
+     */
+    Author getReference(Long id);
 
     PageDto<AuthorInfoDto> search(AuthorFilter filter);
 
+    /**
+     * Returns authors whose name contains the query or is similar to it, the most similar first.
+     *
+     * @param query searched name, case-insensitive
+     * @param limit max count of returned authors
+     */
+    List<AuthorInfoDto> autocomplete(String query, int limit);
+
     AuthorDetailsDto updateById(Long id, AuthorRequestDto body) throws ResourceNotFoundException, ResourceAlreadyExistsException;
 
     void deleteById(Long id) throws ResourceNotFoundException;
 
+    List<Long> getAllIds();
+
+    /**
+     * Returns cached snapshots of authors with the given ids, missing ids are skipped.
+     */
+    List<AuthorSnapshot> findAllByIds(Collection<Long> ids);
+
 }
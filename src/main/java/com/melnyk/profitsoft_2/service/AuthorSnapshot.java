@@ -0,0 +1,35 @@
+package com.melnyk.profitsoft_2.service;
+
+import com.melnyk.profitsoft_2.entity.Author;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Immutable copy of the columns of an author, it's cached instead of the entity.
+ *
+ * @param id id of the author
+ * @param firstName first name of the author
+ * @param lastName last name of the author
+ * @param createdAt creation time of the author
+ * @param updatedAt last update time of the author
+ */
+public record AuthorSnapshot(
+    Long id,
+    String firstName,
+    String lastName,
+    Instant createdAt,
+    Instant updatedAt
+) implements Serializable {
+
+    public static AuthorSnapshot of(Author author) {
+        return new AuthorSnapshot(
+            author.getId(),
+            author.getFirstName(),
+            author.getLastName(),
+            author.getCreatedAt(),
+            author.getUpdatedAt()
+        );
+    }
+
+}
@@ -4,6 +4,7 @@ import com.melnyk.profitsoft_2.dto.request.BookRequestDto;
 import com.melnyk.profitsoft_2.dto.request.filter.impl.BookFilter;
 import com.melnyk.profitsoft_2.dto.response.BookDetailsDto;
 import com.melnyk.profitsoft_2.dto.response.BookInfoDto;
+import com.melnyk.profitsoft_2.dto.response.BookSuggestionDto;
 import com.melnyk.profitsoft_2.dto.response.PageDto;
 import com.melnyk.profitsoft_2.dto.response.UploadResponse;
 import com.melnyk.profitsoft_2.entity.Book;
@@ -13,6 +14,11 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.LongConsumer;
 
 public interface BookService {
 
@@ -22,14 +28,71 @@ public interface BookService {
 
     Book getByIdOrThrow(Long id) throws ResourceNotFoundException;
 
+    /**
+     * Loads books which aren't cached yet into the cache in one query, missing ids are skipped.
+     *
+     * @return count of loaded books
+     */
+    int cacheAllByIds(Collection<Long> ids);
+
     PageDto<BookInfoDto> search(BookFilter filter);
 
+    /**
+     * Suggests books whose title or author name has words starting with every word of the query,
+     * books are found in memory without querying the database.
+     *
+     * @param query typed text
+     * @param limit max count of suggested books
+     */
+    List<BookSuggestionDto> suggest(String query, int limit);
+
     BookDetailsDto updateById(Long id, BookRequestDto body) throws ResourceNotFoundException, ResourceAlreadyExistsException;
 
     void deleteById(Long id) throws ResourceNotFoundException;
 
-    void generateReport(BookFilter filter, HttpServletResponse response) throws IOException;
+    void generateReport(
+        BookFilter filter,
+        ReportFormat format,
+        ReportPartitioning partitioning,
+        HttpServletResponse response
+    ) throws IOException;
+
+    /**
+     * Writes the report of books matching the filter into the output stream.
+     *
+     * @param filter filter of the books
+     * @param format format of the report
+     * @param partitioning how the report is split into sheets, only {@link ReportPartitioning#NONE} is supported
+     *                     for formats other than {@link ReportFormat#EXCEL}
+     * @param out output stream of the report, it isn't closed by the method
+     * @param progressListener receives count of rows after each written portion of the report
+     */
+    void writeReport(
+        BookFilter filter,
+        ReportFormat format,
+        ReportPartitioning partitioning,
+        OutputStream out,
+        LongConsumer progressListener
+    ) throws IOException;
+
+    UploadResponse uploadFromFile(MultipartFile file, UploadMode mode, UploadFailureMode failureMode) throws IOException;
 
-    UploadResponse uploadFromFile(MultipartFile file) throws IOException;
+    /**
+     * Uploads books from a JSON array read from the stream.
+     *
+     * @param in JSON array of {@link BookRequestDto}, it's closed by the method
+     * @param mode how the books are inserted
+     * @param offset count of objects at the start of the array that were already processed and must be skipped
+     * @param failures collects rejected objects, it isn't closed by the method
+     * @param listener receives progress after each processed chunk
+     * @return result of the upload, objects before the offset aren't counted
+     */
+    UploadResponse upload(
+        InputStream in,
+        UploadMode mode,
+        long offset,
+        UploadFailures failures,
+        UploadProgressListener listener
+    );
 
 }
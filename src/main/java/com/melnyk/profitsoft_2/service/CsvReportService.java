@@ -0,0 +1,73 @@
+package com.melnyk.profitsoft_2.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Abstract base class for generating CSV (RFC 4180) reports.
+ *
+ * <p>Rows are written straight into the output stream, nothing except the current
+ * row is kept in memory. Subclasses define the header and the values of each row.</p>
+ *
+ * @param <T> the type of exported items
+ */
+public abstract class CsvReportService<T> implements ReportService<T> {
+
+    private static final char SEPARATOR = ',';
+    private static final String LINE_SEPARATOR = "\r\n";
+
+    @Override
+    public final void write(Iterable<T> iterable, OutputStream out) throws IOException {
+        Objects.requireNonNull(out, "OutputStream cannot be null");
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writeLine(writer, getHeaderNames());
+        for (T item : iterable) {
+            writeLine(writer, getRowValues(item));
+        }
+        writer.flush();
+    }
+
+    protected abstract List<String> getHeaderNames();
+
+    /**
+     * Returns values of the row in order of the header, {@code null} is written as an empty field.
+     */
+    protected abstract List<?> getRowValues(T item);
+
+    private void writeLine(Writer writer, List<?> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(SEPARATOR);
+            }
+            Object value = values.get(i);
+            if (value != null) {
+                writeField(writer, value.toString());
+            }
+        }
+        writer.write(LINE_SEPARATOR);
+    }
+
+    private void writeField(Writer writer, String value) throws IOException {
+        boolean quoted = value.indexOf(SEPARATOR) >= 0
+            || value.indexOf('"') >= 0
+            || value.indexOf('\n') >= 0
+            || value.indexOf('\r') >= 0;
+
+        if (!quoted) {
+            writer.write(value);
+            return;
+        }
+
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+}
@@ -1,12 +1,23 @@
 package com.melnyk.profitsoft_2.service;
 
 import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.ss.util.WorkbookUtil;
 import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
 
 /**
  * Abstract base class for generating Excel reports using Apache POI.
@@ -19,20 +30,15 @@ import java.util.Objects;
  */
 public abstract class ExcelReportService<T> implements ReportService<T> {
 
+    private static final int MAX_SHEET_NAME_LENGTH = 31;
+
     @Override
     public final void write(Iterable<T> iterable, OutputStream out) throws IOException {
         Objects.requireNonNull(out, "OutputStream cannot be null");
 
         try (SXSSFWorkbook workbook = new SXSSFWorkbook()) {
-            Map<String, CellType> headers = getHeaderNames();
-
             Sheet sheet = createSheet(workbook);
-            Row headerRow = sheet.createRow(0);
-            int cellNum = 0;
-            for (var entry : headers.entrySet()) {
-                Cell cell = headerRow.createCell(cellNum++);
-                cell.setCellValue(entry.getKey());
-            }
+            writeHeaderRow(sheet);
 
             int rowNum = 1;
             for (T item : iterable) {
@@ -44,6 +50,71 @@ public abstract class ExcelReportService<T> implements ReportService<T> {
         }
     }
 
+    /**
+     * Writes the report with a separate sheet for each partition.
+     *
+     * <p>Producers of the partitions are run on the executor and push prepared items into
+     * bounded buffers, while the calling thread writes the buffered items into sheets one by one
+     * in order of the partitions, since the workbook can't be modified concurrently. A producer
+     * is blocked while its buffer is full, so the executor must run submitted tasks in order
+     * (e.g. a pool with a FIFO queue) to not wait for a partition that is never started.</p>
+     *
+     * @param partitions partitions of the report in order of the sheets, a single empty sheet is written if there are none
+     * @param executor executor of the partition producers
+     * @param bufferSize max count of items buffered for each partition
+     * @param out output stream of the report, it isn't closed by the method
+     * @param progressListener receives counts of rows written into the sheets, at most {@code bufferSize} rows
+     *                         apart, on the calling thread; it may stop the writing by throwing an exception
+     */
+    public final void writePartitioned(
+        List<SheetPartition<T>> partitions,
+        Executor executor,
+        int bufferSize,
+        OutputStream out,
+        LongConsumer progressListener
+    ) throws IOException {
+        Objects.requireNonNull(out, "OutputStream cannot be null");
+        if (partitions.isEmpty()) {
+            write(List.of(), out);
+            return;
+        }
+
+        List<PartitionBuffer<T>> buffers = new ArrayList<>(partitions.size());
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook()) {
+            try {
+                for (SheetPartition<T> partition : partitions) {
+                    PartitionBuffer<T> buffer = new PartitionBuffer<>(bufferSize);
+                    buffers.add(buffer);
+                    executor.execute(() -> buffer.produce(partition.producer()));
+                }
+
+                for (int i = 0; i < partitions.size(); i++) {
+                    Sheet sheet = workbook.createSheet(createSheetName(workbook, partitions.get(i).name()));
+                    writeHeaderRow(sheet);
+
+                    PartitionBuffer<T> buffer = buffers.get(i);
+                    int rowNum = 1;
+                    int unreportedRows = 0;
+                    for (T item = buffer.take(); item != null; item = buffer.take()) {
+                        Row row = sheet.createRow(rowNum++);
+                        writeElementRow(item, row);
+                        if (++unreportedRows == bufferSize) {
+                            progressListener.accept(unreportedRows);
+                            unreportedRows = 0;
+                        }
+                    }
+                    if (unreportedRows > 0) {
+                        progressListener.accept(unreportedRows);
+                    }
+                }
+            } finally {
+                buffers.forEach(PartitionBuffer::abort);
+            }
+
+            workbook.write(out);
+        }
+    }
+
     protected abstract Sheet createSheet(Workbook workbook);
 
     protected abstract Map<String, CellType> getHeaderNames();
@@ -66,4 +137,112 @@ public abstract class ExcelReportService<T> implements ReportService<T> {
         row.createCell(cellNum, CellType.STRING).setBlank();
     }
 
+    private void writeHeaderRow(Sheet sheet) {
+        Row headerRow = sheet.createRow(0);
+        int cellNum = 0;
+        for (String name : getHeaderNames().keySet()) {
+            Cell cell = headerRow.createCell(cellNum++);
+            cell.setCellValue(name);
+        }
+    }
+
+    /**
+     * Creates a valid sheet name that isn't used in the workbook yet.
+     */
+    private static String createSheetName(Workbook workbook, String name) {
+        String safeName = WorkbookUtil.createSafeSheetName(name);
+        String uniqueName = safeName;
+        for (int i = 2; workbook.getSheet(uniqueName) != null; i++) {
+            String suffix = " (" + i + ")";
+            uniqueName = safeName.substring(0, Math.min(safeName.length(), MAX_SHEET_NAME_LENGTH - suffix.length())) + suffix;
+        }
+        return uniqueName;
+    }
+
+    /**
+     * Partition of the report written into its own sheet.
+     *
+     * @param name name of the sheet, it's made valid and unique if needed
+     * @param producer pushes items of the partition into the given consumer, it's called on a thread of the executor
+     * @param <E> the type of exported items
+     */
+    public record SheetPartition<E>(String name, Consumer<Consumer<E>> producer) {}
+
+    /**
+     * Bounded buffer between a partition producer and the sheet writer.
+     */
+    private static final class PartitionBuffer<E> {
+
+        private static final Object END = new Object();
+        private static final long OFFER_TIMEOUT_MILLIS = 100;
+
+        private final BlockingQueue<Object> queue;
+        private volatile boolean aborted;
+        private volatile Throwable failure;
+
+        private PartitionBuffer(int capacity) {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+        void produce(Consumer<Consumer<E>> producer) {
+            try {
+                if (aborted) {
+                    return;
+                }
+                producer.accept(this::put);
+            } catch (Throwable e) {
+                failure = e;
+            }
+
+            try {
+                put(END);
+            } catch (CancellationException ignored) {
+                // the writer doesn't wait for the partition anymore
+            }
+        }
+
+        /**
+         * Returns the next item of the partition or {@code null} if the partition is finished.
+         */
+        @SuppressWarnings("unchecked")
+        E take() throws InterruptedIOException {
+            Object item;
+            try {
+                item = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Report writing interrupted");
+            }
+
+            if (item != END) {
+                return (E) item;
+            }
+            if (failure instanceof RuntimeException e) {
+                throw e;
+            }
+            if (failure instanceof Error e) {
+                throw e;
+            }
+            return null;
+        }
+
+        void abort() {
+            aborted = true;
+        }
+
+        private void put(Object item) {
+            try {
+                while (!queue.offer(item, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    if (aborted) {
+                        throw new CancellationException("Report writing aborted");
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Report writing interrupted");
+            }
+        }
+
+    }
+
 }
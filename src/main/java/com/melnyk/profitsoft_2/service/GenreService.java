@@ -18,14 +18,48 @@ public interface GenreService {
 
     GenreDetailsDto getById(Long id) throws ResourceNotFoundException;
 
-    Genre getByIdOrThrow(Long id) throws ResourceNotFoundException;
+    /**
+     * Returns a cached snapshot of the genre.
+     */
+    GenreSnapshot getSnapshotOrThrow(Long id) throws ResourceNotFoundException;
 
     PageDto<GenreInfoDto> search(GenreFilter filter);
 
+    /**
+     * Returns genres whose name contains the query or is similar to it, the most similar first.
+     *
+     * @param query searched name, case-insensitive
+     * @param limit max count of returned genres
+     */
+    List<GenreInfoDto> autocomplete(String query, int limit);
+
     GenreDetailsDto updateById(Long id, GenreRequestDto body) throws ResourceNotFoundException, ResourceAlreadyExistsException;
 
     void deleteById(Long id) throws ResourceNotFoundException;
 
-    List<Genre> getAllByIds(Collection<Long> ids);
+    /**
+     * Returns cached snapshots of genres with the given ids, throws if any of them is missing.
+     */
+    List<GenreSnapshot> getAllByIds(Collection<Long> ids) throws ResourceNotFoundException;
+
+    /**
+     * Returns cached snapshots of genres with the given ids, missing ids are skipped.
+     */
+    List<GenreSnapshot> findAllByIds(Collection<Long> ids);
+
+    /**
+     * Returns references to the genres for an association, without selecting them. The genres must exist,
+     * e.g. their snapshots were found, and the references must be used in the current transaction only.
+     */
+    List<Genre> getReferences(Collection<Long> ids);
+
+    List<Genre> getAll();
+
+    /**
+     * Loads snapshots of all genres into the cache, by id and by name.
+     *
+     * @return count of loaded genres
+     */
+    int cacheAll();
 
 }
@@ -0,0 +1,22 @@
+package com.melnyk.profitsoft_2.service;
+
+import com.melnyk.profitsoft_2.entity.Genre;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Immutable copy of the columns of a genre, it's cached instead of the entity.
+ *
+ * @param id id of the genre
+ * @param name name of the genre
+ * @param createdAt creation time of the genre
+ * @param updatedAt last update time of the genre
+ */
+public record GenreSnapshot(Long id, String name, Instant createdAt, Instant updatedAt) implements Serializable {
+
+    public static GenreSnapshot of(Genre genre) {
+        return new GenreSnapshot(genre.getId(), genre.getName(), genre.getCreatedAt(), genre.getUpdatedAt());
+    }
+
+}
@@ -0,0 +1,45 @@
+package com.melnyk.profitsoft_2.service;
+
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Abstract base class for generating newline-delimited JSON reports.
+ *
+ * <p>Each item is written as a single-line JSON object followed by {@code \n}
+ * straight into the output stream. Subclasses define the fields of each object.</p>
+ *
+ * @param <T> the type of exported items
+ */
+public abstract class NdjsonReportService<T> implements ReportService<T> {
+
+    private static final int LINE_SEPARATOR = '\n';
+
+    private final ObjectWriter writer;
+
+    protected NdjsonReportService(ObjectMapper objectMapper) {
+        this.writer = objectMapper.writer();
+    }
+
+    @Override
+    public final void write(Iterable<T> iterable, OutputStream out) throws IOException {
+        Objects.requireNonNull(out, "OutputStream cannot be null");
+
+        for (T item : iterable) {
+            out.write(writer.writeValueAsBytes(getFields(item)));
+            out.write(LINE_SEPARATOR);
+        }
+        out.flush();
+    }
+
+    /**
+     * Returns fields of the JSON object in order they should be written.
+     */
+    protected abstract Map<String, Object> getFields(T item);
+
+}
@@ -0,0 +1,72 @@
+package com.melnyk.profitsoft_2.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Formats of generated reports.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum ReportFormat {
+
+    EXCEL(MediaType.APPLICATION_OCTET_STREAM, "xlsx",
+        List.of(MediaType.APPLICATION_OCTET_STREAM, MediaType.parseMediaType(ReportFormat.XLSX_MEDIA_TYPE_VALUE))),
+    CSV(MediaType.parseMediaType(ReportFormat.CSV_MEDIA_TYPE_VALUE), "csv",
+        List.of(MediaType.parseMediaType(ReportFormat.CSV_MEDIA_TYPE_VALUE))),
+    NDJSON(MediaType.APPLICATION_NDJSON, "ndjson",
+        List.of(MediaType.APPLICATION_NDJSON));
+
+    public static final String XLSX_MEDIA_TYPE_VALUE = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+    public static final String CSV_MEDIA_TYPE_VALUE = "text/csv";
+
+    /** Content type of the response */
+    private final MediaType contentType;
+
+    /** Extension of the report file */
+    private final String extension;
+
+    /** Media types accepted for the format in the {@code Accept} header */
+    private final List<MediaType> acceptedTypes;
+
+    /**
+     * Picks the report format from the {@code Accept} header value. Media types are checked in
+     * order of their quality, then of their specificity, types with zero quality are skipped, and
+     * {@link #EXCEL} is used if nothing matches.
+     *
+     * @param accept value of the {@code Accept} header (nullable)
+     * @return matched report format
+     */
+    public static ReportFormat fromAcceptHeader(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return EXCEL;
+        }
+
+        List<MediaType> mediaTypes = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        MimeTypeUtils.sortBySpecificity(mediaTypes);
+        // the sort is stable, so types of equal quality stay ordered by specificity
+        mediaTypes.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+
+        for (MediaType mediaType : mediaTypes) {
+            if (mediaType.getQualityValue() == 0) {
+                break;
+            }
+            if (mediaType.isWildcardType()) {
+                return EXCEL;
+            }
+            for (ReportFormat format : values()) {
+                if (format.acceptedTypes.stream().anyMatch(mediaType::includes)) {
+                    return format;
+                }
+            }
+        }
+        return EXCEL;
+    }
+
+}
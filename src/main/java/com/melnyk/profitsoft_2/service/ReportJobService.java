@@ -0,0 +1,29 @@
+package com.melnyk.profitsoft_2.service;
+
+import com.melnyk.profitsoft_2.dto.request.filter.impl.BookFilter;
+import com.melnyk.profitsoft_2.dto.response.ReportJobDto;
+import com.melnyk.profitsoft_2.exception.ResourceException;
+import com.melnyk.profitsoft_2.exception.ResourceNotFoundException;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Service for generating book reports in background.
+ *
+ * <p>A submitted job is executed by a bounded pool of workers, the report file is written
+ * into a spool directory and can be downloaded after the job is completed. Finished jobs
+ * are removed after the configured retention period.</p>
+ */
+public interface ReportJobService {
+
+    ReportJobDto submit(BookFilter filter, ReportFormat format, ReportPartitioning partitioning);
+
+    ReportJobDto getById(UUID id) throws ResourceNotFoundException;
+
+    void download(UUID id, HttpServletResponse response) throws ResourceException, IOException;
+
+    void deleteById(UUID id) throws ResourceNotFoundException;
+
+}
@@ -0,0 +1,17 @@
+package com.melnyk.profitsoft_2.service;
+
+/**
+ * Ways to split an Excel report into sheets.
+ */
+public enum ReportPartitioning {
+
+    /** Single sheet with all rows */
+    NONE,
+
+    /** Sheet per genre, books without genres are written into a separate sheet */
+    GENRE,
+
+    /** Sheet per range of authors ordered by id */
+    AUTHOR
+
+}
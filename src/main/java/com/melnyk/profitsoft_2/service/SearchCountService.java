@@ -0,0 +1,62 @@
+package com.melnyk.profitsoft_2.service;
+
+import com.melnyk.profitsoft_2.dto.request.filter.CountFilter;
+import com.melnyk.profitsoft_2.dto.request.filter.CountMode;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+
+/**
+ * Service for search pages whose total count isn't computed by a {@code count(*)} query for every page.
+ */
+public interface SearchCountService {
+
+    /**
+     * Selects a page of entities and computes the total count according to {@link CountFilter#count()}.
+     *
+     * @param type type of the entities
+     * @param repository repository of the entities
+     * @param spec specification of the entities to select
+     * @param pageable page to select
+     * @param filter filter of the search
+     * @return {@link org.springframework.data.domain.Page} with the total count or {@link Slice} in
+     *         {@link CountMode#NONE} mode
+     */
+    <T> Slice<T> findSlice(
+        Class<T> type,
+        JpaSpecificationExecutor<T> repository,
+        Specification<T> spec,
+        Pageable pageable,
+        CountFilter filter
+    );
+
+    /**
+     * Computes the total count of a page selected without counting, e.g. of ids of the entities,
+     * according to {@link CountFilter#count()}.
+     *
+     * @param type type of the entities
+     * @param repository repository of the entities, it counts them
+     * @param spec specification of the selected entities
+     * @param slice selected page
+     * @param filter filter of the search
+     * @return {@link org.springframework.data.domain.Page} with the total count or the slice in
+     *         {@link CountMode#NONE} mode
+     */
+    <T, R> Slice<R> withTotal(
+        Class<T> type,
+        JpaSpecificationExecutor<T> repository,
+        Specification<T> spec,
+        Slice<R> slice,
+        CountFilter filter
+    );
+
+    /**
+     * Evicts the cached total count of a search, so its next page counts the entities again.
+     *
+     * @param type type of the entities
+     * @param filter filter of the search
+     */
+    void evictCount(Class<?> type, CountFilter filter);
+
+}
@@ -0,0 +1,17 @@
+package com.melnyk.profitsoft_2.service;
+
+/**
+ * How failures of a books upload are reported.
+ */
+public enum UploadFailureMode {
+
+    /** All failed objects are returned in the response */
+    ALL,
+
+    /**
+     * Only the first failed objects are returned in the response, the full list
+     * is written into an NDJSON file that can be downloaded later
+     */
+    SUMMARY
+
+}
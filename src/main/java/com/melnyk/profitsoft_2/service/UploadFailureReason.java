@@ -0,0 +1,23 @@
+package com.melnyk.profitsoft_2.service;
+
+/**
+ * Kinds of reasons why an uploaded object was rejected, failures are counted per kind.
+ */
+public enum UploadFailureReason {
+
+    /** The object violates validation constraints */
+    INVALID,
+
+    /** A book with the same title and author already exists or occurs earlier in the file */
+    ALREADY_EXISTS,
+
+    /** The referenced author doesn't exist */
+    AUTHOR_NOT_FOUND,
+
+    /** One of the referenced genres doesn't exist */
+    GENRE_NOT_FOUND,
+
+    /** The database rejected the book */
+    INSERT_FAILED
+
+}
@@ -0,0 +1,30 @@
+package com.melnyk.profitsoft_2.service;
+
+import com.melnyk.profitsoft_2.exception.ResourceNotFoundException;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Service for failures of book uploads.
+ *
+ * <p>Failure files are written into a spool directory and can be downloaded
+ * until they are removed after the configured retention period.</p>
+ */
+public interface UploadFailureService {
+
+    /**
+     * Creates failures of a new upload. In {@link UploadFailureMode#SUMMARY} mode a new failure file is attached.
+     */
+    UploadFailures open(UploadFailureMode mode) throws IOException;
+
+    /**
+     * Creates failures with the attached file, which is truncated to {@code size}, so failures written
+     * after the last checkpoint of a resumed upload aren't duplicated.
+     */
+    UploadFailures open(UUID fileId, long size) throws IOException;
+
+    void download(UUID fileId, HttpServletResponse response) throws ResourceNotFoundException, IOException;
+
+}
@@ -0,0 +1,126 @@
+package com.melnyk.profitsoft_2.service;
+
+import com.melnyk.profitsoft_2.dto.response.UploadResponse;
+import tools.jackson.databind.ObjectWriter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.*;
+
+/**
+ * Collects failures of a books upload.
+ *
+ * <p>Counts per {@link UploadFailureReason} and at most {@code inlineLimit} failed items are kept in memory.
+ * If a file is attached, every failed item is also appended to it as a line of NDJSON, so memory usage
+ * doesn't depend on size of the upload.</p>
+ */
+public class UploadFailures implements Closeable {
+
+    private static final int LINE_SEPARATOR = '\n';
+
+    private final int inlineLimit;
+    private final UUID fileId;
+    private final OutputStream out;
+    private final ObjectWriter writer;
+
+    private final List<UploadResponse.FailedItem> items = new ArrayList<>();
+    private final Map<UploadFailureReason, Long> counts = new EnumMap<>(UploadFailureReason.class);
+    private long count;
+    private long fileSize;
+
+    /**
+     * @param inlineLimit max count of failed items kept in memory
+     * @param fileId id of the attached file (nullable)
+     * @param out stream of the attached file, positioned at its end (nullable)
+     * @param fileSize current size of the attached file
+     * @param writer writer of the file lines (nullable if no file is attached)
+     */
+    public UploadFailures(int inlineLimit, UUID fileId, OutputStream out, long fileSize, ObjectWriter writer) {
+        this.inlineLimit = inlineLimit;
+        this.fileId = fileId;
+        this.out = out;
+        this.fileSize = fileSize;
+        this.writer = writer;
+    }
+
+    /**
+     * Creates failures kept in memory without a limit.
+     */
+    public static UploadFailures inMemory() {
+        return new UploadFailures(Integer.MAX_VALUE, null, null, 0, null);
+    }
+
+    public void add(Object object, UploadFailureReason reason, String message) {
+        UploadResponse.FailedItem item = new UploadResponse.FailedItem(object, message);
+        count++;
+        counts.merge(reason, 1L, Long::sum);
+        if (items.size() < inlineLimit) {
+            items.add(item);
+        }
+
+        if (out != null) {
+            try {
+                byte[] line = writer.writeValueAsBytes(item);
+                out.write(line);
+                out.write(LINE_SEPARATOR);
+                fileSize += line.length + 1;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * @return total count of failures
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the first failed items
+     */
+    public List<UploadResponse.FailedItem> getItems() {
+        return items;
+    }
+
+    /**
+     * @return count of failures per reason
+     */
+    public Map<UploadFailureReason, Long> getCounts() {
+        return counts;
+    }
+
+    /**
+     * @return id of the attached file or {@code null}
+     */
+    public UUID getFileId() {
+        return fileId;
+    }
+
+    /**
+     * Flushes the attached file.
+     *
+     * @return size of the file with all added failures
+     */
+    public long flush() {
+        if (out != null) {
+            try {
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return fileSize;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (out != null) {
+            out.close();
+        }
+    }
+
+}
@@ -0,0 +1,24 @@
+package com.melnyk.profitsoft_2.service;
+
+import com.melnyk.profitsoft_2.dto.response.UploadJobDto;
+import com.melnyk.profitsoft_2.exception.ResourceNotFoundException;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Service for uploading books in background.
+ *
+ * <p>A submitted file is spooled to disk and processed by a bounded pool of workers. Progress of a job
+ * is committed together with each inserted chunk, so a job interrupted by a restart is resumed from
+ * the last committed chunk instead of being processed again. All failed objects of a job are written
+ * into a failures file with the id of the job.</p>
+ */
+public interface UploadJobService {
+
+    UploadJobDto submit(MultipartFile file, UploadMode mode) throws IOException;
+
+    UploadJobDto getById(UUID id) throws ResourceNotFoundException;
+
+}
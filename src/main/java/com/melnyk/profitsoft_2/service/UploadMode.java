@@ -0,0 +1,14 @@
+package com.melnyk.profitsoft_2.service;
+
+/**
+ * Ways to insert uploaded books into the database.
+ */
+public enum UploadMode {
+
+    /** Books are saved through JPA with JDBC batching */
+    BATCH,
+
+    /** Books are streamed into a staging table with PostgreSQL {@code COPY} and inserted set-based */
+    COPY
+
+}
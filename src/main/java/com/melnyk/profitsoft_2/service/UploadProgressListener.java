@@ -0,0 +1,19 @@
+package com.melnyk.profitsoft_2.service;
+
+/**
+ * Receives progress of a books upload.
+ */
+@FunctionalInterface
+public interface UploadProgressListener {
+
+    /**
+     * Called after each processed chunk inside the transaction that inserted its books,
+     * so changes made by the listener are committed together with the chunk.
+     *
+     * @param parsedCount count of objects in the chunk
+     * @param createdCount count of created books
+     * @param failedCount count of rejected objects
+     */
+    void onChunkProcessed(int parsedCount, int createdCount, int failedCount);
+
+}
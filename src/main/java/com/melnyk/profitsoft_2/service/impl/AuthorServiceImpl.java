@@ -4,6 +4,7 @@ import com.melnyk.profitsoft_2.config.CacheConfig;
 import com.melnyk.profitsoft_2.config.aspect.LogServiceMethod;
 import com.melnyk.profitsoft_2.config.props.PaginationProps;
 import com.melnyk.profitsoft_2.dto.request.AuthorRequestDto;
+import com.melnyk.profitsoft_2.dto.request.filter.CountMode;
 import com.melnyk.profitsoft_2.dto.request.filter.impl.AuthorFilter;
 import com.melnyk.profitsoft_2.dto.response.AuthorDetailsDto;
 import com.melnyk.profitsoft_2.dto.response.AuthorInfoDto;
@@ -13,8 +14,14 @@ import com.melnyk.profitsoft_2.exception.ResourceAlreadyExistsException;
 import com.melnyk.profitsoft_2.exception.ResourceNotFoundException;
 import com.melnyk.profitsoft_2.mapper.AuthorMapper;
 import com.melnyk.profitsoft_2.repository.AuthorRepository;
+import com.melnyk.profitsoft_2.repository.KeysetQueryExecutor;
+import com.melnyk.profitsoft_2.repository.KeysetQueryExecutor.KeysetSlice;
 import com.melnyk.profitsoft_2.service.AuthorService;
+import com.melnyk.profitsoft_2.service.AuthorSnapshot;
+import com.melnyk.profitsoft_2.service.SearchCountService;
+import com.melnyk.profitsoft_2.util.FilterUtil;
 import com.melnyk.profitsoft_2.util.PageUtil;
+import com.melnyk.profitsoft_2.util.SingleFlight;
 import com.melnyk.profitsoft_2.util.SpecificationFactory;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -22,12 +29,13 @@ import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.Optional;
+import java.util.*;
 
 @Service
 @Slf4j
@@ -35,10 +43,20 @@ import java.util.Optional;
 public class AuthorServiceImpl implements AuthorService {
 
     private final AuthorRepository authorRepository;
+    private final KeysetQueryExecutor keysetQueryExecutor;
+    private final SearchCountService searchCountService;
+    private final BookSearchCache bookSearchCache;
+    private final BookSuggestIndex bookSuggestIndex;
     private final AuthorMapper authorMapper;
     private final PaginationProps paginationProps;
     private final TransactionTemplate transactionTemplate;
     private final CacheManager cacheManager;
+    private final CacheRefreshAhead cacheRefreshAhead;
+    private final CacheAccessTracker cacheAccessTracker;
+    private final CacheLoadMetrics cacheLoadMetrics;
+    private final CacheVersions cacheVersions;
+
+    private final SingleFlight<Long, AuthorSnapshot> snapshotLoads = new SingleFlight<>();
 
     @Override
     @LogServiceMethod(logArgs = true)
@@ -48,11 +66,9 @@ public class AuthorServiceImpl implements AuthorService {
     }
 
     @Override
-    @Transactional(readOnly = true)
     @LogServiceMethod(logArgs = true)
     public AuthorDetailsDto getById(Long id) throws ResourceNotFoundException {
-        Author author = getByIdOrThrow(id);
-        return authorMapper.toDetailsDto(author);
+        return authorMapper.toDetailsDto(getSnapshotOrThrow(id));
     }
 
     @Override
@@ -61,15 +77,45 @@ public class AuthorServiceImpl implements AuthorService {
     public PageDto<AuthorInfoDto> search(AuthorFilter filter) {
         Pageable pageable = PageUtil.pageableFrom(filter, paginationProps);
         Specification<Author> spec = SpecificationFactory.createForAuthor(filter);
+        if (filter.cursor() != null) {
+            KeysetSlice<Author> slice = keysetQueryExecutor.findSlice(
+                Author.class, spec, pageable.getSort(), pageable.getPageSize(), filter.cursor());
+            List<AuthorInfoDto> content = slice.content().stream().map(authorMapper::toInfoDto).toList();
+            return new PageDto<>(content, pageable.getPageSize(), slice.nextCursor());
+        }
+
+        if (filter.count() != null && filter.count() != CountMode.EXACT) {
+            Slice<Author> slice = searchCountService.findSlice(Author.class, authorRepository, spec, pageable, filter);
+            return new PageDto<>(slice.map(authorMapper::toInfoDto));
+        }
+
         Page<Author> page = authorRepository.findAll(spec, pageable);
         return new PageDto<>(page.map(authorMapper::toInfoDto));
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    @LogServiceMethod(logArgs = true)
+    public List<AuthorInfoDto> autocomplete(String query, int limit) {
+        String normalizedQuery = FilterUtil.normalize(query != null ? query.trim() : null);
+        if (normalizedQuery == null) {
+            return List.of();
+        }
+        return authorRepository.findMostSimilar(normalizedQuery, FilterUtil.toContainsPattern(normalizedQuery), limit)
+            .stream()
+            .map(authorMapper::toInfoDto)
+            .toList();
+    }
+
     @Override
     @LogServiceMethod(logArgs = true)
     public AuthorDetailsDto updateById(Long id, AuthorRequestDto body)
         throws ResourceNotFoundException, ResourceAlreadyExistsException {
         Author updated = updateAuthor(id, body);
+        // cached after the commit, when the update time is set
+        getCache().ifPresent(cache -> cacheVersions.put(cache, id, AuthorSnapshot.of(updated)));
+        bookSearchCache.evictAuthor(id);
+        bookSuggestIndex.putAuthorBooks(id);
         return authorMapper.toDetailsDto(updated);
     }
 
@@ -77,34 +123,95 @@ public class AuthorServiceImpl implements AuthorService {
     @Transactional
     @LogServiceMethod(logArgs = true)
     public void deleteById(Long id) throws ResourceNotFoundException {
-        getByIdOrThrow(id);
+        getSnapshotOrThrow(id);
+        // the books are deleted with the author
+        bookSuggestIndex.removeAuthorBooks(id);
         authorRepository.deleteById(id);
-        getCache().ifPresent(cache -> cache.evictIfPresent(id));
+        getCache().ifPresent(cache -> cacheVersions.evict(cache, id));
+        bookSearchCache.evictAuthor(id);
     }
 
+    @Override
     @Transactional(readOnly = true)
+    @LogServiceMethod
+    public List<Long> getAllIds() {
+        return authorRepository.findAllIds();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @LogServiceMethod(logArgs = true)
+    public List<AuthorSnapshot> findAllByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, AuthorSnapshot> authorMap = new LinkedHashMap<>();
+        List<Long> missingIds = new ArrayList<>();
+
+        Cache cache = getCache().orElse(null);
+
+        for (Long id : ids) {
+            AuthorSnapshot author = (cache != null) ? cache.get(id, AuthorSnapshot.class) : null;
+
+            if (author == null) {
+                missingIds.add(id);
+            }
+
+            authorMap.put(id, author);
+        }
+
+        if (!missingIds.isEmpty()) {
+            Map<Long, Long> versions = new HashMap<>();
+            if (cache != null) {
+                missingIds.forEach(id -> versions.put(id, cacheVersions.get(cache, id)));
+            }
+
+            for (Author found : authorRepository.findAllById(missingIds)) {
+                AuthorSnapshot author = AuthorSnapshot.of(found);
+                authorMap.put(author.id(), author);
+
+                if (cache != null) {
+                    cacheVersions.putIfUnchanged(cache, author.id(), author, versions.get(author.id()));
+                }
+            }
+        }
+
+        authorMap.values().removeIf(Objects::isNull);
+        return new ArrayList<>(authorMap.values());
+    }
+
+    /**
+     * Concurrent misses of an author wait for one load, so the method isn't transactional: a waiting
+     * request doesn't hold a connection.
+     */
+    @Override
     @LogServiceMethod(logArgs = true)
-    public Author getByIdOrThrow(Long id) throws ResourceNotFoundException {
-        Optional<Cache> cacheOpt = getCache();
-        return cacheOpt
-            .map(cache -> cache.get(id, Author.class))
-            .or(() -> {
-                Optional<Author> opt = authorRepository.findById(id);
-                opt.ifPresent(a -> cacheOpt.ifPresent(cache -> cache.put(id, a)));
-                return opt;
+    public AuthorSnapshot getSnapshotOrThrow(Long id) throws ResourceNotFoundException {
+        return getCache()
+            .map(cache -> cache.get(id, AuthorSnapshot.class))
+            .map(author -> {
+                cacheAccessTracker.onAccess(CacheConfig.AUTHOR_CACHE_NAME, id);
+                cacheRefreshAhead.onHit(CacheConfig.AUTHOR_CACHE_NAME, id, () -> loadSnapshot(id));
+                return author;
             })
-            .orElseThrow(() -> new ResourceNotFoundException("Author %d not found".formatted(id), id, "Author"));
+            .orElseGet(() -> loadSnapshot(id));
+    }
+
+    @Override
+    public Author getReference(Long id) {
+        return authorRepository.getReferenceById(id);
     }
 
     private Author createAuthor(AuthorRequestDto body) {
         Author author = transactionTemplate.execute(status -> authorRepository.save(authorMapper.toEntity(body)));
-        getCache().ifPresent(cache -> cache.put(author.getId(), author));
+        getCache().ifPresent(cache -> cacheVersions.put(cache, author.getId(), AuthorSnapshot.of(author)));
         return author;
     }
 
     private Author updateAuthor(Long id, AuthorRequestDto body) {
         return transactionTemplate.execute(status -> {
-            Author found = getByIdOrThrow(id);
+            Author found = authorRepository.findById(id).orElseThrow(() -> notFound(id));
 
             boolean isUpdated = false;
 
@@ -119,15 +226,39 @@ public class AuthorServiceImpl implements AuthorService {
             }
 
             if (isUpdated) {
-                Author updated = authorRepository.save(found);
-                getCache().ifPresent(cache -> cache.put(id, updated));
-                return updated;
+                return authorRepository.save(found);
             }
 
             return found;
         });
     }
 
+    /**
+     * Loads the author and puts it into the cache, concurrent loads of the author wait for one of them.
+     * The author isn't cached if it's changed during the load, see {@link CacheVersions}.
+     */
+    private AuthorSnapshot loadSnapshot(Long id) {
+        return snapshotLoads.load(id, () -> {
+            Optional<Cache> cacheOpt = getCache();
+            long version = cacheOpt.map(cache -> cacheVersions.get(cache, id)).orElse(0L);
+            long start = System.nanoTime();
+            AuthorSnapshot author = authorRepository.findById(id).map(AuthorSnapshot::of)
+                .orElseThrow(() -> notFound(id));
+            cacheOpt.ifPresent(cache -> {
+                cacheLoadMetrics.recordLoad(CacheConfig.AUTHOR_CACHE_NAME, System.nanoTime() - start);
+                if (cacheVersions.putIfUnchanged(cache, id, author, version)) {
+                    cacheRefreshAhead.onLoad(CacheConfig.AUTHOR_CACHE_NAME, id);
+                    cacheAccessTracker.onAccess(CacheConfig.AUTHOR_CACHE_NAME, id);
+                }
+            });
+            return author;
+        });
+    }
+
+    private static ResourceNotFoundException notFound(Long id) {
+        return new ResourceNotFoundException("Author %d not found".formatted(id), id, "Author");
+    }
+
     private Optional<Cache> getCache() {
         return Optional.ofNullable(cacheManager)
             .map(x -> x.getCache(CacheConfig.AUTHOR_CACHE_NAME));
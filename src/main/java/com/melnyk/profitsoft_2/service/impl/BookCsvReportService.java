@@ -0,0 +1,34 @@
+package com.melnyk.profitsoft_2.service.impl;
+
+import com.melnyk.profitsoft_2.dto.response.BookInfoDto;
+import com.melnyk.profitsoft_2.entity.Book;
+import com.melnyk.profitsoft_2.service.CsvReportService;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * CSV report for {@link Book} entities in {@link BookInfoDto} view.
+ *
+ * <p>Uses the same columns as {@link BookExcelReportService}.</p>
+ */
+@Service
+public class BookCsvReportService extends CsvReportService<BookInfoDto> {
+
+    private static final List<String> HEADER_NAMES = BookReportColumns.COLUMNS.stream()
+        .map(BookReportColumns.Column::name)
+        .toList();
+
+    @Override
+    protected List<String> getHeaderNames() {
+        return HEADER_NAMES;
+    }
+
+    @Override
+    protected List<?> getRowValues(BookInfoDto book) {
+        return BookReportColumns.COLUMNS.stream()
+            .map(column -> column.value().apply(book))
+            .toList();
+    }
+
+}
@@ -0,0 +1,33 @@
+package com.melnyk.profitsoft_2.service.impl;
+
+import com.melnyk.profitsoft_2.dto.response.BookInfoDto;
+import com.melnyk.profitsoft_2.entity.Book;
+import com.melnyk.profitsoft_2.service.NdjsonReportService;
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.ObjectMapper;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Newline-delimited JSON report for {@link Book} entities in {@link BookInfoDto} view.
+ *
+ * <p>Uses the same columns as {@link BookExcelReportService}, each column is a field of the object.</p>
+ */
+@Service
+public class BookNdjsonReportService extends NdjsonReportService<BookInfoDto> {
+
+    public BookNdjsonReportService(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    protected Map<String, Object> getFields(BookInfoDto book) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        for (BookReportColumns.Column column : BookReportColumns.COLUMNS) {
+            fields.put(column.name(), column.value().apply(book));
+        }
+        return fields;
+    }
+
+}
@@ -0,0 +1,60 @@
+package com.melnyk.profitsoft_2.service.impl;
+
+import com.melnyk.profitsoft_2.dto.response.AuthorInfoDto;
+import com.melnyk.profitsoft_2.dto.response.BookInfoDto;
+import com.melnyk.profitsoft_2.dto.response.GenreInfoDto;
+import org.apache.poi.ss.usermodel.CellType;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Column model of book reports, shared by all report formats so they contain the same data.
+ */
+final class BookReportColumns {
+    private BookReportColumns() {}
+
+    /**
+     * Report column
+     * @param name header name
+     * @param type type of the cell value
+     * @param value extracts the cell value from a book, {@code null} means a blank cell
+     */
+    record Column(String name, CellType type, Function<BookInfoDto, Object> value) {}
+
+    static final List<Column> COLUMNS = List.of(
+        new Column("id", CellType.NUMERIC, BookInfoDto::getId),
+        new Column("title", CellType.STRING, BookInfoDto::getTitle),
+        new Column("description", CellType.STRING, BookInfoDto::getDescription),
+        new Column("author", CellType.STRING, book -> authorName(book.getAuthor())),
+        new Column("yearPublished", CellType.NUMERIC, BookInfoDto::getYearPublished),
+        new Column("pages", CellType.NUMERIC, BookInfoDto::getPages),
+        new Column("genres", CellType.STRING, book -> genreNames(book.getGenres()))
+    );
+
+    static Map<String, CellType> headerNames() {
+        Map<String, CellType> map = new LinkedHashMap<>();
+        COLUMNS.forEach(column -> map.put(column.name(), column.type()));
+        return map;
+    }
+
+    private static String authorName(AuthorInfoDto author) {
+        if (author == null) {
+            return null;
+        }
+        return author.getFirstName() + " " + author.getLastName();
+    }
+
+    private static String genreNames(List<GenreInfoDto> genres) {
+        if (genres == null || genres.isEmpty()) {
+            return null;
+        }
+        return genres.stream()
+            .map(GenreInfoDto::getName)
+            .collect(Collectors.joining(","));
+    }
+
+}
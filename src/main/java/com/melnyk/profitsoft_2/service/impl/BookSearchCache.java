@@ -0,0 +1,301 @@
+package com.melnyk.profitsoft_2.service.impl;
+
+import com.melnyk.profitsoft_2.config.CacheConfig;
+import com.melnyk.profitsoft_2.dto.request.filter.CountMode;
+import com.melnyk.profitsoft_2.dto.request.filter.SearchMode;
+import com.melnyk.profitsoft_2.dto.request.filter.impl.BookFilter;
+import com.melnyk.profitsoft_2.dto.response.BookDetailsDto;
+import com.melnyk.profitsoft_2.dto.response.BookInfoDto;
+import com.melnyk.profitsoft_2.dto.response.GenreInfoDto;
+import com.melnyk.profitsoft_2.dto.response.PageDto;
+import com.melnyk.profitsoft_2.entity.Book;
+import com.melnyk.profitsoft_2.entity.Genre;
+import com.melnyk.profitsoft_2.service.SearchCountService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Cache of book search pages.
+ *
+ * <p>Pages are keyed by the canonical filter (normalized search strings, default pagination applied) and grouped
+ * by the filter without pagination fields. Writes evict only the groups they can affect:</p>
+ * <ul>
+ *     <li>a created, updated or deleted book evicts groups whose filter matches the book before or after
+ *     the change, all pages of such a group are evicted because the book shifts the following pages;</li>
+ *     <li>an updated or deleted author evicts groups showing the author, filtering by it or sorted by
+ *     author properties;</li>
+ *     <li>an updated or deleted genre evicts groups showing the genre or filtering by it.</li>
+ * </ul>
+ *
+ * <p>Evicting a group evicts the cached total count of its filter too, otherwise a page reloaded with
+ * {@link CountMode#CACHED} count would be cached again with the stale count.</p>
+ *
+ * <p>Evictions are repeated after the commit of the current transaction, and a page loaded while a write
+ * was evicting isn't cached, so a page read before the commit isn't served afterwards. Pages loaded
+ * in a read-write transaction aren't cached either.</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookSearchCache {
+
+    /**
+     * Max count of groups, above it groups whose pages are expired from the cache are forgotten.
+     */
+    private static final int MAX_GROUPS = 10_000;
+
+    private static final String AUTHOR_SORT_PREFIX = "author.";
+
+    private final CacheManager cacheManager;
+    private final SearchCountService searchCountService;
+
+    private final Map<BookFilter, Group> groups = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Returns the cached page or loads and caches it.
+     *
+     * @param filter filter of the search
+     * @param pageable page of the search with the default pagination applied
+     * @param loader loads the page
+     * @return the page
+     */
+    @SuppressWarnings("unchecked")
+    public PageDto<BookInfoDto> get(BookFilter filter, Pageable pageable, Supplier<PageDto<BookInfoDto>> loader) {
+        Optional<Cache> cacheOpt = getCache();
+        if (cacheOpt.isEmpty()) {
+            return loader.get();
+        }
+        Cache cache = cacheOpt.get();
+
+        SearchKey key = SearchKey.of(filter, pageable);
+        PageDto<BookInfoDto> cached = cache.get(key, PageDto.class);
+        if (cached != null) {
+            return cached;
+        }
+
+        long loadedGeneration = generation.get();
+        PageDto<BookInfoDto> page = loader.get();
+        // a read-write transaction may show its own uncommitted changes
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+            && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return page;
+        }
+
+        Group group = groups.computeIfAbsent(key.filter(), x -> new Group());
+        group.add(key, page);
+        if (loadedGeneration == generation.get()) {
+            cache.put(key, page);
+            // an eviction which started after the check may have missed the page
+            if (loadedGeneration != generation.get() || groups.get(key.filter()) != group) {
+                cache.evictIfPresent(key);
+            }
+        }
+
+        if (groups.size() > MAX_GROUPS) {
+            removeExpiredGroups(cache);
+        }
+        return page;
+    }
+
+    /**
+     * Evicts pages that may contain the books or would contain them.
+     *
+     * @param books states of changed books, before and after the change
+     */
+    public void evictBooks(Collection<BookState> books) {
+        evict(filter -> books.stream().anyMatch(book -> matches(filter, book)), group -> false);
+    }
+
+    /**
+     * Evicts pages affected by a change of the author.
+     *
+     * @param authorId id of the updated or deleted author
+     */
+    public void evictAuthor(Long authorId) {
+        evict(
+            filter -> filter.authorIds() != null && filter.authorIds().contains(authorId) || isFullText(filter),
+            group -> group.authorIds.contains(authorId) || group.sortedByAuthor
+        );
+    }
+
+    /**
+     * Evicts pages affected by a change of the genre.
+     *
+     * @param genreId id of the updated or deleted genre
+     */
+    public void evictGenre(Long genreId) {
+        evict(
+            filter -> filter.genreIds() != null && filter.genreIds().contains(genreId),
+            group -> group.genreIds.contains(genreId)
+        );
+    }
+
+    private void evict(Predicate<BookFilter> filterPredicate, Predicate<Group> groupPredicate) {
+        evictNow(filterPredicate, groupPredicate);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictNow(filterPredicate, groupPredicate);
+                }
+            });
+        }
+    }
+
+    private void evictNow(Predicate<BookFilter> filterPredicate, Predicate<Group> groupPredicate) {
+        generation.incrementAndGet();
+        Optional<Cache> cacheOpt = getCache();
+        int evictedCount = 0;
+        for (Map.Entry<BookFilter, Group> entry : groups.entrySet()) {
+            Group group = entry.getValue();
+            if ((filterPredicate.test(entry.getKey()) || groupPredicate.test(group))
+                && groups.remove(entry.getKey(), group)) {
+                cacheOpt.ifPresent(cache -> group.keys.forEach(cache::evictIfPresent));
+                searchCountService.evictCount(Book.class, entry.getKey());
+                evictedCount++;
+            }
+        }
+        log.debug("Evicted {} groups of book search pages", evictedCount);
+    }
+
+    private void removeExpiredGroups(Cache cache) {
+        groups.entrySet().removeIf(entry -> entry.getValue().keys.stream().noneMatch(key -> cache.get(key) != null));
+    }
+
+    private static boolean matches(BookFilter filter, BookState book) {
+        // a full-text query may match the description or the author name, which aren't known here
+        return (filter.query() == null || isFullText(filter) || book.title() == null
+                || book.title().toLowerCase().contains(filter.query()))
+            && isInRange(book.yearPublished(), filter.minYearPublished(), filter.maxYearPublished())
+            && isInRange(book.pages(), filter.minPages(), filter.maxPages())
+            && (filter.authorIds() == null || book.authorId() == null || filter.authorIds().contains(book.authorId()))
+            && (filter.genreIds() == null || book.genreIds() == null
+                || book.genreIds().stream().anyMatch(filter.genreIds()::contains))
+            && isInRange(book.createdAt(), filter.startCreatedAt(), filter.endCreatedAt())
+            && isInRange(book.updatedAt(), filter.startUpdatedAt(), filter.endUpdatedAt());
+    }
+
+    private static boolean isFullText(BookFilter filter) {
+        return filter.query() != null && filter.search() == SearchMode.FULL_TEXT;
+    }
+
+    /**
+     * Checks the inclusive range, an unknown value is in any range.
+     */
+    private static <T extends Comparable<T>> boolean isInRange(T value, T min, T max) {
+        return value == null
+            || (min == null || value.compareTo(min) >= 0) && (max == null || value.compareTo(max) <= 0);
+    }
+
+    private Optional<Cache> getCache() {
+        return Optional.ofNullable(cacheManager)
+            .map(x -> x.getCache(CacheConfig.BOOK_SEARCH_CACHE_NAME));
+    }
+
+    /**
+     * Searchable state of a book, unknown values ({@code null}) match any filter.
+     */
+    public record BookState(
+        String title,
+        Long authorId,
+        Integer yearPublished,
+        Integer pages,
+        Set<Long> genreIds,
+        Instant createdAt,
+        Instant updatedAt
+    ) {
+
+        public static BookState of(Book book) {
+            return new BookState(
+                book.getTitle(),
+                book.getAuthor() != null ? book.getAuthor().getId() : null,
+                book.getYearPublished(),
+                book.getPages(),
+                book.getGenres().stream().map(Genre::getId).collect(Collectors.toSet()),
+                book.getCreatedAt(),
+                book.getUpdatedAt()
+            );
+        }
+
+        public static BookState of(BookDetailsDto book) {
+            return new BookState(
+                book.getTitle(),
+                book.getAuthor() != null ? book.getAuthor().getId() : null,
+                book.getYearPublished(),
+                book.getPages(),
+                book.getGenres().stream().map(GenreInfoDto::getId).collect(Collectors.toSet()),
+                book.getCreatedAt(),
+                book.getUpdatedAt()
+            );
+        }
+
+    }
+
+    /**
+     * Canonical key of a search page.
+     */
+    private record SearchKey(BookFilter filter, int page, int size, String sort, String cursor, CountMode count) {
+
+        static SearchKey of(BookFilter filter, Pageable pageable) {
+            String sort = pageable.getSort().stream()
+                .map(order -> order.getProperty() + "," + order.getDirection())
+                .collect(Collectors.joining(";"));
+            return new SearchKey(
+                filter.countKey(),
+                filter.cursor() != null ? 0 : pageable.getPageNumber(),
+                pageable.getPageSize(),
+                sort,
+                filter.cursor(),
+                filter.count() != null ? filter.count() : CountMode.EXACT
+            );
+        }
+
+        boolean isSortedByAuthor() {
+            return Arrays.stream(sort.split(";")).anyMatch(order -> order.startsWith(AUTHOR_SORT_PREFIX));
+        }
+
+    }
+
+    /**
+     * Pages of one filter and the authors and genres they show.
+     */
+    private static final class Group {
+
+        private final Set<SearchKey> keys = ConcurrentHashMap.newKeySet();
+        private final Set<Long> authorIds = ConcurrentHashMap.newKeySet();
+        private final Set<Long> genreIds = ConcurrentHashMap.newKeySet();
+        private volatile boolean sortedByAuthor;
+
+        void add(SearchKey key, PageDto<BookInfoDto> page) {
+            for (BookInfoDto book : page.content()) {
+                if (book.getAuthor() != null) {
+                    authorIds.add(book.getAuthor().getId());
+                }
+                for (GenreInfoDto genre : book.getGenres()) {
+                    genreIds.add(genre.getId());
+                }
+            }
+            if (key.isSortedByAuthor()) {
+                sortedByAuthor = true;
+            }
+            keys.add(key);
+        }
+
+    }
+
+}
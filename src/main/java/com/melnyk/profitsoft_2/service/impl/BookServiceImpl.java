@@ -3,95 +3,233 @@ package com.melnyk.profitsoft_2.service.impl;
 import com.melnyk.profitsoft_2.config.CacheConfig;
 import com.melnyk.profitsoft_2.config.aspect.LogServiceMethod;
 import com.melnyk.profitsoft_2.config.props.PaginationProps;
+import com.melnyk.profitsoft_2.config.props.ReportProps;
+import com.melnyk.profitsoft_2.config.props.UploadProps;
 import com.melnyk.profitsoft_2.dto.request.BookRequestDto;
+import com.melnyk.profitsoft_2.dto.request.filter.CountMode;
 import com.melnyk.profitsoft_2.dto.request.filter.impl.BookFilter;
 import com.melnyk.profitsoft_2.dto.response.BookDetailsDto;
 import com.melnyk.profitsoft_2.dto.response.BookInfoDto;
+import com.melnyk.profitsoft_2.dto.response.BookSuggestionDto;
 import com.melnyk.profitsoft_2.dto.response.PageDto;
 import com.melnyk.profitsoft_2.dto.response.UploadResponse;
 import com.melnyk.profitsoft_2.entity.Book;
 import com.melnyk.profitsoft_2.entity.Genre;
 import com.melnyk.profitsoft_2.event.BookEvent;
+import com.melnyk.profitsoft_2.event.CacheInvalidationEvent;
 import com.melnyk.profitsoft_2.exception.ResourceAlreadyExistsException;
 import com.melnyk.profitsoft_2.exception.ResourceNotFoundException;
 import com.melnyk.profitsoft_2.mapper.BookMapper;
+import com.melnyk.profitsoft_2.repository.BookGenreView;
+import com.melnyk.profitsoft_2.repository.BookInfoView;
+import com.melnyk.profitsoft_2.repository.BookKey;
 import com.melnyk.profitsoft_2.repository.BookRepository;
+import com.melnyk.profitsoft_2.repository.KeysetQueryExecutor;
+import com.melnyk.profitsoft_2.repository.KeysetQueryExecutor.KeysetSlice;
 import com.melnyk.profitsoft_2.service.AuthorService;
+import com.melnyk.profitsoft_2.service.AuthorSnapshot;
 import com.melnyk.profitsoft_2.service.BookService;
+import com.melnyk.profitsoft_2.service.SearchCountService;
+import com.melnyk.profitsoft_2.service.ExcelReportService;
 import com.melnyk.profitsoft_2.service.GenreService;
+import com.melnyk.profitsoft_2.service.GenreSnapshot;
+import com.melnyk.profitsoft_2.service.ReportFormat;
+import com.melnyk.profitsoft_2.service.ReportPartitioning;
+import com.melnyk.profitsoft_2.service.UploadFailureMode;
+import com.melnyk.profitsoft_2.service.UploadFailureReason;
+import com.melnyk.profitsoft_2.service.UploadFailureService;
+import com.melnyk.profitsoft_2.service.UploadFailures;
+import com.melnyk.profitsoft_2.service.UploadMode;
+import com.melnyk.profitsoft_2.service.UploadProgressListener;
+import com.melnyk.profitsoft_2.service.impl.BookSearchCache.BookState;
 import com.melnyk.profitsoft_2.service.ReportService;
 import com.melnyk.profitsoft_2.util.BookEventFactory;
+import com.melnyk.profitsoft_2.util.ChunkedIterable;
+import com.melnyk.profitsoft_2.util.JsonStreamUtil;
+import com.melnyk.profitsoft_2.util.LongHashSet;
+import com.melnyk.profitsoft_2.util.StagedPipeline;
 import com.melnyk.profitsoft_2.util.PageUtil;
+import com.melnyk.profitsoft_2.util.SingleFlight;
 import com.melnyk.profitsoft_2.util.SpecificationFactory;
+import com.melnyk.profitsoft_2.util.StageTimer;
+import com.melnyk.profitsoft_2.validaton.Groups;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
 import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 import tools.jackson.databind.MappingIterator;
 import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectReader;
 
+import javax.sql.DataSource;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.function.ObjIntConsumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class BookServiceImpl implements BookService {
 
+    private static final String BOOK_ALREADY_EXISTS_MESSAGE = "The title and authorId combination already exists";
+
+    private static final String UPLOAD_STAGE_PARSE = "parse";
+    private static final String UPLOAD_STAGE_LOOKUP = "lookup";
+    private static final String UPLOAD_STAGE_VALIDATE = "validate";
+    private static final String UPLOAD_STAGE_INSERT = "insert";
+    private static final String UPLOAD_STAGE_WAIT = "wait";
+
+    private static final int UPLOAD_INSERT_ATTEMPTS = 3;
+
     private final BookRepository bookRepository;
+    private final KeysetQueryExecutor keysetQueryExecutor;
+    private final SearchCountService searchCountService;
+    private final BookSearchCache bookSearchCache;
+    private final BookSuggestIndex bookSuggestIndex;
     private final TransactionTemplate transactionTemplate;
     private final BookMapper bookMapper;
     private final AuthorService authorService;
     private final GenreService genreService;
     private final PaginationProps paginationProps;
-    private final ReportService<BookInfoDto> bookExcelReportService;
+    private final ReportProps reportProps;
+    private final ExcelReportService<BookInfoDto> bookExcelReportService;
+    private final ReportService<BookInfoDto> bookCsvReportService;
+    private final ReportService<BookInfoDto> bookNdjsonReportService;
     private final ObjectMapper objectMapper;
     private final CacheManager cacheManager;
     private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
+    private final UploadProps uploadProps;
+    private final Validator validator;
+    private final UploadFailureService uploadFailureService;
+    private final CacheRefreshAhead cacheRefreshAhead;
+    private final CacheAccessTracker cacheAccessTracker;
+    private final CacheLoadMetrics cacheLoadMetrics;
+    private final CacheVersions cacheVersions;
+    private final DataSource dataSource;
+
+    private final SingleFlight<Long, BookDetailsDto> detailsDtoLoads = new SingleFlight<>();
+
+    private TransactionTemplate readOnlyTransactionTemplate;
+    private ThreadPoolTaskExecutor reportPartitionExecutor;
+    private ThreadPoolTaskExecutor uploadPipelineExecutor;
+
+    @PostConstruct
+    public void init() {
+        readOnlyTransactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnlyTransactionTemplate.setReadOnly(true);
+
+        int poolSize = reportProps.getPartition().getPoolSize();
+        reportPartitionExecutor = new ThreadPoolTaskExecutor();
+        reportPartitionExecutor.setThreadNamePrefix("report-partition-");
+        reportPartitionExecutor.setCorePoolSize(poolSize);
+        reportPartitionExecutor.setMaxPoolSize(poolSize);
+        reportPartitionExecutor.setWaitForTasksToCompleteOnShutdown(false);
+        reportPartitionExecutor.initialize();
+
+        // stages of an upload wait for each other, so they are never queued: an upload
+        // that doesn't get threads for all its stages is rejected
+        UploadProps.Pipeline pipelineProps = uploadProps.getPipeline();
+        checkUploadConnections(pipelineProps);
+        int threadsPerUpload = pipelineProps.getWriters() + 1;
+        uploadPipelineExecutor = new ThreadPoolTaskExecutor();
+        uploadPipelineExecutor.setThreadNamePrefix("upload-pipeline-");
+        uploadPipelineExecutor.setCorePoolSize(threadsPerUpload);
+        uploadPipelineExecutor.setMaxPoolSize(threadsPerUpload * pipelineProps.getMaxConcurrentUploads());
+        uploadPipelineExecutor.setQueueCapacity(0);
+        uploadPipelineExecutor.setWaitForTasksToCompleteOnShutdown(false);
+        uploadPipelineExecutor.initialize();
+    }
+
+    /**
+     * Checks that concurrent uploads can't take all connections of the pool. A writer keeps its connection while
+     * it waits for the turn of its chunk, so each upload may hold a connection per writer and one for lookups.
+     */
+    private void checkUploadConnections(UploadProps.Pipeline pipelineProps) {
+        if (!(dataSource instanceof HikariDataSource hikari)) {
+            return;
+        }
+        int uploadConnections = pipelineProps.getMaxConcurrentUploads() * (pipelineProps.getWriters() + 1);
+        if (uploadConnections >= hikari.getMaximumPoolSize()) {
+            throw new IllegalStateException(("%d concurrent uploads with %d writers may hold %d connections, "
+                + "which leaves none of the pool of %d for other requests: decrease upload.pipeline.max-concurrent-"
+                + "uploads or upload.pipeline.writers, or increase spring.datasource.hikari.maximum-pool-size")
+                .formatted(pipelineProps.getMaxConcurrentUploads(), pipelineProps.getWriters(), uploadConnections,
+                    hikari.getMaximumPoolSize()));
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        reportPartitionExecutor.shutdown();
+        uploadPipelineExecutor.shutdown();
+    }
 
     @Override
     @LogServiceMethod(logArgs = true)
     public BookDetailsDto create(BookRequestDto body) throws ResourceAlreadyExistsException {
-        Book created = transactionTemplate.execute(status -> {
-            Book result = createBook(body);
+        BookDetailsDto dto = transactionTemplate.execute(status -> {
+            BookDetailsDto result = createBook(body);
             sendCreatedEvent(result);
             return result;
         });
-        BookDetailsDto dto = bookMapper.toDetailsDto(created);
 
-        getCache().ifPresent(cache -> cache.put(dto.getId(), dto));
+        getCache().ifPresent(cache -> cacheVersions.put(cache, dto.getId(), dto));
+        bookSearchCache.evictBooks(List.of(BookState.of(dto)));
+        bookSuggestIndex.put(dto);
 
         return dto;
     }
 
+    /**
+     * Concurrent misses of a book wait for one load, so the method isn't transactional: a waiting
+     * request doesn't hold a connection.
+     */
     @Override
-    @Transactional(readOnly = true)
     @LogServiceMethod(logArgs = true)
     public BookDetailsDto getById(Long id) throws ResourceNotFoundException {
-        Optional<Cache> cacheOpt = getCache();
-        return cacheOpt
+        return getCache()
             .map(cache -> cache.get(id, BookDetailsDto.class))
-            .orElseGet(() -> {
-                BookDetailsDto dto = bookMapper.toDetailsDto(getByIdOrThrow(id));
-                cacheOpt.ifPresent(cache -> cache.put(id, dto));
+            .map(dto -> {
+                cacheAccessTracker.onAccess(CacheConfig.BOOK_CACHE_NAME, id);
+                cacheRefreshAhead.onHit(CacheConfig.BOOK_CACHE_NAME, id, () -> loadDetailsDto(id));
                 return dto;
-            });
+            })
+            .orElseGet(() -> loadDetailsDto(id));
     }
 
     @Override
@@ -102,24 +240,117 @@ public class BookServiceImpl implements BookService {
             .orElseThrow(() -> new ResourceNotFoundException("Book %d not found".formatted(id), id, "Book"));
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    @LogServiceMethod
+    public int cacheAllByIds(Collection<Long> ids) {
+        Cache cache = getCache().orElse(null);
+        if (cache == null) {
+            return 0;
+        }
+        List<Long> missingIds = ids.stream()
+            .filter(id -> cache.get(id) == null)
+            .toList();
+        if (missingIds.isEmpty()) {
+            return 0;
+        }
+        Map<Long, Long> versions = new HashMap<>();
+        missingIds.forEach(id -> versions.put(id, cacheVersions.get(cache, id)));
+        List<Book> books = bookRepository.findAllByIdIn(missingIds);
+        books.forEach(book -> cacheVersions.putIfUnchanged(
+            cache, book.getId(), bookMapper.toDetailsDto(book), versions.get(book.getId())));
+        return books.size();
+    }
+
     @Override
     @Transactional(readOnly = true)
     @LogServiceMethod(logArgs = true)
     public PageDto<BookInfoDto> search(BookFilter filter) {
-        Pageable pageable = PageUtil.pageableFrom(filter, paginationProps);
+        Pageable sortedPageable = PageUtil.pageableFrom(filter, paginationProps);
+        // a full-text search without a sort is ordered by relevance by the specification
+        Pageable pageable = filter.rankedByRelevance()
+            ? PageRequest.of(sortedPageable.getPageNumber(), sortedPageable.getPageSize())
+            : sortedPageable;
+        return bookSearchCache.get(filter, pageable, () -> search(filter, pageable));
+    }
+
+    private PageDto<BookInfoDto> search(BookFilter filter, Pageable pageable) {
         Specification<Book> spec = SpecificationFactory.createForBook(filter);
-        Page<Book> page = bookRepository.findAll(spec, pageable);
-        return new PageDto<>(page.map(bookMapper::toInfoDto));
+        if (filter.cursor() != null) {
+            KeysetSlice<Long> slice = keysetQueryExecutor.findIdSlice(
+                Book.class, Long.class, spec, pageable.getSort(), pageable.getPageSize(), filter.cursor());
+            List<BookInfoDto> content = findInfoDtos(slice.content());
+            return new PageDto<>(content, pageable.getPageSize(), slice.nextCursor());
+        }
+
+        if (filter.count() != null && filter.count() != CountMode.EXACT) {
+            Slice<Long> slice = searchCountService.withTotal(
+                Book.class, bookRepository, spec, bookRepository.findIdSlice(spec, pageable), filter);
+            List<BookInfoDto> content = findInfoDtos(slice.getContent());
+            return new PageDto<>(slice instanceof Page<Long> page
+                ? new PageImpl<>(content, pageable, page.getTotalElements())
+                : new SliceImpl<>(content, pageable, slice.hasNext()));
+        }
+
+        Page<Long> ids = bookRepository.findIds(spec, pageable);
+        return new PageDto<>(new PageImpl<>(findInfoDtos(ids.getContent()), pageable, ids.getTotalElements()));
+    }
+
+    /**
+     * Selects columns of listed books by their ids, instead of loading the entities with their lazy
+     * authors and genres.
+     *
+     * @param ids ids of the books in the order of the page
+     * @return books in the order of the ids, books deleted after the ids were selected are skipped
+     */
+    private List<BookInfoDto> findInfoDtos(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, BookInfoView> books = bookRepository.findInfoViewsByIdIn(ids).stream()
+            .collect(Collectors.toMap(BookInfoView::id, Function.identity()));
+        Map<Long, List<BookGenreView>> genres = findGenres(ids);
+        return ids.stream()
+            .map(books::get)
+            .filter(Objects::nonNull)
+            .map(book -> bookMapper.toInfoDto(book, genres.getOrDefault(book.id(), List.of())))
+            .toList();
+    }
+
+    /**
+     * Selects genres of the books by one query, instead of lazy loading the genres of each book.
+     *
+     * @param bookIds ids of the books
+     * @return genres by book id, books without genres are absent
+     */
+    private Map<Long, List<BookGenreView>> findGenres(List<Long> bookIds) {
+        return bookRepository.findGenreViewsByBookIdIn(bookIds).stream()
+            .collect(Collectors.groupingBy(BookGenreView::bookId));
+    }
+
+    @Override
+    @LogServiceMethod(logArgs = true)
+    public List<BookSuggestionDto> suggest(String query, int limit) {
+        return bookSuggestIndex.suggest(query, limit).stream()
+            .map(document -> new BookSuggestionDto(document.id(), document.title()))
+            .toList();
     }
 
     @Override
     @LogServiceMethod(logArgs = true)
     public BookDetailsDto updateById(Long id, BookRequestDto body)
         throws ResourceNotFoundException, ResourceAlreadyExistsException {
-        Book updated = transactionTemplate.execute(status -> updateBook(id, body));
-        BookDetailsDto dto = bookMapper.toDetailsDto(updated);
+        List<BookState> states = new ArrayList<>(2);
+        BookDetailsDto dto = transactionTemplate.execute(status -> {
+            states.add(BookState.of(getByIdOrThrow(id)));
+            return updateBook(id, body);
+        });
 
-        getCache().ifPresent(cache -> cache.put(dto.getId(), dto));
+        getCache().ifPresent(cache -> cacheVersions.put(cache, dto.getId(), dto));
+        sendCacheInvalidation(dto.getId());
+        states.add(BookState.of(dto));
+        bookSearchCache.evictBooks(states);
+        bookSuggestIndex.put(dto);
 
         return dto;
     }
@@ -128,103 +359,548 @@ public class BookServiceImpl implements BookService {
     @Transactional
     @LogServiceMethod(logArgs = true)
     public void deleteById(Long id) throws ResourceNotFoundException {
-        getByIdOrThrow(id);
+        BookState state = BookState.of(getByIdOrThrow(id));
         bookRepository.deleteById(id);
-        getCache().ifPresent(cache -> cache.evictIfPresent(id));
+        getCache().ifPresent(cache -> cacheVersions.evict(cache, id));
+        sendCacheInvalidation(id);
+        bookSearchCache.evictBooks(List.of(state));
+        bookSuggestIndex.remove(id);
     }
 
     @Override
-    @Transactional(readOnly = true)
     @LogServiceMethod(logArgs = true)
-    public void generateReport(BookFilter filter, HttpServletResponse response) throws IOException {
+    public void generateReport(
+        BookFilter filter,
+        ReportFormat format,
+        ReportPartitioning partitioning,
+        HttpServletResponse response
+    ) throws IOException {
+        checkPartitioning(format, partitioning);
+
         String contentDispositionFormat = "attachment; filename=%s";
-        response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
-        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, contentDispositionFormat.formatted("report.xlsx"));
+        response.setContentType(format.getContentType().toString());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, contentDispositionFormat.formatted("report." + format.getExtension()));
+
+        OutputStream out = response.getOutputStream();
+        writeReport(filter, format, partitioning, out, rows -> {});
+        out.flush();
+    }
+
+    @Override
+    @LogServiceMethod(logArgs = true)
+    public void writeReport(
+        BookFilter filter,
+        ReportFormat format,
+        ReportPartitioning partitioning,
+        OutputStream out,
+        LongConsumer progressListener
+    ) throws IOException {
+        checkPartitioning(format, partitioning);
 
         Sort sort = PageUtil.parseSort(filter.sort(), paginationProps.getSort());
         Specification<Book> spec = SpecificationFactory.createForBook(filter);
-        List<BookInfoDto> books = bookRepository.findAll(spec, sort).stream()
-            .map(bookMapper::toInfoDto)
-            .toList();
 
-        OutputStream out = response.getOutputStream();
-        bookExcelReportService.write(books, out);
-        out.flush();
+        // no transaction is held by the caller: each partition reads its books in its own read-only transaction
+        // on a worker, a report without partitions streams them in one
+        if (partitioning != ReportPartitioning.NONE) {
+            List<ExcelReportService.SheetPartition<BookInfoDto>> partitions = switch (partitioning) {
+                case GENRE -> createGenrePartitions(filter, spec, sort);
+                case AUTHOR -> createAuthorPartitions(filter, spec, sort);
+                case NONE -> List.of();
+            };
+            // the progress is reported by the sheet writer, producers run ahead of it by their buffers
+            bookExcelReportService.writePartitioned(
+                partitions,
+                reportPartitionExecutor,
+                reportProps.getPartition().getBufferSize(),
+                out,
+                progressListener
+            );
+            return;
+        }
+
+        try {
+            readOnlyTransactionTemplate.executeWithoutResult(status -> {
+                try (Stream<Book> books = bookRepository.streamAll(spec, sort, reportProps.getChunkSize())) {
+                    getReportService(format).write(toReportRows(books, progressListener), out);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void checkPartitioning(ReportFormat format, ReportPartitioning partitioning) {
+        if (partitioning != ReportPartitioning.NONE && format != ReportFormat.EXCEL) {
+            throw new IllegalArgumentException("Only Excel report can be split into sheets");
+        }
+    }
+
+    private List<ExcelReportService.SheetPartition<BookInfoDto>> createGenrePartitions(
+        BookFilter filter,
+        Specification<Book> spec,
+        Sort sort
+    ) {
+        Set<Long> genreIds = filter.genreIds();
+        boolean allGenres = genreIds == null || genreIds.isEmpty();
+
+        List<ExcelReportService.SheetPartition<BookInfoDto>> partitions = new ArrayList<>();
+        for (Genre genre : genreService.getAll()) {
+            if (allGenres || genreIds.contains(genre.getId())) {
+                Specification<Book> genreSpec = spec.and(SpecificationFactory.hasGenre(genre.getId()));
+                partitions.add(createPartition(genre.getName(), genreSpec, sort));
+            }
+        }
+        if (allGenres) {
+            Specification<Book> noGenreSpec = spec.and(SpecificationFactory.hasNoGenres());
+            partitions.add(createPartition("Without genre", noGenreSpec, sort));
+        }
+        return partitions;
+    }
+
+    private List<ExcelReportService.SheetPartition<BookInfoDto>> createAuthorPartitions(
+        BookFilter filter,
+        Specification<Book> spec,
+        Sort sort
+    ) {
+        List<Long> authorIds = filter.authorIds() == null || filter.authorIds().isEmpty()
+            ? authorService.getAllIds()
+            : filter.authorIds().stream().sorted().toList();
+        int authorsPerSheet = reportProps.getPartition().getAuthorsPerSheet();
+
+        List<ExcelReportService.SheetPartition<BookInfoDto>> partitions = new ArrayList<>();
+        for (int from = 0; from < authorIds.size(); from += authorsPerSheet) {
+            List<Long> range = authorIds.subList(from, Math.min(from + authorsPerSheet, authorIds.size()));
+            Long minId = range.getFirst();
+            Long maxId = range.getLast();
+            Specification<Book> rangeSpec = spec.and(SpecificationFactory.hasAuthorIdBetween(minId, maxId));
+            partitions.add(createPartition("Authors %d-%d".formatted(minId, maxId), rangeSpec, sort));
+        }
+        return partitions;
+    }
+
+    /**
+     * Creates a partition that reads its books in a separate read-only transaction on a worker thread.
+     */
+    private ExcelReportService.SheetPartition<BookInfoDto> createPartition(
+        String name,
+        Specification<Book> spec,
+        Sort sort
+    ) {
+        return new ExcelReportService.SheetPartition<>(name, sink ->
+            readOnlyTransactionTemplate.executeWithoutResult(status -> {
+                try (Stream<Book> books = bookRepository.streamAll(spec, sort, reportProps.getChunkSize())) {
+                    toReportRows(books, rows -> { }).forEach(sink);
+                }
+            })
+        );
+    }
+
+    private Iterable<BookInfoDto> toReportRows(Stream<Book> books, LongConsumer progressListener) {
+        return new ChunkedIterable<>(
+            books.iterator(),
+            reportProps.getChunkSize(),
+            chunk -> {
+                // authors are fetched with the books, genres of the chunk are selected at once
+                Map<Long, List<BookGenreView>> genres = findGenres(chunk.stream().map(Book::getId).toList());
+                List<BookInfoDto> mapped = chunk.stream()
+                    .map(book -> bookMapper.toInfoDto(book, genres.getOrDefault(book.getId(), List.of())))
+                    .toList();
+                progressListener.accept(mapped.size());
+                return mapped;
+            },
+            entityManager::clear
+        );
+    }
+
+    private ReportService<BookInfoDto> getReportService(ReportFormat format) {
+        return switch (format) {
+            case EXCEL -> bookExcelReportService;
+            case CSV -> bookCsvReportService;
+            case NDJSON -> bookNdjsonReportService;
+        };
+    }
+
+    @Override
+    @LogServiceMethod(logArgs = true)
+    public UploadResponse uploadFromFile(MultipartFile file, UploadMode mode, UploadFailureMode failureMode)
+        throws IOException {
+        try (UploadFailures failures = uploadFailureService.open(failureMode)) {
+            return upload(file.getInputStream(), mode, 0, failures, (parsedCount, createdCount, failedCount) -> {});
+        }
     }
 
     @Override
     @LogServiceMethod(logArgs = true)
-    public UploadResponse uploadFromFile(MultipartFile file) throws IOException {
+    public UploadResponse upload(
+        InputStream in,
+        UploadMode mode,
+        long offset,
+        UploadFailures failures,
+        UploadProgressListener listener
+    ) {
+        if (mode == UploadMode.COPY && !bookRepository.isCopySupported()) {
+            throw new IllegalArgumentException("COPY upload mode is supported only by PostgreSQL");
+        }
+
         UploadResponse response = new UploadResponse();
-        List<UploadResponse.FailedItem> failedItems = response.getFailedItems();
-        int createdCount = 0;
+        StageTimer timer = new StageTimer();
+        LongHashSet seenKeyHashes = new LongHashSet();
+        int chunkSize = uploadProps.getChunkSize();
+        AtomicInteger createdCount = new AtomicInteger();
+
+        // workers can't join the transaction of the caller, so inside it everything runs in the calling thread
+        UploadProps.Pipeline pipelineProps = uploadProps.getPipeline();
+        int writers = TransactionSynchronizationManager.isActualTransactionActive() ? 0 : pipelineProps.getWriters();
+
+        ObjectReader reader = objectMapper.readerFor(BookRequestDto.class);
+        try (MappingIterator<BookRequestDto> iter = JsonStreamUtil.readValues(reader, in, offset)) {
+            StagedPipeline.<List<BookRequestDto>, UploadBatch>run(
+                () -> timer.time(UPLOAD_STAGE_PARSE, () -> {
+                    List<BookRequestDto> chunk = readChunk(iter, chunkSize);
+                    return chunk.isEmpty() ? null : chunk;
+                }),
+                chunk -> {
+                    UploadReferences references = timer.time(UPLOAD_STAGE_LOOKUP, () -> findUploadReferences(chunk));
+                    return timer.time(UPLOAD_STAGE_VALIDATE, () -> checkUploadChunk(chunk, references, seenKeyHashes));
+                },
+                (batch, turn) -> createdCount.addAndGet(timer.time(UPLOAD_STAGE_INSERT, () -> insertUploadItems(
+                    batch,
+                    mode,
+                    () -> timer.time(UPLOAD_STAGE_WAIT, turn::await),
+                    (insertFailures, created) -> {
+                        // failures and progress are published in order of chunks, so the checkpoint is
+                        // never ahead of a chunk that isn't committed yet
+                        timer.time(UPLOAD_STAGE_WAIT, turn::await);
+                        batch.failures().forEach(failure -> failure.addTo(failures));
+                        batch.failures().clear();
+                        insertFailures.forEach(failure -> failure.addTo(failures));
+                        listener.onChunkProcessed(batch.size(), created, batch.size() - created);
+                    }
+                ))),
+                writers,
+                pipelineProps.getQueueCapacity(),
+                uploadPipelineExecutor
+            );
+        }
+
+        failures.flush();
+        response.setCreatedCount(createdCount.get());
+        response.setFailedCount((int) failures.getCount());
+        response.setTotalCount(createdCount.get() + response.getFailedCount());
+        response.setFailedItems(failures.getItems());
+        response.setFailureCounts(failures.getCounts());
+        response.setFailuresFileId(failures.getFileId());
+        response.setStageTimings(timer.toMillis());
+
+        return response;
+    }
+
+    private List<BookRequestDto> readChunk(Iterator<BookRequestDto> iter, int chunkSize) {
+        List<BookRequestDto> chunk = new ArrayList<>(chunkSize);
+        while (chunk.size() < chunkSize && iter.hasNext()) {
+            chunk.add(iter.next());
+        }
+        return chunk;
+    }
+
+    /**
+     * Loads authors, genres and existing books referenced by the chunk, one query for each kind.
+     */
+    private UploadReferences findUploadReferences(List<BookRequestDto> chunk) {
+        Set<Long> authorIds = new HashSet<>();
+        Set<Long> genreIds = new HashSet<>();
+        Set<String> titles = new HashSet<>();
+
+        for (BookRequestDto dto : chunk) {
+            if (dto.authorId() != null) {
+                authorIds.add(dto.authorId());
+            }
+            if (dto.genreIds() != null) {
+                dto.genreIds().stream().filter(Objects::nonNull).forEach(genreIds::add);
+            }
+            if (dto.title() != null) {
+                titles.add(dto.title());
+            }
+        }
 
-        int batchSize = 50;
-        List<Book> batchToSave = new ArrayList<>(batchSize);
-        Set<String> seenKeysInFile = new HashSet<>();
+        Map<Long, AuthorSnapshot> authors = authorService.findAllByIds(authorIds).stream()
+            .collect(Collectors.toMap(AuthorSnapshot::id, Function.identity()));
+        Map<Long, GenreSnapshot> genres = genreService.findAllByIds(genreIds).stream()
+            .collect(Collectors.toMap(GenreSnapshot::id, Function.identity()));
+        Set<BookKey> existingKeys = authorIds.isEmpty() || titles.isEmpty()
+            ? Set.of()
+            : new HashSet<>(bookRepository.findKeysByTitlesAndAuthorIds(titles, authorIds));
 
-        MappingIterator<BookRequestDto> iter = objectMapper
-            .readerFor(BookRequestDto.class)
-            .readValues(file.getInputStream());
+        return new UploadReferences(authors, genres, existingKeys);
+    }
 
-        BookRequestDto currentDto;
-        while (iter.hasNext()) {
-            currentDto = iter.next();
+    /**
+     * Checks each object of the chunk in memory. Must be called for chunks one by one in order of the file
+     * to detect duplicates in it.
+     *
+     * <p>Only 64-bit hashes of keys of the checked objects are kept in {@code seenKeyHashes}. An object whose
+     * hash was already seen is a suspected duplicate: it's almost surely a duplicate, but can be a hash collision,
+     * so it's checked exactly against the database after all earlier objects are inserted.</p>
+     */
+    private UploadBatch checkUploadChunk(
+        List<BookRequestDto> chunk,
+        UploadReferences references,
+        LongHashSet seenKeyHashes
+    ) {
+        List<UploadItem> items = new ArrayList<>(chunk.size());
+        List<UploadItem> suspects = new ArrayList<>();
+        List<UploadFailure> failures = new ArrayList<>();
+
+        for (BookRequestDto dto : chunk) {
+            Set<ConstraintViolation<BookRequestDto>> violations = validator.validate(dto, Groups.OnCreate.class);
+            if (!violations.isEmpty()) {
+                String reason = violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+                failures.add(new UploadFailure(dto, UploadFailureReason.INVALID, reason));
+                continue;
+            }
 
-            String key = currentDto.title() + ":" + currentDto.authorId();
+            BookKey key = new BookKey(dto.title(), dto.authorId());
+            if (references.existingKeys().contains(key)) {
+                failures.add(new UploadFailure(dto, UploadFailureReason.ALREADY_EXISTS, BOOK_ALREADY_EXISTS_MESSAGE));
+                continue;
+            }
 
-            if (!seenKeysInFile.add(key)) {
-                failedItems.add(new UploadResponse.FailedItem(currentDto, "The title and authorId combination already exists"));
+            AuthorSnapshot author = references.authors().get(dto.authorId());
+            if (author == null) {
+                failures.add(new UploadFailure(
+                    dto, UploadFailureReason.AUTHOR_NOT_FOUND, "Author %d not found".formatted(dto.authorId())));
                 continue;
             }
 
-            try {
-                checkUniqueFieldsOrThrow(currentDto);
-                Book book = bookMapper.toEntity(currentDto);
-                book.setAuthor(authorService.getByIdOrThrow(currentDto.authorId()));
-                book.getGenres().addAll(genreService.getAllByIds(currentDto.genreIds()));
+            Optional<Long> missingGenreId = dto.genreIds().stream()
+                .filter(id -> !references.genres().containsKey(id))
+                .findFirst();
+            if (missingGenreId.isPresent()) {
+                failures.add(new UploadFailure(
+                    dto, UploadFailureReason.GENRE_NOT_FOUND, "Genre %d not found".formatted(missingGenreId.get())));
+                continue;
+            }
+
+            UploadItem item = new UploadItem(dto, author);
+            if (seenKeyHashes.add(key.hash64())) {
+                items.add(item);
+            } else {
+                suspects.add(item);
+            }
+        }
+
+        return new UploadBatch(chunk.size(), items, suspects, failures);
+    }
 
-                batchToSave.add(book);
+    /**
+     * Inserts the checked objects in one transaction. After {@code awaitTurn} returns, all earlier chunks
+     * are inserted, so suspected duplicates are checked against the database and inserted if they are
+     * hash collisions. {@code onInserted} receives objects rejected during insertion and count of created
+     * books inside the transaction.
+     *
+     * <p>If the transaction fails (e.g. an author was deleted concurrently), each object is inserted in its own
+     * transaction which is rolled back to find out which of them are failed, then the rest are inserted again
+     * in one transaction with {@code onInserted}. Nothing is committed apart from the checkpoint, so a job resumed
+     * after a crash doesn't find books of the chunk. If the objects still can't be inserted, e.g. another one
+     * was broken meanwhile, this is repeated up to {@value #UPLOAD_INSERT_ATTEMPTS} times.</p>
+     *
+     * @return count of created books
+     */
+    private int insertUploadItems(
+        UploadBatch batch,
+        UploadMode mode,
+        Runnable awaitTurn,
+        ObjIntConsumer<List<UploadFailure>> onInserted
+    ) {
+        UploadBatch checked = batch;
+        List<UploadFailure> rejected = List.of();
+        for (int attempt = 1; ; attempt++) {
+            UploadBatch inserted = checked;
+            List<UploadFailure> insertRejected = rejected;
+            try {
+                int createdCount = transactionTemplate.execute(status -> {
+                    List<UploadFailure> failures = new ArrayList<>(insertRejected);
+                    int created = insertUploadItems(inserted.items(), mode, failures);
+                    awaitTurn.run();
+                    created += insertUploadItems(findCollisions(inserted.suspects(), failures), mode, failures);
+                    // constraint violations are thrown before the failures and the progress are published
+                    entityManager.flush();
 
-                if (batchToSave.size() >= batchSize) {
-                    saveBatch(batchToSave);
-                    createdCount += batchToSave.size();
-                    batchToSave.clear();
+                    onInserted.accept(failures, created);
+                    return created;
+                });
+                refreshUploadedBooks(inserted);
+                return createdCount;
+            } catch (DataAccessException e) {
+                if (attempt == UPLOAD_INSERT_ATTEMPTS) {
+                    throw e;
                 }
+                log.warn("Cannot insert uploaded chunk of {} books at once, checking them one by one", batch.size(), e);
+            }
+
+            List<UploadFailure> failures = new ArrayList<>();
+            checked = new UploadBatch(
+                batch.size(),
+                findInsertableUploadItems(batch.items(), failures),
+                findInsertableUploadItems(batch.suspects(), failures),
+                batch.failures()
+            );
+            rejected = failures;
+        }
+    }
+
+    /**
+     * Evicts book search pages which may show the inserted objects of the chunk and adds the inserted books
+     * to the suggest index.
+     */
+    private void refreshUploadedBooks(UploadBatch batch) {
+        List<BookState> states = Stream.concat(batch.items().stream(), batch.suspects().stream())
+            .map(item -> new BookState(
+                item.dto().title(),
+                item.author().id(),
+                item.dto().yearPublished(),
+                item.dto().pages(),
+                item.dto().genreIds(),
+                null,
+                null
+            ))
+            .toList();
+        if (!states.isEmpty()) {
+            bookSearchCache.evictBooks(states);
+        }
+        bookSuggestIndex.putInserted(Stream.concat(batch.items().stream(), batch.suspects().stream())
+            .map(item -> new BookKey(item.dto().title(), item.author().id()))
+            .toList());
+    }
+
+    /**
+     * Inserts the objects in the current transaction, objects skipped by the database are added to {@code failures}.
+     *
+     * @return count of created books
+     */
+    private int insertUploadItems(List<UploadItem> items, UploadMode mode, List<UploadFailure> failures) {
+        if (items.isEmpty()) {
+            return 0;
+        }
+
+        List<UploadItem> skipped = mode == UploadMode.COPY ? copyUploadItems(items) : saveUploadItems(items);
+        for (UploadItem item : skipped) {
+            failures.add(new UploadFailure(item.dto(), UploadFailureReason.ALREADY_EXISTS, BOOK_ALREADY_EXISTS_MESSAGE));
+        }
+        return items.size() - skipped.size();
+    }
+
+    /**
+     * Inserts each object in its own transaction which is rolled back, failed ones are added to {@code failures}.
+     *
+     * @return objects which can be inserted
+     */
+    private List<UploadItem> findInsertableUploadItems(List<UploadItem> items, List<UploadFailure> failures) {
+        List<UploadItem> insertable = new ArrayList<>(items.size());
+        for (UploadItem item : items) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    status.setRollbackOnly();
+                    bookRepository.saveAndFlush(toBook(item));
+                });
+                insertable.add(item);
             } catch (Exception e) {
                 Throwable root = NestedExceptionUtils.getMostSpecificCause(e);
-                failedItems.add(new UploadResponse.FailedItem(currentDto, root.getMessage()));
+                failures.add(new UploadFailure(item.dto(), UploadFailureReason.INSERT_FAILED, root.getMessage()));
             }
         }
-        iter.close();
+        return insertable;
+    }
 
-        if (!batchToSave.isEmpty()) {
-            saveBatch(batchToSave);
-            createdCount += batchToSave.size();
+    /**
+     * Checks suspected duplicates against the database, actual duplicates are added to {@code failures}.
+     *
+     * @return suspects whose hashes collided with hashes of other keys
+     */
+    private List<UploadItem> findCollisions(List<UploadItem> suspects, List<UploadFailure> failures) {
+        if (suspects.isEmpty()) {
+            return List.of();
         }
 
-        response.setCreatedCount(createdCount);
-        response.setFailedCount(failedItems.size());
-        response.setTotalCount(createdCount + failedItems.size());
-        response.setFailedItems(failedItems);
+        Set<String> titles = new HashSet<>();
+        Set<Long> authorIds = new HashSet<>();
+        for (UploadItem item : suspects) {
+            titles.add(item.dto().title());
+            authorIds.add(item.dto().authorId());
+        }
+        Set<BookKey> existingKeys = new HashSet<>(bookRepository.findKeysByTitlesAndAuthorIds(titles, authorIds));
 
-        return response;
+        List<UploadItem> collisions = new ArrayList<>();
+        for (UploadItem item : suspects) {
+            if (existingKeys.contains(new BookKey(item.dto().title(), item.dto().authorId()))) {
+                failures.add(new UploadFailure(item.dto(), UploadFailureReason.ALREADY_EXISTS, BOOK_ALREADY_EXISTS_MESSAGE));
+            } else {
+                collisions.add(item);
+            }
+        }
+        return collisions;
+    }
+
+    /**
+     * Saves the objects through JPA.
+     *
+     * @return empty list, a conflicting book fails the whole batch
+     */
+    private List<UploadItem> saveUploadItems(List<UploadItem> items) {
+        bookRepository.saveAll(items.stream().map(this::toBook).toList());
+        return List.of();
+    }
+
+    /**
+     * Inserts the objects with {@code COPY}.
+     *
+     * @return objects skipped because books with the same title and author were created concurrently
+     */
+    private List<UploadItem> copyUploadItems(List<UploadItem> items) {
+        Map<Book, UploadItem> itemsByBook = new IdentityHashMap<>();
+        for (UploadItem item : items) {
+            itemsByBook.put(toBook(item), item);
+        }
+
+        return bookRepository.copyInsert(new ArrayList<>(itemsByBook.keySet())).stream()
+            .map(itemsByBook::get)
+            .toList();
     }
 
-    private void saveBatch(List<Book> batchToSave) {
-        transactionTemplate.execute(status -> bookRepository.saveAll(batchToSave));
+    private Book toBook(UploadItem item) {
+        Book book = bookMapper.toEntity(item.dto());
+        book.setAuthor(authorService.getReference(item.author().id()));
+        book.getGenres().addAll(genreService.getReferences(item.dto().genreIds()));
+        return book;
     }
 
-    private Book createBook(BookRequestDto body) throws ResourceAlreadyExistsException {
+    /**
+     * Creates the book with references to its author and genres, they are mapped from their cached snapshots.
+     */
+    private BookDetailsDto createBook(BookRequestDto body) throws ResourceAlreadyExistsException {
         checkUniqueFieldsOrThrow(body);
+        AuthorSnapshot author = authorService.getSnapshotOrThrow(body.authorId());
+        List<GenreSnapshot> genres = genreService.getAllByIds(body.genreIds());
+
         Book book = bookMapper.toEntity(body);
-        book.setAuthor(authorService.getByIdOrThrow(body.authorId()));
-        book.getGenres().addAll(genreService.getAllByIds(body.genreIds()));
-        return bookRepository.save(book);
+        book.setAuthor(authorService.getReference(author.id()));
+        book.getGenres().addAll(genreService.getReferences(body.genreIds()));
+        return bookMapper.toDetailsDto(bookRepository.save(book), author, genres);
     }
 
-    private Book updateBook(Long id, BookRequestDto body) {
+    /**
+     * Updates the book, a changed author or genres are set by references and mapped from their cached snapshots.
+     */
+    private BookDetailsDto updateBook(Long id, BookRequestDto body) {
         Book found = getByIdOrThrow(id);
+        AuthorSnapshot author = AuthorSnapshot.of(found.getAuthor());
+        List<GenreSnapshot> genres = found.getGenres().stream().map(GenreSnapshot::of).toList();
 
         boolean isUpdated = false;
 
@@ -239,7 +915,8 @@ public class BookServiceImpl implements BookService {
         }
 
         if (!Objects.equals(body.authorId(), found.getAuthor().getId())) {
-            found.setAuthor(authorService.getByIdOrThrow(body.authorId()));
+            author = authorService.getSnapshotOrThrow(body.authorId());
+            found.setAuthor(authorService.getReference(author.id()));
             isUpdated = true;
         }
 
@@ -258,18 +935,19 @@ public class BookServiceImpl implements BookService {
             isUpdated = true;
         }
 
-        Set<Genre> genres = found.getGenres();
-        Set<Long> existingGenreIds = genres.stream().map(Genre::getId).collect(Collectors.toSet());
+        Set<Long> existingGenreIds = genres.stream().map(GenreSnapshot::id).collect(Collectors.toSet());
         if (!existingGenreIds.equals(body.genreIds())) {
-            genres.clear();
-            genres.addAll(genreService.getAllByIds(body.genreIds()));
+            genres = genreService.getAllByIds(body.genreIds());
+            found.getGenres().clear();
+            found.getGenres().addAll(genreService.getReferences(body.genreIds()));
             isUpdated = true;
         }
 
         if (isUpdated) {
-            return bookRepository.save(found);
+            // flushed so the update time is set before the book is mapped
+            found = bookRepository.saveAndFlush(found);
         }
-        return found;
+        return bookMapper.toDetailsDto(found, author, genres);
     }
 
     private void checkUniqueFieldsOrThrow(BookRequestDto body) throws ResourceNotFoundException {
@@ -278,19 +956,81 @@ public class BookServiceImpl implements BookService {
         if (opt.isPresent()) {
             Book book = opt.get();
             throw new ResourceAlreadyExistsException(
-                "The title and authorId combination already exists",
+                BOOK_ALREADY_EXISTS_MESSAGE,
                 book.getId(), "Book", List.of("title", "authorId"));
         }
     }
 
+    /**
+     * Entities referenced by a chunk of uploaded objects.
+     */
+    private record UploadReferences(
+        Map<Long, AuthorSnapshot> authors,
+        Map<Long, GenreSnapshot> genres,
+        Set<BookKey> existingKeys
+    ) { }
+
+    /**
+     * Uploaded object that passed all checks, with its resolved author.
+     */
+    private record UploadItem(BookRequestDto dto, AuthorSnapshot author) { }
+
+    /**
+     * Rejected object, it's kept with its chunk until the chunk is inserted.
+     */
+    private record UploadFailure(BookRequestDto dto, UploadFailureReason reason, String message) {
+
+        void addTo(UploadFailures failures) {
+            failures.add(dto, reason, message);
+        }
+
+    }
+
+    /**
+     * Checked chunk of uploaded objects waiting for insertion.
+     *
+     * @param size count of objects in the chunk
+     * @param items objects to insert
+     * @param suspects objects whose key hashes were already seen in the file
+     * @param failures rejected objects
+     */
+    private record UploadBatch(int size, List<UploadItem> items, List<UploadItem> suspects, List<UploadFailure> failures) { }
+
+    /**
+     * Loads the book and puts it into the cache, concurrent loads of the book wait for one of them.
+     * The book isn't cached if it's changed during the load, see {@link CacheVersions}.
+     */
+    private BookDetailsDto loadDetailsDto(Long id) {
+        return detailsDtoLoads.load(id, () -> {
+            Optional<Cache> cacheOpt = getCache();
+            long version = cacheOpt.map(cache -> cacheVersions.get(cache, id)).orElse(0L);
+            long start = System.nanoTime();
+            BookDetailsDto dto = bookMapper.toDetailsDto(getByIdOrThrow(id));
+            cacheOpt.ifPresent(cache -> {
+                cacheLoadMetrics.recordLoad(CacheConfig.BOOK_CACHE_NAME, System.nanoTime() - start);
+                if (cacheVersions.putIfUnchanged(cache, id, dto, version)) {
+                    cacheRefreshAhead.onLoad(CacheConfig.BOOK_CACHE_NAME, id);
+                    cacheAccessTracker.onAccess(CacheConfig.BOOK_CACHE_NAME, id);
+                }
+            });
+            return dto;
+        });
+    }
+
     private Optional<Cache> getCache() {
         return Optional.ofNullable(cacheManager)
             .map(x -> x.getCache(CacheConfig.BOOK_CACHE_NAME));
     }
 
-    private void sendCreatedEvent(Book book) {
+    /**
+     * Evicts the book from the caches of other nodes, after the commit of the current transaction if there is one.
+     */
+    private void sendCacheInvalidation(Long id) {
+        eventPublisher.publishEvent(new CacheInvalidationEvent(CacheConfig.BOOK_CACHE_NAME, List.of(id)));
+    }
+
+    private void sendCreatedEvent(BookDetailsDto dto) {
         Instant now = Instant.now();
-        BookDetailsDto dto = bookMapper.toDetailsDto(book);
         BookEvent event = BookEventFactory.createBookCreatedEvent(now, dto);
         eventPublisher.publishEvent(event);
     }
@@ -0,0 +1,274 @@
+package com.melnyk.profitsoft_2.service.impl;
+
+import com.melnyk.profitsoft_2.dto.response.AuthorInfoDto;
+import com.melnyk.profitsoft_2.dto.response.BookDetailsDto;
+import com.melnyk.profitsoft_2.repository.BookKey;
+import com.melnyk.profitsoft_2.repository.BookRepository;
+import com.melnyk.profitsoft_2.repository.BookTitleView;
+import com.melnyk.profitsoft_2.util.PrefixIndex;
+import com.melnyk.profitsoft_2.util.PrefixIndex.Document;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * In-memory index of book titles and author names for suggestions while typing.
+ *
+ * <p>The index is built from the database when the application is ready. Books are matched by prefixes of words
+ * of their titles and author names, see {@link PrefixIndex}.</p>
+ *
+ * <p>Writes don't rebuild the index: changed and removed books are kept in a small map of changes that overrides
+ * the index, when it grows above {@value #COMPACTION_THRESHOLD} entries or 1/{@value #COMPACTION_DIVISOR} of the index
+ * the changes are merged into a new index in memory. The merge runs on a single background thread, writers only
+ * queue it. Changes are applied after the commit of the current transaction.</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookSuggestIndex {
+
+    private static final int COMPACTION_THRESHOLD = 1024;
+    private static final int COMPACTION_DIVISOR = 16;
+
+    private final BookRepository bookRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    // writers share it to apply changes, a merge takes it to replace the changes
+    private final ReadWriteLock changesLock = new ReentrantReadWriteLock();
+    private final AtomicBoolean compactionQueued = new AtomicBoolean();
+    private volatile State state = new State(PrefixIndex.EMPTY, new ConcurrentHashMap<>());
+    private ThreadPoolTaskExecutor compactionExecutor;
+
+    @PostConstruct
+    public void init() {
+        compactionExecutor = new ThreadPoolTaskExecutor();
+        compactionExecutor.setThreadNamePrefix("suggest-compaction-");
+        compactionExecutor.setCorePoolSize(1);
+        compactionExecutor.setMaxPoolSize(1);
+        compactionExecutor.setQueueCapacity(1);
+        compactionExecutor.initialize();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        compactionExecutor.shutdown();
+    }
+
+    /**
+     * Builds the index from all books in the database, changes made meanwhile are kept.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            long start = System.nanoTime();
+            PrefixIndex.Builder builder = PrefixIndex.builder();
+            TransactionTemplate readOnlyTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+            readOnlyTemplate.setReadOnly(true);
+            readOnlyTemplate.executeWithoutResult(status -> {
+                try (Stream<BookTitleView> books = bookRepository.streamAllTitleViews()) {
+                    books.forEach(book -> builder.add(toDocument(book)));
+                }
+            });
+            State built = new State(builder.build(), state.changes());
+            state = built;
+            log.info("Built book suggest index of {} books in {} ms",
+                built.index().size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Finds books whose title or author name has words starting with every word of the query.
+     *
+     * @param query typed text
+     * @param limit max count of found books
+     * @return found books, titles starting with the query and shorter titles first
+     */
+    public List<Document> suggest(String query, int limit) {
+        String[] words = PrefixIndex.words(query);
+        if (words.length == 0) {
+            return List.of();
+        }
+
+        State current = state;
+        Map<Long, Change> changes = current.changes();
+        List<Document> found = new ArrayList<>(current.index().search(words, limit, changes::containsKey));
+        for (Change change : changes.values()) {
+            if (change.document() != null && PrefixIndex.matches(change.document(), words)) {
+                found.add(change.document());
+            }
+        }
+        // a change applied during the search may be found in both
+        return found.stream()
+            .distinct()
+            .sorted(PrefixIndex.ranking(words))
+            .limit(limit)
+            .toList();
+    }
+
+    /**
+     * Adds or replaces the book.
+     */
+    public void put(BookDetailsDto book) {
+        Document document = toDocument(book.getId(), book.getTitle(), book.getAuthor());
+        afterCommit(() -> apply(List.of(new Change(book.getId(), document))));
+    }
+
+    /**
+     * Removes the book.
+     */
+    public void remove(Long bookId) {
+        afterCommit(() -> apply(List.of(new Change(bookId, null))));
+    }
+
+    /**
+     * Adds books inserted by an upload, their ids are selected by their keys.
+     *
+     * @param keys keys of the inserted books
+     */
+    public void putInserted(Collection<BookKey> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        Set<String> titles = keys.stream().map(BookKey::title).collect(Collectors.toSet());
+        Set<Long> authorIds = keys.stream().map(BookKey::authorId).collect(Collectors.toSet());
+        Set<BookKey> keySet = new HashSet<>(keys);
+        List<Change> inserted = bookRepository.findTitleViewsByTitlesAndAuthorIds(titles, authorIds).stream()
+            .filter(book -> keySet.contains(new BookKey(book.title(), book.authorId())))
+            .map(book -> new Change(book.id(), toDocument(book)))
+            .toList();
+        afterCommit(() -> apply(inserted));
+    }
+
+    /**
+     * Updates the author name of the author's books, it's called after the author is changed.
+     */
+    public void putAuthorBooks(Long authorId) {
+        afterCommit(() -> apply(bookRepository.findTitleViewsByAuthorId(authorId).stream()
+            .map(book -> new Change(book.id(), toDocument(book)))
+            .toList()));
+    }
+
+    /**
+     * Removes books of the author, it must be called before the author and the books are deleted.
+     */
+    public void removeAuthorBooks(Long authorId) {
+        List<Change> removed = bookRepository.findTitleViewsByAuthorId(authorId).stream()
+            .map(book -> new Change(book.id(), null))
+            .toList();
+        afterCommit(() -> apply(removed));
+    }
+
+    private void apply(List<Change> applied) {
+        State current;
+        changesLock.readLock().lock();
+        try {
+            current = state;
+            applied.forEach(change -> current.changes().put(change.bookId(), change));
+        } finally {
+            changesLock.readLock().unlock();
+        }
+        int threshold = Math.max(COMPACTION_THRESHOLD, current.index().size() / COMPACTION_DIVISOR);
+        if (current.changes().size() > threshold && compactionQueued.compareAndSet(false, true)) {
+            try {
+                compactionExecutor.execute(this::compact);
+            } catch (TaskRejectedException e) {
+                compactionQueued.set(false);
+            }
+        }
+    }
+
+    /**
+     * Merges the changes into a new index, changes applied meanwhile may queue the next merge.
+     */
+    private void compact() {
+        rebuildLock.lock();
+        try {
+            compactionQueued.set(false);
+            merge();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private void merge() {
+        State current = state;
+        Map<Long, Change> merged = Map.copyOf(current.changes());
+        PrefixIndex.Builder builder = PrefixIndex.builder();
+        current.index().forEach(document -> {
+            if (!merged.containsKey(document.id())) {
+                builder.add(document);
+            }
+        });
+        merged.values().stream()
+            .filter(change -> change.document() != null)
+            .forEach(change -> builder.add(change.document()));
+        PrefixIndex index = builder.build();
+
+        // the index and its changes are replaced at once, so a search never sees the new index with the old
+        // changes or vice versa; changes made during the merge are kept, including newer changes of merged books
+        changesLock.writeLock().lock();
+        try {
+            Map<Long, Change> changes = new ConcurrentHashMap<>(current.changes());
+            merged.forEach((id, change) -> changes.remove(id, change));
+            state = new State(index, changes);
+        } finally {
+            changesLock.writeLock().unlock();
+        }
+        log.debug("Merged {} changes into book suggest index of {} books", merged.size(), index.size());
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static Document toDocument(BookTitleView book) {
+        return new Document(book.id(), book.title(), book.authorFirstName() + " " + book.authorLastName());
+    }
+
+    private static Document toDocument(Long id, String title, AuthorInfoDto author) {
+        return new Document(id, title, author.getFirstName() + " " + author.getLastName());
+    }
+
+    /**
+     * Changed book, {@code document} is {@code null} if the book is removed.
+     */
+    private record Change(Long bookId, Document document) { }
+
+    /**
+     * Built index and the changes overriding it.
+     */
+    private record State(PrefixIndex index, Map<Long, Change> changes) { }
+
+}
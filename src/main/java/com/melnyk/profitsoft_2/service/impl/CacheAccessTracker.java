@@ -0,0 +1,106 @@
+package com.melnyk.profitsoft_2.service.impl;
+
+import com.melnyk.profitsoft_2.config.CacheConfig;
+import com.melnyk.profitsoft_2.config.props.CacheProps;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the order of the last accesses of entries of the book and author caches, by which {@link CacheWarmer}
+ * picks the hot keys for the next startup.
+ *
+ * <p>Services report hits and loads of entries. JCache doesn't expose access times and iterating a cache
+ * counts as an access of every entry, so each access takes the next number of a counter of the region here.
+ * At most twice the count of hot keys of a region are kept, above it the least recently accessed keys
+ * are dropped.</p>
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheAccessTracker {
+
+    private final CacheProps cacheProps;
+
+    private final Map<String, Region> regions = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        CacheProps.Warmup props = cacheProps.getWarmup();
+        if (!props.isEnabled()) {
+            return;
+        }
+        track(CacheConfig.BOOK_CACHE_NAME, props.getMaxBooks());
+        track(CacheConfig.AUTHOR_CACHE_NAME, props.getMaxAuthors());
+    }
+
+    /**
+     * Remembers that the entry was read from the cache or loaded into it.
+     */
+    public void onAccess(String cacheName, Object key) {
+        Region region = regions.get(cacheName);
+        if (region != null) {
+            region.accessed(key);
+        }
+    }
+
+    /**
+     * Returns the most recently accessed keys of the cache, the most recent first.
+     *
+     * @param limit max count of returned keys
+     */
+    public List<Object> getRecentKeys(String cacheName, int limit) {
+        Region region = regions.get(cacheName);
+        if (region == null) {
+            return List.of();
+        }
+        return region.lastAccesses.entrySet().stream()
+            .sorted(Map.Entry.<Object, Long>comparingByValue(Comparator.reverseOrder()))
+            .limit(limit)
+            .map(Map.Entry::getKey)
+            .toList();
+    }
+
+    private void track(String cacheName, int maxKeys) {
+        if (maxKeys > 0) {
+            regions.put(cacheName, new Region(maxKeys));
+        }
+    }
+
+    /**
+     * Numbers of the last accesses of entries of a tracked region.
+     */
+    private static final class Region {
+
+        final int maxKeys;
+        final AtomicLong accessCount = new AtomicLong();
+        final Map<Object, Long> lastAccesses = new ConcurrentHashMap<>();
+
+        Region(int maxKeys) {
+            this.maxKeys = maxKeys;
+        }
+
+        void accessed(Object key) {
+            lastAccesses.put(key, accessCount.incrementAndGet());
+            if (lastAccesses.size() > 2 * maxKeys) {
+                prune();
+            }
+        }
+
+        synchronized void prune() {
+            if (lastAccesses.size() <= 2 * maxKeys) {
+                return;
+            }
+            List<Long> accesses = lastAccesses.values().stream().sorted(Comparator.reverseOrder()).toList();
+            long oldestKept = accesses.get(maxKeys - 1);
+            lastAccesses.values().removeIf(access -> access < oldestKept);
+        }
+
+    }
+
+}
@@ -0,0 +1,37 @@
+package com.melnyk.profitsoft_2.service.impl;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times loads of missed cache entries from the database as the {@code cache.loads} timer tagged by cache name.
+ * Hits, misses and evictions are counted by the caches themselves.
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheLoadMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    /**
+     * Records a load of an entry of the cache.
+     *
+     * @param nanos time of the load
+     */
+    public void recordLoad(String cacheName, long nanos) {
+        timers.computeIfAbsent(cacheName, name -> Timer.builder("cache.loads")
+                .description("Time of loading a missed cache entry")
+                .tag("cache", name)
+                .register(meterRegistry))
+            .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+}
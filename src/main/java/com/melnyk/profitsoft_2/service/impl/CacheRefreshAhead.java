@@ -0,0 +1,147 @@
+package com.melnyk.profitsoft_2.service.impl;
+
+import com.melnyk.profitsoft_2.config.props.CacheProps;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reloads cache entries in the background before they expire, for regions with
+ * {@link CacheProps.Region#getRefreshAfter()}.
+ *
+ * <p>Services report loads and hits of entries. Load times are kept here, as JCache doesn't expose the age
+ * of an entry; an entry put by other code, e.g. after an update, is aged from its first hit. A hit of an entry
+ * older than {@code refresh-after} queues its reload, the entry is still returned, so a hot entry is replaced
+ * while it's fresh and its readers never miss. An entry is reloaded by one thread at a time, a failed reload
+ * is logged and the entry expires as usual.</p>
+ *
+ * <p>Load times older than the TTL of the region belong to expired entries, they are dropped when the count
+ * of kept times doubles.</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CacheRefreshAhead {
+
+    private static final int MIN_PRUNE_THRESHOLD = 1024;
+
+    private final CacheProps cacheProps;
+
+    private final Map<String, Region> regions = new ConcurrentHashMap<>();
+    private ThreadPoolTaskExecutor refreshExecutor;
+
+    @PostConstruct
+    public void init() {
+        cacheProps.getRegions().forEach((cacheName, props) -> {
+            Duration refreshAfter = props.getRefreshAfter();
+            if (refreshAfter == null) {
+                return;
+            }
+            if (refreshAfter.compareTo(props.getTimeToLive()) >= 0) {
+                throw new IllegalStateException("Cache %s is refreshed after %s, it must be less than its TTL %s"
+                    .formatted(cacheName, refreshAfter, props.getTimeToLive()));
+            }
+            regions.put(cacheName, new Region(refreshAfter.toNanos(), props.getTimeToLive().toNanos()));
+        });
+
+        CacheProps.Refresh refreshProps = cacheProps.getRefresh();
+        refreshExecutor = new ThreadPoolTaskExecutor();
+        refreshExecutor.setThreadNamePrefix("cache-refresh-");
+        refreshExecutor.setCorePoolSize(refreshProps.getPoolSize());
+        refreshExecutor.setMaxPoolSize(refreshProps.getPoolSize());
+        refreshExecutor.setQueueCapacity(refreshProps.getQueueCapacity());
+        refreshExecutor.setWaitForTasksToCompleteOnShutdown(false);
+        refreshExecutor.initialize();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        refreshExecutor.shutdown();
+    }
+
+    /**
+     * Remembers that the entry was loaded and put into the cache now.
+     */
+    public void onLoad(String cacheName, Object key) {
+        Region region = regions.get(cacheName);
+        if (region != null) {
+            region.loaded(key, System.nanoTime());
+        }
+    }
+
+    /**
+     * Queues the reload of the entry read from the cache if it's older than {@code refresh-after} of the region.
+     *
+     * @param reload loads the entry and puts it into the cache, it's expected to report the load
+     */
+    public void onHit(String cacheName, Object key, Runnable reload) {
+        Region region = regions.get(cacheName);
+        if (region == null) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        Long loadedAt = region.loadTimes.putIfAbsent(key, now);
+        if (loadedAt == null || now - loadedAt < region.refreshAfterNanos || !region.refreshing.add(key)) {
+            return;
+        }
+
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    reload.run();
+                } catch (RuntimeException e) {
+                    region.loadTimes.remove(key);
+                    log.debug("Failed to refresh entry {} of cache {}", key, cacheName, e);
+                } finally {
+                    region.refreshing.remove(key);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            region.refreshing.remove(key);
+        }
+    }
+
+    /**
+     * Load times of entries of a refreshed region.
+     */
+    private static final class Region {
+
+        final long refreshAfterNanos;
+        final long timeToLiveNanos;
+        final Map<Object, Long> loadTimes = new ConcurrentHashMap<>();
+        final Set<Object> refreshing = ConcurrentHashMap.newKeySet();
+        volatile int pruneThreshold = MIN_PRUNE_THRESHOLD;
+
+        Region(long refreshAfterNanos, long timeToLiveNanos) {
+            this.refreshAfterNanos = refreshAfterNanos;
+            this.timeToLiveNanos = timeToLiveNanos;
+        }
+
+        void loaded(Object key, long now) {
+            loadTimes.put(key, now);
+            if (loadTimes.size() > pruneThreshold) {
+                prune(now);
+            }
+        }
+
+        synchronized void prune(long now) {
+            if (loadTimes.size() <= pruneThreshold) {
+                return;
+            }
+            loadTimes.values().removeIf(loadedAt -> now - loadedAt >= timeToLiveNanos);
+            pruneThreshold = Math.max(MIN_PRUNE_THRESHOLD, 2 * loadTimes.size());
+        }
+
+    }
+
+}
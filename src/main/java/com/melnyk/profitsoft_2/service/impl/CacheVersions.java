@@ -0,0 +1,97 @@
+package com.melnyk.profitsoft_2.service.impl;
+
+import org.springframework.cache.Cache;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Versions of entries of entity caches, so an entry loaded from the database doesn't replace a newer one.
+ *
+ * <p>A load, e.g. a refresh ahead of expiry, may read a row before an update commits and put it after the update
+ * has put the new value. Writers change entries by {@link #put} and {@link #evict}, which bump the version of the key
+ * first. A loader takes the version by {@link #get} before it reads the database and puts the loaded entry by
+ * {@link #putIfUnchanged}: as in {@link BookSearchCache}, the version is checked again after the put and the entry
+ * is evicted if a write started meanwhile, so either the newer entry or no entry is cached.</p>
+ *
+ * <p>Versions are counters in a fixed array of each cache by hash of the key, a key sharing a counter with
+ * a changed one only misses a put.</p>
+ */
+@Component
+public class CacheVersions {
+
+    private static final int STRIPES = 4096;
+
+    private final Map<String, AtomicLongArray> versions = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the version of the entry, it's taken before the entry is read from the database.
+     */
+    public long get(Cache cache, Object key) {
+        return stripes(cache).get(stripe(key));
+    }
+
+    /**
+     * Puts the changed entry, loads of the entry started before aren't cached.
+     */
+    public void put(Cache cache, Object key, Object value) {
+        stripes(cache).incrementAndGet(stripe(key));
+        cache.put(key, value);
+    }
+
+    /**
+     * Evicts the removed entry, loads of the entry started before aren't cached. The eviction is repeated
+     * after the commit of the current transaction, so a row read before the commit isn't cached either.
+     */
+    public void evict(Cache cache, Object key) {
+        evictNow(cache, key);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictNow(cache, key);
+                }
+            });
+        }
+    }
+
+    /**
+     * Puts the loaded entry if it wasn't changed since {@link #get}.
+     *
+     * @param version version of the entry taken before the load
+     * @return {@code true} if the entry is cached
+     */
+    public boolean putIfUnchanged(Cache cache, Object key, Object value, long version) {
+        AtomicLongArray stripes = stripes(cache);
+        int stripe = stripe(key);
+        if (stripes.get(stripe) != version) {
+            return false;
+        }
+        cache.put(key, value);
+        // a write which started after the check may have been overwritten
+        if (stripes.get(stripe) != version) {
+            cache.evictIfPresent(key);
+            return false;
+        }
+        return true;
+    }
+
+    private void evictNow(Cache cache, Object key) {
+        stripes(cache).incrementAndGet(stripe(key));
+        cache.evictIfPresent(key);
+    }
+
+    private AtomicLongArray stripes(Cache cache) {
+        return versions.computeIfAbsent(cache.getName(), name -> new AtomicLongArray(STRIPES));
+    }
+
+    private static int stripe(Object key) {
+        int hash = key.hashCode();
+        return (hash ^ hash >>> 16) & (STRIPES - 1);
+    }
+
+}
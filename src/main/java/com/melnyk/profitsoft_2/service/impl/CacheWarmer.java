@@ -0,0 +1,158 @@
+package com.melnyk.profitsoft_2.service.impl;
+
+import com.melnyk.profitsoft_2.config.CacheConfig;
+import com.melnyk.profitsoft_2.config.props.CacheProps;
+import com.melnyk.profitsoft_2.service.AuthorService;
+import com.melnyk.profitsoft_2.service.BookService;
+import com.melnyk.profitsoft_2.service.GenreService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.health.contributor.Health;
+import org.springframework.boot.health.contributor.HealthIndicator;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+
+/**
+ * Loads hot entries into caches at startup, so the first requests after a deploy don't miss the caches one by one.
+ *
+ * <p>All genres are loaded, authors and books are loaded by ids from {@link CacheProps.Warmup#getHotKeysFile()}:
+ * when the context is closed the ids of authors and books accessed most recently on the node, as tracked by
+ * {@link CacheAccessTracker}, are written there before beans are stopped. Ids are loaded in batches
+ * of {@link CacheProps.Warmup#getBatchSize()}, a query for each batch.</p>
+ *
+ * <p>Runners are called before the application is ready, so readiness probes fail until the caches are loaded.
+ * The health indicator is {@code OUT_OF_SERVICE} meanwhile and shows counts of loaded entries after that.
+ * A failed warm-up is logged and doesn't stop the application, the caches are filled by requests then.</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CacheWarmer implements ApplicationRunner, HealthIndicator {
+
+    private final CacheProps cacheProps;
+    private final GenreService genreService;
+    private final AuthorService authorService;
+    private final BookService bookService;
+    private final CacheAccessTracker cacheAccessTracker;
+    private final ObjectMapper objectMapper;
+
+    private volatile Health health = Health.outOfService().build();
+
+    @Override
+    public void run(ApplicationArguments args) {
+        CacheProps.Warmup props = cacheProps.getWarmup();
+        if (!props.isEnabled()) {
+            health = Health.up().withDetail("enabled", false).build();
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            HotKeys hotKeys = readHotKeys(props.getHotKeysFile());
+            int genres = genreService.cacheAll();
+            int authors = loadInBatches(hotKeys.authorIds(), props.getBatchSize(),
+                ids -> authorService.findAllByIds(ids).size());
+            int books = loadInBatches(hotKeys.bookIds(), props.getBatchSize(), bookService::cacheAllByIds);
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            log.info("Warmed up caches with {} genres, {} authors and {} books in {} ms", genres, authors, books, millis);
+            health = Health.up()
+                .withDetail("genres", genres)
+                .withDetail("authors", authors)
+                .withDetail("books", books)
+                .withDetail("durationMs", millis)
+                .build();
+        } catch (RuntimeException e) {
+            log.warn("Failed to warm up caches", e);
+            health = Health.up().withDetail("error", e.getMessage()).build();
+        }
+    }
+
+    @Override
+    public Health health() {
+        return health;
+    }
+
+    /**
+     * Writes ids of cached authors and books into the hot keys file for the next startup.
+     */
+    @EventListener
+    public void saveHotKeys(ContextClosedEvent event) {
+        CacheProps.Warmup props = cacheProps.getWarmup();
+        // a child context, e.g. of a separate management port, is closed with the application too
+        if (!props.isEnabled() || event.getApplicationContext().getParent() != null) {
+            return;
+        }
+
+        HotKeys hotKeys = new HotKeys(
+            recentIds(CacheConfig.BOOK_CACHE_NAME, props.getMaxBooks()),
+            recentIds(CacheConfig.AUTHOR_CACHE_NAME, props.getMaxAuthors())
+        );
+        Path file = props.getHotKeysFile();
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            objectMapper.writeValue(file.toFile(), hotKeys);
+            log.info("Saved {} hot book ids and {} hot author ids to {}",
+                hotKeys.bookIds().size(), hotKeys.authorIds().size(), file);
+        } catch (IOException | JacksonException e) {
+            log.warn("Failed to save hot keys to {}", file, e);
+        }
+    }
+
+    private HotKeys readHotKeys(Path file) {
+        if (!Files.isRegularFile(file)) {
+            log.info("Hot keys file {} doesn't exist, only genres are warmed up", file);
+            return HotKeys.EMPTY;
+        }
+        try {
+            HotKeys hotKeys = objectMapper.readValue(file.toFile(), HotKeys.class);
+            return new HotKeys(
+                hotKeys.bookIds() != null ? hotKeys.bookIds() : List.of(),
+                hotKeys.authorIds() != null ? hotKeys.authorIds() : List.of()
+            );
+        } catch (JacksonException e) {
+            log.warn("Failed to read hot keys from {}, only genres are warmed up", file, e);
+            return HotKeys.EMPTY;
+        }
+    }
+
+    private static int loadInBatches(List<Long> ids, int batchSize, ToIntFunction<List<Long>> loader) {
+        int loaded = 0;
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            loaded += loader.applyAsInt(ids.subList(from, Math.min(from + batchSize, ids.size())));
+        }
+        return loaded;
+    }
+
+    /**
+     * Returns at most {@code limit} ids of the most recently accessed entries of the cache.
+     */
+    private List<Long> recentIds(String cacheName, int limit) {
+        return cacheAccessTracker.getRecentKeys(cacheName, limit).stream()
+            .filter(Long.class::isInstance)
+            .map(Long.class::cast)
+            .toList();
+    }
+
+    /**
+     * Content of the hot keys file.
+     */
+    record HotKeys(List<Long> bookIds, List<Long> authorIds) {
+
+        static final HotKeys EMPTY = new HotKeys(List.of(), List.of());
+
+    }
+
+}
@@ -4,6 +4,7 @@ import com.melnyk.profitsoft_2.config.CacheConfig;
 import com.melnyk.profitsoft_2.config.aspect.LogServiceMethod;
 import com.melnyk.profitsoft_2.config.props.PaginationProps;
 import com.melnyk.profitsoft_2.dto.request.GenreRequestDto;
+import com.melnyk.profitsoft_2.dto.request.filter.CountMode;
 import com.melnyk.profitsoft_2.dto.request.filter.impl.GenreFilter;
 import com.melnyk.profitsoft_2.dto.response.GenreDetailsDto;
 import com.melnyk.profitsoft_2.dto.response.GenreInfoDto;
@@ -13,8 +14,14 @@ import com.melnyk.profitsoft_2.exception.ResourceAlreadyExistsException;
 import com.melnyk.profitsoft_2.exception.ResourceNotFoundException;
 import com.melnyk.profitsoft_2.mapper.GenreMapper;
 import com.melnyk.profitsoft_2.repository.GenreRepository;
+import com.melnyk.profitsoft_2.repository.KeysetQueryExecutor;
+import com.melnyk.profitsoft_2.repository.KeysetQueryExecutor.KeysetSlice;
 import com.melnyk.profitsoft_2.service.GenreService;
+import com.melnyk.profitsoft_2.service.GenreSnapshot;
+import com.melnyk.profitsoft_2.service.SearchCountService;
+import com.melnyk.profitsoft_2.util.FilterUtil;
 import com.melnyk.profitsoft_2.util.PageUtil;
+import com.melnyk.profitsoft_2.util.SingleFlight;
 import com.melnyk.profitsoft_2.util.SpecificationFactory;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -22,6 +29,8 @@ import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -36,10 +45,18 @@ import java.util.stream.Collectors;
 public class GenreServiceImpl implements GenreService {
 
     private final GenreRepository genreRepository;
+    private final KeysetQueryExecutor keysetQueryExecutor;
+    private final SearchCountService searchCountService;
+    private final BookSearchCache bookSearchCache;
     private final GenreMapper genreMapper;
     private final TransactionTemplate transactionTemplate;
     private final PaginationProps paginationProps;
     private final CacheManager cacheManager;
+    private final CacheRefreshAhead cacheRefreshAhead;
+    private final CacheLoadMetrics cacheLoadMetrics;
+    private final CacheVersions cacheVersions;
+
+    private final SingleFlight<Long, GenreSnapshot> snapshotLoads = new SingleFlight<>();
 
     @Override
     @LogServiceMethod(logArgs = true)
@@ -48,11 +65,10 @@ public class GenreServiceImpl implements GenreService {
         return genreMapper.toDetailsDto(created);
     }
 
-    @Transactional(readOnly = true)
     @Override
     @LogServiceMethod(logArgs = true)
     public GenreDetailsDto getById(Long id) throws ResourceNotFoundException {
-        GenreDetailsDto genreDetailsDto = genreMapper.toDetailsDto(getByIdOrThrow(id));
+        GenreDetailsDto genreDetailsDto = genreMapper.toDetailsDto(getSnapshotOrThrow(id));
         return genreDetailsDto;
     }
 
@@ -62,15 +78,48 @@ public class GenreServiceImpl implements GenreService {
     public PageDto<GenreInfoDto> search(GenreFilter filter) {
         Pageable pageable = PageUtil.pageableFrom(filter, paginationProps);
         Specification<Genre> spec = SpecificationFactory.createForGenre(filter);
+        if (filter.cursor() != null) {
+            KeysetSlice<Genre> slice = keysetQueryExecutor.findSlice(
+                Genre.class, spec, pageable.getSort(), pageable.getPageSize(), filter.cursor());
+            List<GenreInfoDto> content = slice.content().stream().map(genreMapper::toInfoDto).toList();
+            return new PageDto<>(content, pageable.getPageSize(), slice.nextCursor());
+        }
+
+        if (filter.count() != null && filter.count() != CountMode.EXACT) {
+            Slice<Genre> slice = searchCountService.findSlice(Genre.class, genreRepository, spec, pageable, filter);
+            return new PageDto<>(slice.map(genreMapper::toInfoDto));
+        }
+
         Page<Genre> genres = genreRepository.findAll(spec, pageable);
         return new PageDto<>(genres.map(genreMapper::toInfoDto));
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    @LogServiceMethod(logArgs = true)
+    public List<GenreInfoDto> autocomplete(String query, int limit) {
+        String normalizedQuery = FilterUtil.normalize(query != null ? query.trim() : null);
+        if (normalizedQuery == null) {
+            return List.of();
+        }
+        return genreRepository.findMostSimilar(normalizedQuery, FilterUtil.toContainsPattern(normalizedQuery), limit)
+            .stream()
+            .map(genreMapper::toInfoDto)
+            .toList();
+    }
+
     @Override
     @LogServiceMethod(logArgs = true)
     public GenreDetailsDto updateById(Long id, GenreRequestDto body)
         throws ResourceNotFoundException, ResourceAlreadyExistsException {
         Genre updated = update(id, body);
+        // cached after the commit, when the update time is set
+        getCache().ifPresent(cache -> {
+            GenreSnapshot genre = GenreSnapshot.of(updated);
+            cacheVersions.put(cache, id, genre);
+            cacheVersions.put(cache, genre.name(), genre);
+        });
+        bookSearchCache.evictGenre(id);
         return genreMapper.toDetailsDto(updated);
     }
 
@@ -78,29 +127,46 @@ public class GenreServiceImpl implements GenreService {
     @Override
     @LogServiceMethod(logArgs = true)
     public void deleteById(Long id) throws ResourceNotFoundException {
-        Genre genre = getByIdOrThrow(id);
+        GenreSnapshot genre = getSnapshotOrThrow(id);
         genreRepository.deleteById(id);
         getCache().ifPresent(cache -> {
-            cache.evictIfPresent(id);
-            cache.evictIfPresent(genre.getName());
+            cacheVersions.evict(cache, id);
+            cacheVersions.evict(cache, genre.name());
         });
+        bookSearchCache.evictGenre(id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @LogServiceMethod(logArgs = true)
+    public List<GenreSnapshot> getAllByIds(Collection<Long> ids) {
+        List<GenreSnapshot> genres = findAllByIds(ids);
+
+        Set<Long> foundIds = genres.stream().map(GenreSnapshot::id).collect(Collectors.toSet());
+        for (Long id : ids) {
+            if (!foundIds.contains(id)) {
+                throw new ResourceNotFoundException("Genre %d not found".formatted(id), id, "Genre");
+            }
+        }
+
+        return genres;
     }
 
     @Override
     @Transactional(readOnly = true)
     @LogServiceMethod(logArgs = true)
-    public List<Genre> getAllByIds(Collection<Long> ids) {
+    public List<GenreSnapshot> findAllByIds(Collection<Long> ids) {
         if (ids.isEmpty()) {
             return List.of();
         }
 
-        Map<Long, Genre> genreMap = new LinkedHashMap<>();
+        Map<Long, GenreSnapshot> genreMap = new LinkedHashMap<>();
         List<Long> missingIds = new ArrayList<>();
 
         Cache cache = getCache().orElse(null);
 
         for (Long id : ids) {
-            Genre genre = (cache != null) ? cache.get(id, Genre.class) : null;
+            GenreSnapshot genre = (cache != null) ? cache.get(id, GenreSnapshot.class) : null;
 
             if (genre == null) {
                 missingIds.add(id);
@@ -110,41 +176,70 @@ public class GenreServiceImpl implements GenreService {
         }
 
         if (!missingIds.isEmpty()) {
-            List<Genre> foundGenres = genreRepository.findAllById(missingIds);
-
-            Map<Long, Genre> foundMap = foundGenres.stream()
-                .collect(Collectors.toMap(Genre::getId, g -> g));
-
-            for (Long id : missingIds) {
-                Genre genre = foundMap.get(id);
+            Map<Long, Long> versions = new HashMap<>();
+            if (cache != null) {
+                missingIds.forEach(id -> versions.put(id, cacheVersions.get(cache, id)));
+            }
 
-                if (genre == null) {
-                    throw new ResourceNotFoundException("Genre %d not found".formatted(id), id, "Genre");
-                }
+            List<Genre> foundGenres = genreRepository.findAllById(missingIds);
 
-                genreMap.put(id, genre);
+            for (Genre found : foundGenres) {
+                GenreSnapshot genre = GenreSnapshot.of(found);
+                genreMap.put(genre.id(), genre);
 
                 if (cache != null) {
-                    cache.put(id, genre);
+                    cacheVersions.putIfUnchanged(cache, genre.id(), genre, versions.get(genre.id()));
                 }
             }
         }
 
+        genreMap.values().removeIf(Objects::isNull);
         return new ArrayList<>(genreMap.values());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    @LogServiceMethod
+    public List<Genre> getAll() {
+        return genreRepository.findAll(Sort.by("name"));
+    }
+
+    @Override
     @Transactional(readOnly = true)
+    @LogServiceMethod
+    public int cacheAll() {
+        Cache cache = getCache().orElse(null);
+        if (cache == null) {
+            return 0;
+        }
+        List<Genre> genres = genreRepository.findAll();
+        for (Genre found : genres) {
+            GenreSnapshot genre = GenreSnapshot.of(found);
+            cache.put(genre.id(), genre);
+            cache.put(genre.name(), genre);
+        }
+        return genres.size();
+    }
+
+    @Override
+    public List<Genre> getReferences(Collection<Long> ids) {
+        return ids.stream().map(genreRepository::getReferenceById).toList();
+    }
+
+    /**
+     * Concurrent misses of a genre wait for one load, so the method isn't transactional: a waiting
+     * request doesn't hold a connection.
+     */
+    @Override
     @LogServiceMethod(logArgs = true)
-    public Genre getByIdOrThrow(Long id) throws ResourceNotFoundException {
-        Optional<Cache> cacheOpt = getCache();
-        return cacheOpt
-            .map(cache -> cache.get(id, Genre.class))
-            .or(() -> {
-                Optional<Genre> opt = genreRepository.findById(id);
-                opt.ifPresent(g -> cacheOpt.ifPresent(cache -> cache.put(id, g)));
-                return opt;
+    public GenreSnapshot getSnapshotOrThrow(Long id) throws ResourceNotFoundException {
+        return getCache()
+            .map(cache -> cache.get(id, GenreSnapshot.class))
+            .map(genre -> {
+                cacheRefreshAhead.onHit(CacheConfig.GENRE_CACHE_NAME, id, () -> loadSnapshot(id));
+                return genre;
             })
-            .orElseThrow(() -> new ResourceNotFoundException("Genre %d not found".formatted(id), id, "Genre"));
+            .orElseGet(() -> loadSnapshot(id));
     }
 
     private Genre createGenre(GenreRequestDto body) {
@@ -154,27 +249,28 @@ public class GenreServiceImpl implements GenreService {
             return genreRepository.save(genre);
         });
 
-        getCache().ifPresent(cache -> cache.put(created.getId(), created));
+        getCache().ifPresent(cache -> cacheVersions.put(cache, created.getId(), GenreSnapshot.of(created)));
 
         return created;
     }
 
     private Genre update(Long id, GenreRequestDto body) {
         return transactionTemplate.execute(status -> {
-            Genre found = getByIdOrThrow(id);
+            Genre found = genreRepository.findById(id).orElseThrow(() -> notFound(id));
 
             boolean isUpdated = false;
 
             if (body.name() != null && !body.name().equals(found.getName())) {
                 checkNotExistsNameOrThrow(body.name());
+                String oldName = found.getName();
                 found.setName(body.name());
+                // the old name may be taken by a new genre after the commit
+                getCache().ifPresent(cache -> cacheVersions.evict(cache, oldName));
                 isUpdated = true;
             }
 
             if (isUpdated) {
-                Genre updated = genreRepository.save(found);
-                getCache().ifPresent(cache -> cache.put(id, updated));
-                return updated;
+                return genreRepository.save(found);
             }
             return found;
         });
@@ -183,26 +279,52 @@ public class GenreServiceImpl implements GenreService {
     @Transactional(readOnly = true)
     private void checkNotExistsNameOrThrow(String name) throws ResourceAlreadyExistsException {
         if (name == null) return;
-        Optional<Genre> opt = getByName(name);
+        Optional<GenreSnapshot> opt = getByName(name);
         if (opt.isPresent()) {
-            Genre genre = opt.get();
+            GenreSnapshot genre = opt.get();
             throw new ResourceAlreadyExistsException(
                 "Name already exists",
-                genre.getId(), "Genre", name);
+                genre.id(), "Genre", name);
         }
     }
 
-    private Optional<Genre> getByName(String name) {
+    private Optional<GenreSnapshot> getByName(String name) {
         Optional<Cache> cacheOpt = getCache();
         return cacheOpt
-            .map(cache -> cache.get(name, Genre.class))
+            .map(cache -> cache.get(name, GenreSnapshot.class))
             .or(() -> {
-                Optional<Genre> opt = genreRepository.findByName(name);
-                opt.ifPresent(g -> cacheOpt.ifPresent(cache -> cache.put(name, g)));
+                long version = cacheOpt.map(cache -> cacheVersions.get(cache, name)).orElse(0L);
+                Optional<GenreSnapshot> opt = genreRepository.findByName(name).map(GenreSnapshot::of);
+                opt.ifPresent(g -> cacheOpt.ifPresent(cache -> cacheVersions.putIfUnchanged(cache, name, g, version)));
                 return opt;
             });
     }
 
+    /**
+     * Loads the genre and puts it into the cache, concurrent loads of the genre wait for one of them.
+     * The genre isn't cached if it's changed during the load, see {@link CacheVersions}.
+     */
+    private GenreSnapshot loadSnapshot(Long id) {
+        return snapshotLoads.load(id, () -> {
+            Optional<Cache> cacheOpt = getCache();
+            long version = cacheOpt.map(cache -> cacheVersions.get(cache, id)).orElse(0L);
+            long start = System.nanoTime();
+            GenreSnapshot genre = genreRepository.findById(id).map(GenreSnapshot::of)
+                .orElseThrow(() -> notFound(id));
+            cacheOpt.ifPresent(cache -> {
+                cacheLoadMetrics.recordLoad(CacheConfig.GENRE_CACHE_NAME, System.nanoTime() - start);
+                if (cacheVersions.putIfUnchanged(cache, id, genre, version)) {
+                    cacheRefreshAhead.onLoad(CacheConfig.GENRE_CACHE_NAME, id);
+                }
+            });
+            return genre;
+        });
+    }
+
+    private static ResourceNotFoundException notFound(Long id) {
+        return new ResourceNotFoundException("Genre %d not found".formatted(id), id, "Genre");
+    }
+
     private Optional<Cache> getCache() {
         return Optional.ofNullable(cacheManager)
             .map(x -> x.getCache(CacheConfig.GENRE_CACHE_NAME));
@@ -0,0 +1,299 @@
+package com.melnyk.profitsoft_2.service.impl;
+
+import com.melnyk.profitsoft_2.config.aspect.LogServiceMethod;
+import com.melnyk.profitsoft_2.config.props.ReportProps;
+import com.melnyk.profitsoft_2.dto.request.filter.impl.BookFilter;
+import com.melnyk.profitsoft_2.dto.response.ReportJobDto;
+import com.melnyk.profitsoft_2.exception.ResourceException;
+import com.melnyk.profitsoft_2.exception.ResourceNotFoundException;
+import com.melnyk.profitsoft_2.service.BookService;
+import com.melnyk.profitsoft_2.service.ReportFormat;
+import com.melnyk.profitsoft_2.service.ReportJobService;
+import com.melnyk.profitsoft_2.service.ReportPartitioning;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ReportJobServiceImpl implements ReportJobService {
+
+    private static final String RESOURCE_NAME = "ReportJob";
+
+    private final BookService bookService;
+    private final ReportProps reportProps;
+
+    private final Map<UUID, ReportJob> jobs = new ConcurrentHashMap<>();
+    private ThreadPoolTaskExecutor executor;
+
+    @PostConstruct
+    public void init() throws IOException {
+        ReportProps.Jobs props = reportProps.getJobs();
+        Files.createDirectories(props.getSpoolDir());
+        deleteStaleFiles(props.getSpoolDir());
+
+        executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("report-job-");
+        executor.setCorePoolSize(props.getPoolSize());
+        executor.setMaxPoolSize(props.getPoolSize());
+        executor.setQueueCapacity(props.getQueueCapacity());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdown();
+        jobs.values().forEach(job -> {
+            job.cancel();
+            deleteFile(job.file);
+        });
+    }
+
+    @Override
+    @LogServiceMethod(logArgs = true)
+    public ReportJobDto submit(BookFilter filter, ReportFormat format, ReportPartitioning partitioning) {
+        if (partitioning != ReportPartitioning.NONE && format != ReportFormat.EXCEL) {
+            throw new IllegalArgumentException("Only Excel report can be split into sheets");
+        }
+
+        UUID id = UUID.randomUUID();
+        Path file = reportProps.getJobs().getSpoolDir().resolve(id + "." + format.getExtension());
+        ReportJob job = new ReportJob(id, filter, format, partitioning, file);
+
+        jobs.put(id, job);
+        try {
+            job.future = executor.submit(() -> run(job));
+        } catch (RuntimeException e) {
+            jobs.remove(id);
+            throw e;
+        }
+        return job.toDto();
+    }
+
+    @Override
+    @LogServiceMethod(logArgs = true)
+    public ReportJobDto getById(UUID id) throws ResourceNotFoundException {
+        return getJobOrThrow(id).toDto();
+    }
+
+    @Override
+    @LogServiceMethod(logArgs = true)
+    public void download(UUID id, HttpServletResponse response) throws ResourceException, IOException {
+        ReportJob job = getJobOrThrow(id);
+        if (job.status != ReportJobDto.Status.COMPLETED) {
+            throw new ResourceException("Report job %s is not completed".formatted(id), id, RESOURCE_NAME);
+        }
+
+        // the file may be deleted by a cleanup or a deletion of the job, an open file is still read completely
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(job.file, StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            throw new ResourceNotFoundException("Report job %s not found".formatted(id), id, RESOURCE_NAME);
+        }
+
+        try (channel; InputStream in = Channels.newInputStream(channel)) {
+            String contentDispositionFormat = "attachment; filename=%s";
+            response.setContentType(job.format.getContentType().toString());
+            response.setHeader(
+                HttpHeaders.CONTENT_DISPOSITION, contentDispositionFormat.formatted("report-" + job.file.getFileName()));
+            response.setContentLengthLong(channel.size());
+
+            OutputStream out = response.getOutputStream();
+            in.transferTo(out);
+            out.flush();
+        }
+    }
+
+    @Override
+    @LogServiceMethod(logArgs = true)
+    public void deleteById(UUID id) throws ResourceNotFoundException {
+        ReportJob job = getJobOrThrow(id);
+        jobs.remove(id);
+        job.cancel();
+        deleteFile(job.file);
+    }
+
+    /**
+     * Removes finished jobs that are older than the retention period or exceed the max count of retained jobs.
+     */
+    @Scheduled(fixedDelayString = "${report.jobs.cleanup-interval:PT1M}")
+    public void removeExpiredJobs() {
+        ReportProps.Jobs props = reportProps.getJobs();
+        Instant expiredBefore = Instant.now().minus(props.getRetention());
+
+        List<ReportJob> finished = jobs.values().stream()
+            .filter(ReportJob::isFinished)
+            .sorted(Comparator.comparing((ReportJob job) -> job.finishedAt).reversed())
+            .toList();
+
+        for (int i = 0; i < finished.size(); i++) {
+            ReportJob job = finished.get(i);
+            if (i >= props.getMaxRetained() || job.finishedAt.isBefore(expiredBefore)) {
+                log.debug("Removing expired report job {}", job.id);
+                jobs.remove(job.id);
+                deleteFile(job.file);
+            }
+        }
+    }
+
+    private void run(ReportJob job) {
+        if (!job.start()) {
+            return;
+        }
+
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(job.file))) {
+            bookService.writeReport(job.filter, job.format, job.partitioning, out, rows -> {
+                if (job.status == ReportJobDto.Status.CANCELLED || Thread.currentThread().isInterrupted()) {
+                    throw new CancellationException("Report job %s cancelled".formatted(job.id));
+                }
+                job.rowsWritten.addAndGet(rows);
+            });
+        } catch (CancellationException e) {
+            log.info("Report job {} cancelled", job.id);
+            deleteFile(job.file);
+            return;
+        } catch (Exception e) {
+            log.error("Report job {} failed", job.id, e);
+            job.fail(e.getMessage());
+            deleteFile(job.file);
+            return;
+        }
+
+        if (!job.complete()) {
+            deleteFile(job.file);
+        }
+    }
+
+    private ReportJob getJobOrThrow(UUID id) throws ResourceNotFoundException {
+        ReportJob job = jobs.get(id);
+        if (job == null) {
+            throw new ResourceNotFoundException("Report job %s not found".formatted(id), id, RESOURCE_NAME);
+        }
+        return job;
+    }
+
+    private void deleteStaleFiles(Path dir) throws IOException {
+        try (var files = Files.list(dir)) {
+            files.filter(this::isReportFile).forEach(this::deleteFile);
+        }
+    }
+
+    private boolean isReportFile(Path path) {
+        String fileName = path.getFileName().toString();
+        for (ReportFormat format : ReportFormat.values()) {
+            if (fileName.endsWith("." + format.getExtension())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void deleteFile(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Cannot delete report file {}", file, e);
+        }
+    }
+
+    /**
+     * Mutable state of a report job. Status transitions are synchronized, so a cancelled job
+     * can't become completed or failed and vice versa.
+     */
+    private static final class ReportJob {
+
+        private final UUID id;
+        private final BookFilter filter;
+        private final ReportFormat format;
+        private final ReportPartitioning partitioning;
+        private final Path file;
+        private final Instant createdAt = Instant.now();
+        private final AtomicLong rowsWritten = new AtomicLong();
+
+        private volatile ReportJobDto.Status status = ReportJobDto.Status.QUEUED;
+        private volatile Instant startedAt;
+        private volatile Instant finishedAt;
+        private volatile String error;
+        private volatile Future<?> future;
+
+        private ReportJob(UUID id, BookFilter filter, ReportFormat format, ReportPartitioning partitioning, Path file) {
+            this.id = id;
+            this.filter = filter;
+            this.format = format;
+            this.partitioning = partitioning;
+            this.file = file;
+        }
+
+        synchronized boolean start() {
+            if (status != ReportJobDto.Status.QUEUED) {
+                return false;
+            }
+            status = ReportJobDto.Status.RUNNING;
+            startedAt = Instant.now();
+            return true;
+        }
+
+        synchronized boolean complete() {
+            return finish(ReportJobDto.Status.COMPLETED, null);
+        }
+
+        synchronized void fail(String message) {
+            finish(ReportJobDto.Status.FAILED, message);
+        }
+
+        synchronized void cancel() {
+            if (finish(ReportJobDto.Status.CANCELLED, null) && future != null) {
+                future.cancel(true);
+            }
+        }
+
+        boolean isFinished() {
+            return finishedAt != null;
+        }
+
+        private boolean finish(ReportJobDto.Status newStatus, String message) {
+            if (status != ReportJobDto.Status.QUEUED && status != ReportJobDto.Status.RUNNING) {
+                return false;
+            }
+            status = newStatus;
+            error = message;
+            finishedAt = Instant.now();
+            return true;
+        }
+
+        ReportJobDto toDto() {
+            return new ReportJobDto(id, status, rowsWritten.get(), createdAt, startedAt, finishedAt, error);
+        }
+
+    }
+
+}
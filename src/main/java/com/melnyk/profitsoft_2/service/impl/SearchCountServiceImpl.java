@@ -0,0 +1,109 @@
+package com.melnyk.profitsoft_2.service.impl;
+
+import com.melnyk.profitsoft_2.config.CacheConfig;
+import com.melnyk.profitsoft_2.dto.request.filter.CountFilter;
+import com.melnyk.profitsoft_2.dto.request.filter.CountMode;
+import com.melnyk.profitsoft_2.repository.RowCountEstimator;
+import com.melnyk.profitsoft_2.service.SearchCountService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.OptionalLong;
+
+@Service
+@RequiredArgsConstructor
+public class SearchCountServiceImpl implements SearchCountService {
+
+    private final RowCountEstimator rowCountEstimator;
+    private final CacheManager cacheManager;
+
+    @Override
+    public <T> Slice<T> findSlice(
+        Class<T> type,
+        JpaSpecificationExecutor<T> repository,
+        Specification<T> spec,
+        Pageable pageable,
+        CountFilter filter
+    ) {
+        CountMode mode = filter.count() != null ? filter.count() : CountMode.EXACT;
+        if (mode == CountMode.EXACT) {
+            return repository.findAll(spec, pageable);
+        }
+
+        return withTotal(type, repository, spec, repository.findBy(spec, query -> query.slice(pageable)), filter);
+    }
+
+    @Override
+    public <T, R> Slice<R> withTotal(
+        Class<T> type,
+        JpaSpecificationExecutor<T> repository,
+        Specification<T> spec,
+        Slice<R> slice,
+        CountFilter filter
+    ) {
+        CountMode mode = filter.count() != null ? filter.count() : CountMode.EXACT;
+        if (mode == CountMode.NONE) {
+            return slice;
+        }
+
+        OptionalLong estimate = mode == CountMode.ESTIMATED && filter.selectsAll()
+            ? rowCountEstimator.estimate(type)
+            : OptionalLong.empty();
+        long total;
+        if (estimate.isPresent()) {
+            total = estimate.getAsLong();
+        } else if (mode == CountMode.EXACT) {
+            total = repository.count(spec);
+        } else {
+            total = getCachedCount(type, repository, spec, filter);
+        }
+
+        // an estimated or cached total may lag behind the rows, while the slice knows whether more follow
+        long read = slice.getPageable().getOffset() + slice.getNumberOfElements();
+        if (slice.hasNext()) {
+            total = Math.max(total, read + 1);
+        } else if (slice.hasContent()) {
+            total = read;
+        }
+        return new PageImpl<>(slice.getContent(), slice.getPageable(), total);
+    }
+
+    @Override
+    public void evictCount(Class<?> type, CountFilter filter) {
+        getCache().ifPresent(cache -> cache.evictIfPresent(new CountKey(type, filter.countKey())));
+    }
+
+    private <T> long getCachedCount(
+        Class<T> type,
+        JpaSpecificationExecutor<T> repository,
+        Specification<T> spec,
+        CountFilter filter
+    ) {
+        CountKey key = new CountKey(type, filter.countKey());
+        Optional<Cache> cacheOpt = getCache();
+        Long cached = cacheOpt.map(cache -> cache.get(key, Long.class)).orElse(null);
+        if (cached != null) {
+            return cached;
+        }
+
+        long count = repository.count(spec);
+        cacheOpt.ifPresent(cache -> cache.put(key, count));
+        return count;
+    }
+
+    private Optional<Cache> getCache() {
+        return Optional.ofNullable(cacheManager)
+            .map(x -> x.getCache(CacheConfig.SEARCH_COUNT_CACHE_NAME));
+    }
+
+    private record CountKey(Class<?> type, Object filter) { }
+
+}
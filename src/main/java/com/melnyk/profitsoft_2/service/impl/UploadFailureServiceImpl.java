@@ -0,0 +1,122 @@
+package com.melnyk.profitsoft_2.service.impl;
+
+import com.melnyk.profitsoft_2.config.aspect.LogServiceMethod;
+import com.melnyk.profitsoft_2.config.props.UploadProps;
+import com.melnyk.profitsoft_2.exception.ResourceNotFoundException;
+import com.melnyk.profitsoft_2.service.UploadFailureMode;
+import com.melnyk.profitsoft_2.service.UploadFailureService;
+import com.melnyk.profitsoft_2.service.UploadFailures;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.UUID;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class UploadFailureServiceImpl implements UploadFailureService {
+
+    private static final String RESOURCE_NAME = "UploadFailures";
+    private static final String FILE_EXTENSION = ".ndjson";
+
+    private final UploadProps uploadProps;
+    private final ObjectMapper objectMapper;
+
+    @PostConstruct
+    public void init() throws IOException {
+        Files.createDirectories(uploadProps.getFailures().getDir());
+    }
+
+    @Override
+    public UploadFailures open(UploadFailureMode mode) throws IOException {
+        if (mode == UploadFailureMode.ALL) {
+            return UploadFailures.inMemory();
+        }
+        return open(UUID.randomUUID(), 0);
+    }
+
+    @Override
+    public UploadFailures open(UUID fileId, long size) throws IOException {
+        FileChannel channel = FileChannel.open(getFile(fileId), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            channel.truncate(size);
+            channel.position(size);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+
+        OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel));
+        return new UploadFailures(uploadProps.getFailures().getInlineLimit(), fileId, out, size, objectMapper.writer());
+    }
+
+    @Override
+    @LogServiceMethod(logArgs = true)
+    public void download(UUID fileId, HttpServletResponse response) throws ResourceNotFoundException, IOException {
+        Path file = getFile(fileId);
+        if (!Files.exists(file)) {
+            throw new ResourceNotFoundException("Upload failures %s not found".formatted(fileId), fileId, RESOURCE_NAME);
+        }
+
+        String contentDispositionFormat = "attachment; filename=%s";
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, contentDispositionFormat.formatted("failures-" + file.getFileName()));
+        response.setContentLengthLong(Files.size(file));
+
+        OutputStream out = response.getOutputStream();
+        Files.copy(file, out);
+        out.flush();
+    }
+
+    /**
+     * Removes failure files that weren't modified during the retention period.
+     */
+    @Scheduled(fixedDelayString = "${upload.failures.cleanup-interval:PT10M}")
+    public void removeExpiredFiles() throws IOException {
+        FileTime expiredBefore = FileTime.from(Instant.now().minus(uploadProps.getFailures().getRetention()));
+        try (var files = Files.list(uploadProps.getFailures().getDir())) {
+            files.filter(file -> file.getFileName().toString().endsWith(FILE_EXTENSION))
+                .filter(file -> isModifiedBefore(file, expiredBefore))
+                .forEach(this::deleteFile);
+        }
+    }
+
+    private Path getFile(UUID fileId) {
+        return uploadProps.getFailures().getDir().resolve(fileId + FILE_EXTENSION);
+    }
+
+    private boolean isModifiedBefore(Path file, FileTime time) {
+        try {
+            return Files.getLastModifiedTime(file).compareTo(time) < 0;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private void deleteFile(Path file) {
+        try {
+            log.debug("Removing expired upload failures file {}", file);
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Cannot delete upload failures file {}", file, e);
+        }
+    }
+
+}
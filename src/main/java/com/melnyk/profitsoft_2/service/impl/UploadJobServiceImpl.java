@@ -0,0 +1,255 @@
+package com.melnyk.profitsoft_2.service.impl;
+
+import com.melnyk.profitsoft_2.config.aspect.LogServiceMethod;
+import com.melnyk.profitsoft_2.config.props.UploadProps;
+import com.melnyk.profitsoft_2.dto.response.UploadJobDto;
+import com.melnyk.profitsoft_2.entity.UploadJob;
+import com.melnyk.profitsoft_2.exception.ResourceNotFoundException;
+import com.melnyk.profitsoft_2.mapper.UploadJobMapper;
+import com.melnyk.profitsoft_2.repository.BookRepository;
+import com.melnyk.profitsoft_2.repository.UploadJobRepository;
+import com.melnyk.profitsoft_2.service.BookService;
+import com.melnyk.profitsoft_2.service.UploadFailureService;
+import com.melnyk.profitsoft_2.service.UploadFailures;
+import com.melnyk.profitsoft_2.service.UploadJobService;
+import com.melnyk.profitsoft_2.service.UploadMode;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class UploadJobServiceImpl implements UploadJobService {
+
+    private static final String RESOURCE_NAME = "UploadJob";
+
+    private final BookService bookService;
+    private final BookRepository bookRepository;
+    private final UploadJobRepository uploadJobRepository;
+    private final UploadJobMapper uploadJobMapper;
+    private final UploadFailureService uploadFailureService;
+    private final TransactionTemplate transactionTemplate;
+    private final UploadProps uploadProps;
+
+    // owner of jobs run by this node
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private ThreadPoolTaskExecutor executor;
+    private volatile boolean shuttingDown;
+
+    @PostConstruct
+    public void init() throws IOException {
+        UploadProps.Jobs props = uploadProps.getJobs();
+        Files.createDirectories(props.getSpoolDir());
+
+        executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("upload-job-");
+        executor.setCorePoolSize(props.getPoolSize());
+        executor.setMaxPoolSize(props.getPoolSize());
+        executor.setQueueCapacity(props.getQueueCapacity());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+    }
+
+    /**
+     * Stops the workers. Running jobs are rolled back to their last checkpoint and, like queued ones,
+     * are given up, so they are resumed by another node or after the next start.
+     */
+    @PreDestroy
+    public void destroy() {
+        shuttingDown = true;
+        executor.shutdown();
+        try {
+            uploadJobRepository.release(nodeId);
+        } catch (RuntimeException e) {
+            log.warn("Cannot give up upload jobs of this node, they will be resumed after the lease timeout", e);
+        }
+    }
+
+    /**
+     * Resumes jobs that were queued or running when their node was stopped. A job is run by the node which
+     * claims it, jobs of a running node aren't claimed while it sends heartbeats.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeJobs() {
+        Instant now = Instant.now();
+        Instant staleBefore = now.minus(uploadProps.getJobs().getLeaseTimeout());
+        for (UploadJob job : uploadJobRepository.findAllByStatusInOrderByCreatedAt(
+            EnumSet.of(UploadJob.Status.QUEUED, UploadJob.Status.RUNNING))) {
+            if (shuttingDown) {
+                return;
+            }
+            if (uploadJobRepository.claim(job.getId(), nodeId, now, staleBefore) == 0) {
+                continue;
+            }
+            if (!Files.exists(Path.of(job.getSpoolFile()))) {
+                log.warn("Cannot resume upload job {}, spooled file {} is missing", job.getId(), job.getSpoolFile());
+                finish(job.getId(), UploadJob.Status.FAILED, "Uploaded file is missing");
+                continue;
+            }
+
+            log.info("Resuming upload job {} from object {}", job.getId(), job.getParsedCount());
+            try {
+                executor.submit(() -> run(job.getId()));
+            } catch (TaskRejectedException e) {
+                log.warn("Cannot resume upload job {}, too many jobs are queued", job.getId());
+                uploadJobRepository.release(job.getId(), nodeId);
+            }
+        }
+    }
+
+    /**
+     * Renews the lease of jobs of this node and takes over jobs of nodes which stopped sending heartbeats.
+     */
+    @Scheduled(
+        initialDelayString = "${upload.jobs.heartbeat-interval:PT30S}",
+        fixedDelayString = "${upload.jobs.heartbeat-interval:PT30S}"
+    )
+    public void heartbeat() {
+        uploadJobRepository.heartbeat(nodeId, Instant.now());
+        resumeJobs();
+    }
+
+    @Override
+    @LogServiceMethod(logArgs = true)
+    public UploadJobDto submit(MultipartFile file, UploadMode mode) throws IOException {
+        if (mode == UploadMode.COPY && !bookRepository.isCopySupported()) {
+            throw new IllegalArgumentException("COPY upload mode is supported only by PostgreSQL");
+        }
+
+        UUID id = UUID.randomUUID();
+        Path spoolFile = uploadProps.getJobs().getSpoolDir().resolve(id + ".json");
+        file.transferTo(spoolFile);
+
+        UploadJob job = UploadJob.builder()
+            .id(id)
+            .status(UploadJob.Status.QUEUED)
+            .mode(mode)
+            .fileName(file.getOriginalFilename())
+            .spoolFile(spoolFile.toString())
+            .owner(nodeId)
+            .heartbeatAt(Instant.now())
+            .build();
+
+        try {
+            job = uploadJobRepository.save(job);
+            executor.submit(() -> run(id));
+        } catch (RuntimeException e) {
+            uploadJobRepository.deleteById(id);
+            deleteFile(spoolFile);
+            throw e;
+        }
+        return uploadJobMapper.toDto(job);
+    }
+
+    @Override
+    @LogServiceMethod(logArgs = true)
+    public UploadJobDto getById(UUID id) throws ResourceNotFoundException {
+        return uploadJobRepository.findById(id)
+            .map(uploadJobMapper::toDto)
+            .orElseThrow(() -> new ResourceNotFoundException("Upload job %s not found".formatted(id), id, RESOURCE_NAME));
+    }
+
+    /**
+     * Removes finished jobs that are older than the retention period.
+     */
+    @Scheduled(fixedDelayString = "${upload.jobs.cleanup-interval:PT10M}")
+    public void removeExpiredJobs() {
+        Instant expiredBefore = Instant.now().minus(uploadProps.getJobs().getRetention());
+        int removed = uploadJobRepository.deleteAllFinishedBefore(expiredBefore);
+        if (removed > 0) {
+            log.debug("Removed {} expired upload jobs", removed);
+        }
+    }
+
+    private void run(UUID id) {
+        UploadJob job = transactionTemplate.execute(status -> {
+            UploadJob found = uploadJobRepository.findById(id).orElse(null);
+            if (found == null || found.isFinished() || !nodeId.equals(found.getOwner())) {
+                return null;
+            }
+            found.setStatus(UploadJob.Status.RUNNING);
+            if (found.getStartedAt() == null) {
+                found.setStartedAt(Instant.now());
+            }
+            return found;
+        });
+        if (job == null) {
+            return;
+        }
+
+        Path spoolFile = Path.of(job.getSpoolFile());
+        AtomicBoolean takenOver = new AtomicBoolean();
+        try (InputStream in = Files.newInputStream(spoolFile);
+             UploadFailures failures = uploadFailureService.open(id, job.getFailuresSize())) {
+            bookService.upload(in, job.getMode(), job.getParsedCount(), failures, (parsedCount, createdCount, failedCount) -> {
+                if (shuttingDown) {
+                    throw new CancellationException("Upload job %s interrupted by shutdown".formatted(id));
+                }
+                // the chunk is rolled back if another node took the job after a missed heartbeat
+                if (uploadJobRepository.addProgress(id, nodeId, parsedCount, createdCount, failedCount, failures.flush()) == 0) {
+                    takenOver.set(true);
+                    throw new CancellationException("Upload job %s was taken over by another node".formatted(id));
+                }
+            });
+        } catch (Exception e) {
+            if (shuttingDown) {
+                log.info("Upload job {} interrupted by shutdown, it will be resumed after restart", id);
+                return;
+            }
+            if (takenOver.get()) {
+                log.warn("Upload job {} was taken over by another node", id);
+                return;
+            }
+            log.error("Upload job {} failed", id, e);
+            if (finish(id, UploadJob.Status.FAILED, NestedExceptionUtils.getMostSpecificCause(e).getMessage())) {
+                deleteFile(spoolFile);
+            }
+            return;
+        }
+
+        if (finish(id, UploadJob.Status.COMPLETED, null)) {
+            deleteFile(spoolFile);
+        }
+    }
+
+    /**
+     * Changes status of the job if it's still owned by this node. Only the status is updated, so the progress
+     * committed by the worker isn't overwritten.
+     *
+     * @return {@code false} if the job was taken over by another node
+     */
+    private boolean finish(UUID id, UploadJob.Status status, String error) {
+        return uploadJobRepository.finish(id, nodeId, status, error, Instant.now()) > 0;
+    }
+
+    private void deleteFile(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Cannot delete uploaded file {}", file, e);
+        }
+    }
+
+}
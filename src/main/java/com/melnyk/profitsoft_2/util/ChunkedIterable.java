@@ -0,0 +1,85 @@
+package com.melnyk.profitsoft_2.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Lazy single-use {@link Iterable} that reads a source iterator in fixed-size chunks.
+ *
+ * <p>Each chunk is converted at once by {@code chunkMapper}, after that {@code afterChunk} is called
+ * so the caller can release resources held by the processed source elements
+ * (e.g. clear the persistence context). Only one chunk is kept in memory at a time.</p>
+ *
+ * @param <S> the type of source elements
+ * @param <T> the type of produced elements
+ */
+public final class ChunkedIterable<S, T> implements Iterable<T> {
+
+    private final Iterator<S> source;
+    private final int chunkSize;
+    private final Function<List<S>, List<T>> chunkMapper;
+    private final Runnable afterChunk;
+    private boolean iterated;
+
+    public ChunkedIterable(
+        Iterator<S> source,
+        int chunkSize,
+        Function<List<S>, List<T>> chunkMapper,
+        Runnable afterChunk
+    ) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive");
+        }
+        this.source = Objects.requireNonNull(source);
+        this.chunkSize = chunkSize;
+        this.chunkMapper = Objects.requireNonNull(chunkMapper);
+        this.afterChunk = Objects.requireNonNull(afterChunk);
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        if (iterated) {
+            throw new IllegalStateException("ChunkedIterable can be iterated only once");
+        }
+        iterated = true;
+        return new ChunkIterator();
+    }
+
+    private class ChunkIterator implements Iterator<T> {
+
+        private Iterator<T> current = Collections.emptyIterator();
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext() && source.hasNext()) {
+                current = nextChunk().iterator();
+            }
+            return current.hasNext();
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+
+        private List<T> nextChunk() {
+            List<S> chunk = new ArrayList<>(chunkSize);
+            while (chunk.size() < chunkSize && source.hasNext()) {
+                chunk.add(source.next());
+            }
+            List<T> mapped = chunkMapper.apply(chunk);
+            afterChunk.run();
+            return mapped;
+        }
+
+    }
+
+}
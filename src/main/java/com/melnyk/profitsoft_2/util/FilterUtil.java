@@ -0,0 +1,71 @@
+package com.melnyk.profitsoft_2.util;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Utility class for normalizing filter values, so filters selecting the same entities are equal.
+ *
+ * <p>All methods are static and this class should not be instantiated.
+ */
+public final class FilterUtil {
+    private FilterUtil() {}
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    /**
+     * Normalizes a value matched case-insensitively as a substring.
+     *
+     * @param value filter value (nullable)
+     * @return lower-cased value or {@code null} if the value is blank and matches everything
+     */
+    public static String normalize(String value) {
+        return value != null && !value.isBlank() ? value.toLowerCase() : null;
+    }
+
+    /**
+     * Normalizes a value matched with {@code IN}.
+     *
+     * @param values filter values (nullable)
+     * @return the values or {@code null} if they are empty and don't restrict anything
+     */
+    public static <C extends Collection<?>> C normalize(C values) {
+        return values != null && !values.isEmpty() ? values : null;
+    }
+
+    /**
+     * Creates a {@code LIKE} pattern matching values that contain the value, wildcards of the value
+     * are escaped with a backslash, the default escape character of PostgreSQL.
+     *
+     * @param value searched value (required)
+     * @return the pattern
+     */
+    public static String toContainsPattern(String value) {
+        String escaped = value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+
+    /**
+     * Converts a user query into a PostgreSQL {@code tsquery} where every word of the query is matched as a prefix,
+     * e.g. {@code "Dune mess"} into {@code "dune:* & mess:*"}.
+     *
+     * <p>Characters other than letters and digits separate words, so the result never contains
+     * {@code tsquery} operators from the user input.</p>
+     *
+     * @param value full-text query (nullable)
+     * @return {@code tsquery} text or {@code null} if the query has no words
+     */
+    public static String toPrefixTsQuery(String value) {
+        if (value == null) {
+            return null;
+        }
+        String tsQuery = Arrays.stream(NON_WORD.split(value.toLowerCase()))
+            .filter(word -> !word.isEmpty())
+            .map(word -> word + ":*")
+            .collect(Collectors.joining(" & "));
+        return tsQuery.isEmpty() ? null : tsQuery;
+    }
+
+}
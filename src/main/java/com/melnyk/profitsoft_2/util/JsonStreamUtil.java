@@ -0,0 +1,50 @@
+package com.melnyk.profitsoft_2.util;
+
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.MappingIterator;
+import tools.jackson.databind.ObjectReader;
+
+import java.io.InputStream;
+
+/**
+ * Utility methods for streaming reading of large JSON documents.
+ */
+public final class JsonStreamUtil {
+    private JsonStreamUtil() {}
+
+    /**
+     * Reads values of a top-level JSON array (or a sequence of root-level values) one by one.
+     *
+     * <p>The first {@code offset} values are skipped on the token level, without binding them,
+     * so resuming a partially processed document doesn't cost a full deserialization of the processed part.</p>
+     *
+     * @param reader reader bound to the type of values
+     * @param in JSON document, it's closed together with the returned iterator
+     * @param offset count of values to skip
+     * @return iterator of the remaining values
+     */
+    public static <T> MappingIterator<T> readValues(ObjectReader reader, InputStream in, long offset) {
+        if (offset <= 0) {
+            return reader.readValues(in);
+        }
+
+        JsonParser parser = reader.createParser(in);
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.START_ARRAY) {
+            token = parser.nextToken();
+        }
+
+        for (long i = 0; i < offset && token != null && token != JsonToken.END_ARRAY; i++) {
+            parser.skipChildren();
+            token = parser.nextToken();
+        }
+
+        if (token == null || token == JsonToken.END_ARRAY) {
+            parser.close();
+            return MappingIterator.emptyIterator();
+        }
+        return reader.readValues(parser);
+    }
+
+}
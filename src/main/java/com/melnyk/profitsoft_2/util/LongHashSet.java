@@ -0,0 +1,117 @@
+package com.melnyk.profitsoft_2.util;
+
+/**
+ * Set of primitive {@code long} values with open addressing and linear probing.
+ *
+ * <p>Values are stored in one {@code long[]} without boxing, so a value takes 8-16 bytes
+ * instead of ~50 bytes of a {@code HashSet<Long>} entry. Values are expected to be well-mixed hashes,
+ * the table isn't protected against clustering of poor ones. Not thread-safe.</p>
+ */
+public final class LongHashSet {
+
+    private static final long EMPTY = 0;
+    private static final int MIN_CAPACITY = 16;
+    private static final double LOAD_FACTOR = 0.7;
+
+    private long[] table;
+    private boolean containsEmpty;
+    private int size;
+    private int threshold;
+
+    public LongHashSet() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize count of values the set can hold without resizing
+     */
+    public LongHashSet(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize must not be negative");
+        }
+        allocate(tableSizeFor((long) Math.ceil(expectedSize / LOAD_FACTOR)));
+    }
+
+    /**
+     * Adds the value.
+     *
+     * @return {@code true} if the set didn't contain the value
+     */
+    public boolean add(long value) {
+        if (value == EMPTY) {
+            if (containsEmpty) {
+                return false;
+            }
+            containsEmpty = true;
+            size++;
+            return true;
+        }
+
+        int mask = table.length - 1;
+        int index = (int) value & mask;
+        while (table[index] != EMPTY) {
+            if (table[index] == value) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+
+        table[index] = value;
+        if (++size > threshold) {
+            resize();
+        }
+        return true;
+    }
+
+    public boolean contains(long value) {
+        if (value == EMPTY) {
+            return containsEmpty;
+        }
+
+        int mask = table.length - 1;
+        int index = (int) value & mask;
+        while (table[index] != EMPTY) {
+            if (table[index] == value) {
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void resize() {
+        long[] old = table;
+        allocate(old.length * 2);
+        int mask = table.length - 1;
+        for (long value : old) {
+            if (value != EMPTY) {
+                int index = (int) value & mask;
+                while (table[index] != EMPTY) {
+                    index = (index + 1) & mask;
+                }
+                table[index] = value;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        table = new long[capacity];
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int tableSizeFor(long capacity) {
+        if (capacity > 1 << 30) {
+            throw new IllegalArgumentException("Too many values: " + capacity);
+        }
+        int size = MIN_CAPACITY;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        return size;
+    }
+
+}
@@ -0,0 +1,266 @@
+package com.melnyk.profitsoft_2.util;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.LongPredicate;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable in-memory index of documents by prefixes of their words.
+ *
+ * <p>The index is kept in a few primitive arrays instead of collections of boxed values:</p>
+ * <ul>
+ *     <li>documents sorted by id: {@code long[] ids} and parallel arrays of their titles and keywords;</li>
+ *     <li>distinct lower-cased words sorted in {@code String[] terms}, the words with a prefix are a range
+ *     of this array found by binary search;</li>
+ *     <li>postings of the terms in one {@code int[]} of document positions, the postings of term {@code i} are
+ *     {@code postings[offsets[i]..offsets[i + 1])}.</li>
+ * </ul>
+ *
+ * <p>A document matches a query if every word of the query is a prefix of a word of its title or keywords.
+ * Matches are ranked by {@link #ranking(String[])}.</p>
+ */
+public final class PrefixIndex {
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final String[] NO_WORDS = new String[0];
+
+    public static final PrefixIndex EMPTY = builder().build();
+
+    private final long[] ids;
+    private final String[] titles;
+    private final String[] keywords;
+    private final String[] terms;
+    private final int[] offsets;
+    private final int[] postings;
+
+    private PrefixIndex(long[] ids, String[] titles, String[] keywords, String[] terms, int[] offsets, int[] postings) {
+        this.ids = ids;
+        this.titles = titles;
+        this.keywords = keywords;
+        this.terms = terms;
+        this.offsets = offsets;
+        this.postings = postings;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns count of indexed documents.
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Passes all documents to the consumer in order of ids.
+     */
+    public void forEach(Consumer<Document> consumer) {
+        for (int i = 0; i < ids.length; i++) {
+            consumer.accept(new Document(ids[i], titles[i], keywords[i]));
+        }
+    }
+
+    /**
+     * Finds the best ranked documents matching the query words.
+     *
+     * @param words query words from {@link #words(String)}
+     * @param limit max count of found documents
+     * @param excluded ids of documents to skip
+     * @return found documents, the best first
+     */
+    public List<Document> search(String[] words, int limit, LongPredicate excluded) {
+        if (words.length == 0 || limit <= 0 || ids.length == 0) {
+            return List.of();
+        }
+
+        BitSet matches = null;
+        for (String word : words) {
+            BitSet wordMatches = findByPrefix(word);
+            if (matches == null) {
+                matches = wordMatches;
+            } else {
+                matches.and(wordMatches);
+            }
+            if (matches.isEmpty()) {
+                return List.of();
+            }
+        }
+
+        Comparator<Document> ranking = ranking(words);
+        PriorityQueue<Document> best = new PriorityQueue<>(limit + 1, ranking.reversed());
+        for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+            if (excluded.test(ids[i])) {
+                continue;
+            }
+            best.add(new Document(ids[i], titles[i], keywords[i]));
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+
+        List<Document> result = new ArrayList<>(best);
+        result.sort(ranking);
+        return result;
+    }
+
+    /**
+     * Returns positions of documents having a word with the prefix.
+     */
+    private BitSet findByPrefix(String prefix) {
+        BitSet result = new BitSet(ids.length);
+        int from = lowerBound(prefix);
+        for (int i = from; i < terms.length && terms[i].startsWith(prefix); i++) {
+            for (int j = offsets[i]; j < offsets[i + 1]; j++) {
+                result.set(postings[j]);
+            }
+        }
+        return result;
+    }
+
+    private int lowerBound(String term) {
+        int index = Arrays.binarySearch(terms, term);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    /**
+     * Splits a query into lower-cased words, characters other than letters and digits separate words.
+     *
+     * @param query query (nullable)
+     * @return distinct words of the query
+     */
+    public static String[] words(String query) {
+        if (query == null || query.isBlank()) {
+            return NO_WORDS;
+        }
+        return NON_WORD.splitAsStream(query.toLowerCase())
+            .filter(word -> !word.isEmpty())
+            .distinct()
+            .toArray(String[]::new);
+    }
+
+    /**
+     * Checks whether every query word is a prefix of a word of the document, the same way as the index does.
+     */
+    public static boolean matches(Document document, String[] words) {
+        if (words.length == 0) {
+            return false;
+        }
+        String[] documentWords = words(document.title() + " " + Objects.requireNonNullElse(document.keywords(), ""));
+        for (String word : words) {
+            boolean found = false;
+            for (String documentWord : documentWords) {
+                if (documentWord.startsWith(word)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Orders matches of the query: titles starting with the first query word first, then shorter titles,
+     * then lower ids.
+     */
+    public static Comparator<Document> ranking(String[] words) {
+        String first = words.length > 0 ? words[0] : "";
+        return Comparator
+            .comparing((Document document) -> !document.title().regionMatches(true, 0, first, 0, first.length()))
+            .thenComparingInt(document -> document.title().length())
+            .thenComparingLong(Document::id);
+    }
+
+    /**
+     * Indexed document.
+     *
+     * @param id id of the document
+     * @param title title, it's matched and returned with the document
+     * @param keywords additional matched text (nullable)
+     */
+    public record Document(long id, String title, String keywords) { }
+
+    /**
+     * Collects documents and builds the index, a document added twice replaces the earlier one.
+     */
+    public static final class Builder {
+
+        private final Map<Long, Document> documents = new HashMap<>();
+
+        private Builder() { }
+
+        public Builder add(long id, String title, String keywords) {
+            documents.put(id, new Document(id, Objects.requireNonNull(title), keywords));
+            return this;
+        }
+
+        public Builder add(Document document) {
+            return add(document.id(), document.title(), document.keywords());
+        }
+
+        public PrefixIndex build() {
+            int size = documents.size();
+            long[] ids = documents.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+            String[] titles = new String[size];
+            String[] keywords = new String[size];
+
+            // keywords are often shared (e.g. one author name for many books), they are stored once
+            Map<String, String> sharedKeywords = new HashMap<>();
+            Map<String, Integer> termIds = new HashMap<>();
+            List<String> termList = new ArrayList<>();
+            long[] pairs = new long[16];
+            int pairCount = 0;
+
+            for (int position = 0; position < size; position++) {
+                Document document = documents.get(ids[position]);
+                titles[position] = document.title();
+                keywords[position] = document.keywords() != null
+                    ? sharedKeywords.computeIfAbsent(document.keywords(), x -> x)
+                    : null;
+
+                for (String word : words(document.title() + " " + Objects.requireNonNullElse(document.keywords(), ""))) {
+                    int termId = termIds.computeIfAbsent(word, x -> {
+                        termList.add(x);
+                        return termList.size() - 1;
+                    });
+                    if (pairCount == pairs.length) {
+                        pairs = Arrays.copyOf(pairs, pairs.length * 2);
+                    }
+                    pairs[pairCount++] = (long) termId << 32 | position;
+                }
+            }
+
+            // renumber the terms in sorted order, so the postings of a prefix are adjacent
+            String[] sortedTerms = termList.toArray(String[]::new);
+            Arrays.sort(sortedTerms);
+            int[] sortedTermIds = new int[sortedTerms.length];
+            for (int i = 0; i < sortedTermIds.length; i++) {
+                sortedTermIds[i] = Arrays.binarySearch(sortedTerms, termList.get(i));
+            }
+            for (int i = 0; i < pairCount; i++) {
+                long pair = pairs[i];
+                pairs[i] = (long) sortedTermIds[(int) (pair >>> 32)] << 32 | (pair & 0xffffffffL);
+            }
+            Arrays.sort(pairs, 0, pairCount);
+
+            int[] offsets = new int[sortedTerms.length + 1];
+            int[] postings = new int[pairCount];
+            for (int i = 0; i < pairCount; i++) {
+                offsets[(int) (pairs[i] >>> 32) + 1]++;
+                postings[i] = (int) pairs[i];
+            }
+            for (int i = 0; i < sortedTerms.length; i++) {
+                offsets[i + 1] += offsets[i];
+            }
+
+            return new PrefixIndex(ids, titles, keywords, sortedTerms, offsets, postings);
+        }
+
+    }
+
+}
@@ -0,0 +1,67 @@
+package com.melnyk.profitsoft_2.util;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent loads of the same key: the first caller runs the loader, callers that come while
+ * it's running wait for its result instead of loading the key again.
+ *
+ * <p>Only in-flight loads are kept, a caller that comes after a load completes runs the loader again, so values
+ * are expected to be cached by the loader. An exception of the loader is thrown to all waiting callers.
+ * Thread-safe.</p>
+ *
+ * @param <K> type of keys
+ * @param <V> type of loaded values
+ */
+public final class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> calls = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the value loaded by the loader, or by the in-flight load of the key.
+     */
+    public V load(K key, Supplier<V> loader) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = calls.putIfAbsent(key, call);
+        if (inFlight != null) {
+            return await(inFlight);
+        }
+
+        try {
+            V value = loader.get();
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            calls.remove(key, call);
+        }
+    }
+
+    /**
+     * Returns count of keys being loaded.
+     */
+    public int inFlight() {
+        return calls.size();
+    }
+
+    private static <V> V await(CompletableFuture<V> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+}
@@ -1,6 +1,7 @@
 package com.melnyk.profitsoft_2.util;
 
 import com.melnyk.profitsoft_2.dto.request.filter.CreationFilter;
+import com.melnyk.profitsoft_2.dto.request.filter.SearchMode;
 import com.melnyk.profitsoft_2.dto.request.filter.UpdatedFilter;
 import com.melnyk.profitsoft_2.dto.request.filter.impl.AuthorFilter;
 import com.melnyk.profitsoft_2.dto.request.filter.impl.BookFilter;
@@ -8,6 +9,8 @@ import com.melnyk.profitsoft_2.dto.request.filter.impl.GenreFilter;
 import com.melnyk.profitsoft_2.entity.Author;
 import com.melnyk.profitsoft_2.entity.Book;
 import com.melnyk.profitsoft_2.entity.Genre;
+import com.melnyk.profitsoft_2.repository.FullTextFunctionContributor;
+import com.melnyk.profitsoft_2.repository.NameFunctionContributor;
 import jakarta.persistence.criteria.*;
 import org.springframework.data.jpa.domain.Specification;
 
@@ -66,10 +69,10 @@ public final class SpecificationFactory {
             }
 
             if (filter.query() != null && !filter.query().isBlank()) {
-                Path<String> firstName = root.get("firstName");
-                Path<String> lastName = root.get("lastName");
-                Expression<String> fullName = cb.concat(firstName, cb.concat(" ", lastName));
-                predicates.add(cb.like(cb.lower(fullName), "%" + filter.query().toLowerCase() + "%"));
+                // the same expression as the trigram index of full names
+                Expression<String> fullName = cb.function(
+                    NameFunctionContributor.AUTHOR_FULL_NAME, String.class, root.get("firstName"), root.get("lastName"));
+                predicates.add(cb.like(fullName, "%" + filter.query().toLowerCase() + "%"));
             }
 
             predicates.addAll(useCreationFilter(root, cb, filter));
@@ -90,15 +93,19 @@ public final class SpecificationFactory {
                 return cb.conjunction();
             }
 
-            if (query.getResultType() != Long.class) {
+            // only queries of the entities need the author, not count, id or keyset queries
+            if (query.getResultType() == Book.class) {
                 root.fetch("author", JoinType.LEFT);
-            } else {
-                query.distinct(true);
             }
 
             final List<Predicate> predicates = new ArrayList<>();
 
-            if (filter.query() != null) {
+            if (filter.search() == SearchMode.FULL_TEXT) {
+                String tsQuery = FilterUtil.toPrefixTsQuery(filter.query());
+                if (tsQuery != null) {
+                    predicates.add(useFullText(root, query, cb, tsQuery));
+                }
+            } else if (filter.query() != null) {
                 predicates.add(useLikeIgnoreCase(root, cb, "title", "%" + filter.query() + "%"));
             }
 
@@ -123,8 +130,12 @@ public final class SpecificationFactory {
             }
 
             if (filter.genreIds() != null && !filter.genreIds().isEmpty()) {
-                Join<Book, Genre> genreJoin = root.join("genres", JoinType.LEFT);
-                predicates.add(genreJoin.get("id").in(filter.genreIds()));
+                // EXISTS instead of a join doesn't multiply rows of books with several genres
+                Subquery<Long> subquery = query.subquery(Long.class);
+                Root<Book> book = subquery.correlate(root);
+                Join<Book, Genre> genreJoin = book.join("genres");
+                subquery.select(genreJoin.get("id")).where(genreJoin.get("id").in(filter.genreIds()));
+                predicates.add(cb.exists(subquery));
             }
 
             predicates.addAll(useCreationFilter(root, cb, filter));
@@ -134,6 +145,68 @@ public final class SpecificationFactory {
         };
     }
 
+    /**
+     * Creates {@link org.springframework.data.jpa.domain.Specification} for {@link Book} that has the genre
+     * @param genreId id of the genre
+     * @return {@link org.springframework.data.jpa.domain.Specification} instance
+     */
+    public static Specification<Book> hasGenre(Long genreId) {
+        return (root, query, cb) -> {
+            Subquery<Long> subquery = query.subquery(Long.class);
+            Root<Book> book = subquery.from(Book.class);
+            Join<Book, Genre> genreJoin = book.join("genres");
+            subquery.select(book.get("id"))
+                .where(cb.equal(book.get("id"), root.get("id")), cb.equal(genreJoin.get("id"), genreId));
+            return cb.exists(subquery);
+        };
+    }
+
+    /**
+     * Creates {@link org.springframework.data.jpa.domain.Specification} for {@link Book} without genres
+     * @return {@link org.springframework.data.jpa.domain.Specification} instance
+     */
+    public static Specification<Book> hasNoGenres() {
+        return (root, query, cb) -> cb.isEmpty(root.get("genres"));
+    }
+
+    /**
+     * Creates {@link org.springframework.data.jpa.domain.Specification} for {@link Book} whose author id is in the range
+     * @param minAuthorId min author id (inclusive)
+     * @param maxAuthorId max author id (inclusive)
+     * @return {@link org.springframework.data.jpa.domain.Specification} instance
+     */
+    public static Specification<Book> hasAuthorIdBetween(Long minAuthorId, Long maxAuthorId) {
+        return (root, query, cb) -> cb.between(root.get("author").get("id"), minAuthorId, maxAuthorId);
+    }
+
+    /**
+     * Creates a full-text predicate matching the book title and description or the author name, and orders
+     * the books by relevance. The order is kept only by queries without a sort, count queries drop it.
+     */
+    private static Predicate useFullText(Root<Book> root, CriteriaQuery<?> query, CriteriaBuilder cb, String tsQuery) {
+        Expression<String> tsQueryLiteral = cb.literal(tsQuery);
+
+        // authors are matched by a subquery, so their index is used and the books don't need a join
+        Subquery<Long> authorIds = query.subquery(Long.class);
+        Root<Author> author = authorIds.from(Author.class);
+        authorIds.select(author.get("id")).where(cb.isTrue(cb.function(
+            FullTextFunctionContributor.AUTHOR_MATCH, Boolean.class,
+            author.get("firstName"), author.get("lastName"), tsQueryLiteral
+        )));
+
+        Predicate bookMatches = cb.isTrue(cb.function(
+            FullTextFunctionContributor.BOOK_MATCH, Boolean.class,
+            root.get("title"), root.get("description"), tsQueryLiteral
+        ));
+        Expression<Double> rank = cb.function(
+            FullTextFunctionContributor.BOOK_RANK, Double.class,
+            root.get("title"), root.get("description"), tsQueryLiteral
+        );
+        query.orderBy(cb.desc(rank), cb.asc(root.get("id")));
+
+        return cb.or(bookMatches, root.get("author").get("id").in(authorIds));
+    }
+
     /**
      * Creates a case-insensitive LIKE predicate for a string field.
      */
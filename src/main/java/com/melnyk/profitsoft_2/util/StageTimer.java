@@ -0,0 +1,62 @@
+package com.melnyk.profitsoft_2.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Accumulates time spent in named stages of a multistep operation.
+ *
+ * <p>A stage can be timed several times (e.g. once per processed chunk), its durations are summed.
+ * Stages can be timed by several threads at once, then the total is the time spent by all of them.</p>
+ *
+ * <p>A stage timed inside another one on the same thread, e.g. waiting for a lock, isn't counted
+ * in the enclosing stage.</p>
+ */
+public final class StageTimer {
+
+    private final Map<String, Long> nanos = new LinkedHashMap<>();
+    // time of stages nested in the stage running on the thread
+    private final ThreadLocal<long[]> nestedNanos = new ThreadLocal<>();
+
+    public <T> T time(String stage, Supplier<T> action) {
+        long[] enclosing = nestedNanos.get();
+        long[] nested = new long[1];
+        nestedNanos.set(nested);
+        long start = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            if (enclosing != null) {
+                enclosing[0] += elapsed;
+                nestedNanos.set(enclosing);
+            } else {
+                nestedNanos.remove();
+            }
+            synchronized (nanos) {
+                nanos.merge(stage, elapsed - nested[0], Long::sum);
+            }
+        }
+    }
+
+    public void time(String stage, Runnable action) {
+        time(stage, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Returns total durations of the stages in milliseconds in order the stages were first timed.
+     */
+    public Map<String, Long> toMillis() {
+        Map<String, Long> millis = new LinkedHashMap<>();
+        synchronized (nanos) {
+            nanos.forEach((stage, value) -> millis.put(stage, TimeUnit.NANOSECONDS.toMillis(value)));
+        }
+        return millis;
+    }
+
+}
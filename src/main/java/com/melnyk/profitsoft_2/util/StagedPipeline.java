@@ -0,0 +1,283 @@
+package com.melnyk.profitsoft_2.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Three-stage pipeline: the calling thread reads items, one thread transforms them in order of reading
+ * and several workers consume the transformed items concurrently.
+ *
+ * <p>Stages are connected by bounded queues, so a slow stage blocks the previous ones. Each consumed item
+ * gets a {@link Turn}: a worker can wait in it until all earlier items are consumed, which lets it
+ * publish results (e.g. a checkpoint) in order of reading. The first failure of any stage aborts the others
+ * and is rethrown by {@link #run}.</p>
+ *
+ * @param <R> the type of read items
+ * @param <T> the type of transformed items
+ */
+public final class StagedPipeline<R, T> {
+
+    private static final Object END = new Object();
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+
+    private final Supplier<R> reader;
+    private final Function<R, T> transformer;
+    private final Consumer<T> consumer;
+
+    private final BlockingQueue<Object> readQueue;
+    private final BlockingQueue<Object> transformedQueue;
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private final ReentrantLock turnLock = new ReentrantLock();
+    private final Condition turnCompleted = turnLock.newCondition();
+    private long nextTurn;
+
+    private StagedPipeline(Supplier<R> reader, Function<R, T> transformer, Consumer<T> consumer, int queueCapacity) {
+        this.reader = Objects.requireNonNull(reader);
+        this.transformer = Objects.requireNonNull(transformer);
+        this.consumer = Objects.requireNonNull(consumer);
+        this.readQueue = new ArrayBlockingQueue<>(queueCapacity);
+        this.transformedQueue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    /**
+     * Runs the pipeline until {@code reader} returns {@code null}.
+     *
+     * @param reader supplies items, {@code null} means the end
+     * @param transformer transforms read items, it's called by one thread in order of reading
+     * @param consumer consumes transformed items concurrently
+     * @param workers count of consumer threads, with {@code 0} all stages run one after another in the calling thread
+     * @param queueCapacity max count of items waiting between stages
+     * @param executor runs the transformer and the workers, it must not queue the tasks because
+     *                 they wait for each other
+     */
+    public static <R, T> void run(
+        Supplier<R> reader,
+        Function<R, T> transformer,
+        Consumer<T> consumer,
+        int workers,
+        int queueCapacity,
+        Executor executor
+    ) {
+        if (workers < 0) {
+            throw new IllegalArgumentException("workers must not be negative");
+        }
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("queueCapacity must be positive");
+        }
+
+        StagedPipeline<R, T> pipeline = new StagedPipeline<>(reader, transformer, consumer, queueCapacity);
+        if (workers == 0) {
+            pipeline.runSequentially();
+        } else {
+            pipeline.runConcurrently(workers, Objects.requireNonNull(executor));
+        }
+    }
+
+    private void runSequentially() {
+        R item;
+        long turn = 0;
+        while ((item = reader.get()) != null) {
+            consumer.accept(transformer.apply(item), new SequencedTurn(turn++));
+            nextTurn++;
+        }
+    }
+
+    private void runConcurrently(int workers, Executor executor) {
+        List<CompletableFuture<Void>> stages = new ArrayList<>(workers + 1);
+        try {
+            stages.add(CompletableFuture.runAsync(guarded(() -> transform(workers)), executor));
+            for (int i = 0; i < workers; i++) {
+                stages.add(CompletableFuture.runAsync(guarded(this::consume), executor));
+            }
+            guarded(this::read).run();
+        } catch (RuntimeException e) {
+            // the executor rejected a stage
+            abort(e);
+        }
+
+        for (CompletableFuture<Void> stage : stages) {
+            try {
+                stage.join();
+            } catch (CompletionException | CancellationException ignored) {
+                // failures of the stages are recorded by guarded()
+            }
+        }
+
+        Throwable e = failure.get();
+        if (e instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        if (e instanceof Error error) {
+            throw error;
+        }
+        if (e != null) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void read() {
+        R item;
+        while ((item = reader.get()) != null) {
+            put(readQueue, item);
+        }
+        put(readQueue, END);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void transform(int workers) {
+        long turn = 0;
+        Object item;
+        while ((item = take(readQueue)) != END) {
+            T transformed = transformer.apply((R) item);
+            put(transformedQueue, new Sequenced<>(turn++, transformed));
+        }
+        for (int i = 0; i < workers; i++) {
+            put(transformedQueue, END);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void consume() {
+        Object item;
+        while ((item = take(transformedQueue)) != END) {
+            Sequenced<T> sequenced = (Sequenced<T>) item;
+            SequencedTurn turn = new SequencedTurn(sequenced.turn());
+            consumer.accept(sequenced.item(), turn);
+            turn.complete();
+        }
+    }
+
+    private Runnable guarded(Runnable stage) {
+        return () -> {
+            try {
+                stage.run();
+            } catch (Throwable e) {
+                abort(e);
+            }
+        };
+    }
+
+    private void abort(Throwable e) {
+        if (!failure.compareAndSet(null, e) && e != failure.get() && !(e instanceof CancellationException)) {
+            failure.get().addSuppressed(e);
+        }
+        turnLock.lock();
+        try {
+            turnCompleted.signalAll();
+        } finally {
+            turnLock.unlock();
+        }
+    }
+
+    private void checkNotAborted() {
+        if (failure.get() != null) {
+            throw new CancellationException("Pipeline aborted");
+        }
+    }
+
+    private void put(BlockingQueue<Object> queue, Object item) {
+        try {
+            while (!queue.offer(item, POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                checkNotAborted();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Pipeline interrupted");
+        }
+    }
+
+    private Object take(BlockingQueue<Object> queue) {
+        try {
+            Object item;
+            while ((item = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) == null) {
+                checkNotAborted();
+            }
+            return item;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Pipeline interrupted");
+        }
+    }
+
+    /**
+     * Consumer of transformed items.
+     */
+    @FunctionalInterface
+    public interface Consumer<T> {
+
+        void accept(T item, Turn turn);
+
+    }
+
+    /**
+     * Position of a consumed item in order of reading.
+     */
+    public interface Turn {
+
+        /**
+         * Waits until all earlier items are consumed.
+         *
+         * @throws CancellationException if the pipeline is aborted
+         */
+        void await();
+
+    }
+
+    private final class SequencedTurn implements Turn {
+
+        private final long number;
+        private boolean reached;
+
+        private SequencedTurn(long number) {
+            this.number = number;
+        }
+
+        @Override
+        public void await() {
+            if (reached) {
+                return;
+            }
+            turnLock.lock();
+            try {
+                while (nextTurn != number) {
+                    checkNotAborted();
+                    turnCompleted.await(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                reached = true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Pipeline interrupted");
+            } finally {
+                turnLock.unlock();
+            }
+        }
+
+        private void complete() {
+            await();
+            turnLock.lock();
+            try {
+                nextTurn++;
+                turnCompleted.signalAll();
+            } finally {
+                turnLock.unlock();
+            }
+        }
+
+    }
+
+    private record Sequenced<T>(long turn, T item) { }
+
+}
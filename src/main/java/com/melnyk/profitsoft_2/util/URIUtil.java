@@ -19,7 +19,7 @@ public final class URIUtil {
      * @param id resource id
      * @return built {@code URI} object
      */
-    public static URI createLocationUri(UriComponentsBuilder uriBuilder, String resourcePath, Long id) {
+    public static URI createLocationUri(UriComponentsBuilder uriBuilder, String resourcePath, Object id) {
         return uriBuilder
             .path(resourcePath)
             .path("/{id}")
@@ -35,6 +35,7 @@ import java.time.Instant;
 import java.util.*;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -211,6 +212,8 @@ class AuthorControllerIT {
             null,
             null,
             null,
+            null,
+            null,
             null
         );
 
@@ -231,12 +234,34 @@ class AuthorControllerIT {
             null,
             null,
             null,
+            null,
+            null,
             null
         );
 
         testSearchAuthors(filter, expectedTotalElements, Comparator.comparingLong(AuthorInfoDto::getId));
     }
 
+    @Test
+    @Transactional(readOnly = true)
+    void autocompleteAuthors_givenMisspelledLastName_returnsMostSimilarAuthorFirstWith200() throws Exception {
+        mockMvc.perform(get("/api/authors/_autocomplete")
+                .param("query", "STANTN")
+                .param("limit", "5"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(lessThanOrEqualTo(5)))
+            .andExpect(jsonPath("$[0].firstName").value("Logan"))
+            .andExpect(jsonPath("$[0].lastName").value("Stanton"));
+    }
+
+    @Test
+    void autocompleteAuthors_givenBlankQueryOrInvalidLimit_returns400() throws Exception {
+        mockMvc.perform(get("/api/authors/_autocomplete").param("query", " "))
+            .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/authors/_autocomplete").param("query", "stanton").param("limit", "0"))
+            .andExpect(status().isBadRequest());
+    }
+
     @Test
     void searchAuthors_givenSortParamByMissingField_returnsAuthorsWith400() throws Exception {
         String invalidSort = "field,asc";
@@ -269,6 +294,8 @@ class AuthorControllerIT {
             null,
             null,
             null,
+            null,
+            null,
             null
         );
 
@@ -365,8 +392,10 @@ class AuthorControllerIT {
             expectedAuthors,
             page,
             size,
-            expectedTotalElements,
-            expectedTotalPages
+            (long) expectedTotalElements,
+            expectedTotalPages,
+            page + 1 < expectedTotalPages,
+            null
         );
 
         mockMvc.perform(post("/api/authors/_list")
@@ -8,12 +8,15 @@ import com.melnyk.profitsoft_2.dto.response.*;
 import com.melnyk.profitsoft_2.entity.Author;
 import com.melnyk.profitsoft_2.entity.Book;
 import com.melnyk.profitsoft_2.entity.Genre;
+import com.melnyk.profitsoft_2.entity.UploadJob;
 import com.melnyk.profitsoft_2.mapper.AuthorMapper;
 import com.melnyk.profitsoft_2.mapper.BookMapper;
 import com.melnyk.profitsoft_2.mapper.GenreMapper;
 import com.melnyk.profitsoft_2.repository.AuthorRepository;
 import com.melnyk.profitsoft_2.repository.BookRepository;
 import com.melnyk.profitsoft_2.repository.GenreRepository;
+import com.melnyk.profitsoft_2.service.UploadMode;
+import com.melnyk.profitsoft_2.service.impl.BookSuggestIndex;
 import com.melnyk.profitsoft_2.util.DataUtil;
 import com.melnyk.profitsoft_2.util.ResourceUtil;
 import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
@@ -37,6 +40,7 @@ import org.springframework.test.annotation.Rollback;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.JsonNode;
 import tools.jackson.databind.MappingIterator;
 import tools.jackson.databind.ObjectMapper;
 
@@ -98,6 +102,9 @@ class BookControllerIT {
     @Autowired
     CacheManager cacheManager;
 
+    @Autowired
+    BookSuggestIndex bookSuggestIndex;
+
     Instant initializedTime;
 
     @BeforeAll
@@ -266,6 +273,9 @@ class BookControllerIT {
             null,
             null,
             null,
+            null,
+            null,
+            null,
             null
         );
 
@@ -284,12 +294,15 @@ class BookControllerIT {
             null,
             null,
             null,
+            null,
             2,
             3,
             "id,asc",
             null,
             null,
             null,
+            null,
+            null,
             null
         );
 
@@ -328,16 +341,177 @@ class BookControllerIT {
             null,
             null,
             null,
+            null,
             "Id,AsC",
             null,
             null,
             null,
+            null,
+            null,
             null
         );
 
         testSearchBooks(filter, expectedTotalElements, Comparator.comparingLong(BookInfoDto::getId));
     }
 
+    @Test
+    @Transactional(readOnly = true)
+    void searchBooks_givenGenreIdsMatchingSeveralGenresOfBook_returnsEachBookOnceWith200() throws Exception {
+        Set<Long> genreIds = GENRES.keySet();
+        List<Long> expectedIds = BOOKS.values().stream()
+            .filter(x -> x.getGenres().stream().anyMatch(genre -> genreIds.contains(genre.getId())))
+            .map(Book::getId)
+            .sorted()
+            .toList();
+        BookFilter filter = new BookFilter(
+            null, null, null, null, null, null, null, genreIds, 0, 5, "id,asc", null, null, null, null, null, null);
+
+        mockMvc.perform(post("/api/books/_list")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(filter)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalElements").value(expectedIds.size()))
+            .andExpect(jsonPath("$.content.length()").value(5))
+            .andExpect(jsonPath("$.content[*].id").value(expectedIds.subList(0, 5).stream().map(Long::intValue).toList()))
+            .andExpect(jsonPath("$.content[0].genres").isNotEmpty());
+    }
+
+    @Test
+    @Transactional(readOnly = true)
+    void searchBooks_givenCursor_returnsAllBooksPageByPageWith200() throws Exception {
+        String sort = "pages,desc";
+        List<Long> expectedIds = BOOKS.values().stream()
+            .filter(x -> x.getTitle().toLowerCase().contains("f"))
+            .sorted(Comparator.comparing(Book::getPages).thenComparing(Book::getId).reversed())
+            .map(Book::getId)
+            .toList();
+
+        List<Long> actualIds = new ArrayList<>();
+        String cursor = "";
+        while (cursor != null) {
+            BookFilter filter = new BookFilter(
+                "f", null, null, null, null, null, null, null, null, 5, sort, cursor, null, null, null, null, null);
+
+            String content = mockMvc.perform(post("/api/books/_list")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(filter)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size").value(5))
+                .andExpect(jsonPath("$.totalElements").doesNotExist())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+            JsonNode page = objectMapper.readTree(content);
+            page.get("content").forEach(x -> actualIds.add(x.get("id").asLong()));
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asString();
+        }
+
+        assertThat(actualIds).containsExactlyElementsOf(expectedIds);
+    }
+
+    @Test
+    @Transactional(readOnly = true)
+    void searchBooks_givenCountModeNone_returnsPageWithoutTotalsWith200() throws Exception {
+        mockMvc.perform(post("/api/books/_list")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"query\":\"f\",\"size\":5,\"count\":\"NONE\"}"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content.length()").value(5))
+            .andExpect(jsonPath("$.page").value(0))
+            .andExpect(jsonPath("$.hasNext").value(true))
+            .andExpect(jsonPath("$.totalElements").doesNotExist())
+            .andExpect(jsonPath("$.totalPages").doesNotExist());
+    }
+
+    @Test
+    @Transactional(readOnly = true)
+    void searchBooks_givenFullTextQuery_returnsBooksMatchingTitleOrAuthorRankedWith200() throws Exception {
+        String prefix = "the";
+        List<Long> titleMatchIds = BOOKS.values().stream()
+            .filter(x -> hasWordWithPrefix(x.getTitle(), prefix))
+            .map(Book::getId)
+            .toList();
+        List<Long> authorMatchIds = BOOKS.values().stream()
+            .filter(x -> !hasWordWithPrefix(x.getTitle(), prefix))
+            .filter(x -> hasWordWithPrefix(x.getAuthor().getFirstName() + " " + x.getAuthor().getLastName(), prefix))
+            .map(Book::getId)
+            .toList();
+
+        String content = mockMvc.perform(post("/api/books/_list")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"query\":\"THE\",\"search\":\"FULL_TEXT\",\"size\":100}"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalElements").value(titleMatchIds.size() + authorMatchIds.size()))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+        List<Long> actualIds = new ArrayList<>();
+        objectMapper.readTree(content).get("content").forEach(x -> actualIds.add(x.get("id").asLong()));
+        // title matches have a positive rank, matches of the author name only are ranked last
+        assertThat(actualIds.subList(0, titleMatchIds.size())).containsExactlyInAnyOrderElementsOf(titleMatchIds);
+        assertThat(actualIds.subList(titleMatchIds.size(), actualIds.size()))
+            .containsExactlyInAnyOrderElementsOf(authorMatchIds);
+    }
+
+    @Test
+    void suggestBooks_givenTitlePrefix_returnsMatchingBooksWith200() throws Exception {
+        // books of the tests are saved through the repository, not the service
+        bookSuggestIndex.rebuild();
+        Book book = BOOKS.values().iterator().next();
+        String prefix = book.getTitle().substring(0, Math.min(3, book.getTitle().length()));
+        List<Long> expectedIds = BOOKS.values().stream()
+            .filter(x -> hasWordWithPrefix(x.getTitle() + " " + x.getAuthor().getFirstName() + " "
+                + x.getAuthor().getLastName(), prefix.toLowerCase()))
+            .map(Book::getId)
+            .toList();
+
+        String content = mockMvc.perform(get("/api/books/_suggest")
+                .param("query", prefix)
+                .param("limit", "50"))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+        List<Long> actualIds = new ArrayList<>();
+        objectMapper.readTree(content).forEach(x -> actualIds.add(x.get("id").asLong()));
+        assertThat(actualIds).hasSize(Math.min(50, expectedIds.size())).containsAnyElementsOf(expectedIds);
+        assertThat(expectedIds).containsAll(actualIds);
+    }
+
+    @Test
+    void searchBooks_givenCursorOfAnotherSort_returns400() throws Exception {
+        BookFilter firstPageFilter = new BookFilter(
+            null, null, null, null, null, null, null, null, null, 1, "title,asc", "", null, null, null, null, null);
+        String content = mockMvc.perform(post("/api/books/_list")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(firstPageFilter)))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+        String cursor = objectMapper.readTree(content).get("nextCursor").asString();
+
+        BookFilter filter = new BookFilter(
+            null, null, null, null, null, null, null, null, null, 1, "id,asc", cursor, null, null, null, null, null);
+        mockMvc.perform(post("/api/books/_list")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(filter)))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void searchBooks_givenCursorAndNullableSortProperty_returns400() throws Exception {
+        BookFilter filter = new BookFilter(
+            null, null, null, null, null, null, null, null, null, 1, "description,asc", "", null, null, null, null, null);
+        mockMvc.perform(post("/api/books/_list")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(filter)))
+            .andExpect(status().isBadRequest());
+    }
+
     // updateBookById
 
     @Test
@@ -470,16 +644,61 @@ class BookControllerIT {
             null,
             null,
             null,
+            null,
             "id, asc",
             null,
             null,
             null,
+            null,
+            null,
             null
         );
 
         testGenerationExcelBookReport(filter, expectedTotalElements, Comparator.comparingLong(BookInfoDto::getId));
     }
 
+    @Test
+    @Transactional(readOnly = true)
+    void generateBookReport_givenCsvAcceptHeader_returnsCsvFileWith200() throws Exception {
+        BookFilter filter = new BookFilter("f", null, null, null, null, null, null, null, null, null,
+            "id, asc", null, null, null, null, null, null);
+
+        String content = mockMvc.perform(post("/api/books/_report")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept("text/csv")
+                .content(objectMapper.writeValueAsString(filter)))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("text/csv"))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+        String[] lines = content.split("\r\n");
+        assertThat(lines[0]).isEqualTo("id,title,description,author,yearPublished,pages,genres");
+        assertThat(lines).hasSize(23 + 1);
+    }
+
+    @Test
+    @Transactional(readOnly = true)
+    void generateBookReport_givenNdjsonAcceptHeader_returnsNdjsonFileWith200() throws Exception {
+        BookFilter filter = new BookFilter("f", null, null, null, null, null, null, null, null, null,
+            "id, asc", null, null, null, null, null, null);
+
+        String content = mockMvc.perform(post("/api/books/_report")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .content(objectMapper.writeValueAsString(filter)))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+        List<String> lines = content.lines().toList();
+        assertThat(lines).hasSize(23);
+        assertThat(objectMapper.readTree(lines.getFirst()).has("title")).isTrue();
+    }
+
     // uploadBooks
 
     @Test
@@ -493,7 +712,7 @@ class BookControllerIT {
     @Transactional
     @Rollback
     void uploadBooks_givenJSONMultipartFileWithEmptyArray_returnsUploadResponseWith200() throws Exception {
-        UploadResponse expectedResponse = new UploadResponse(0, 0, 0, List.of());
+        UploadResponse expectedResponse = new UploadResponse(0, 0, 0, List.of(), Map.of(), null, Map.of());
 
         MockMultipartFile file = new MockMultipartFile(
             "file",
@@ -518,6 +737,126 @@ class BookControllerIT {
         testUploadJSONFile(jsonFilePath, 10, 0);
     }
 
+    @Test
+    @Transactional
+    @Rollback
+    void uploadBooks_givenValidJSONMultipartFileInCopyMode_returnsUploadResponseWith200() throws Exception {
+        Path jsonFilePath = ResourceUtil.getResourcePath("upload.json");
+        testUploadJSONFile(jsonFilePath, 10, 0, UploadMode.COPY);
+    }
+
+    @Test
+    @Transactional
+    @Rollback
+    void uploadBooks_givenExistingBooksInCopyMode_returnsFailedItemsWith200() throws Exception {
+        Path jsonFilePath = ResourceUtil.getResourcePath("upload.json");
+        testUploadJSONFile(jsonFilePath, 10, 0, UploadMode.COPY);
+
+        try (InputStream inputStream = Files.newInputStream(jsonFilePath)) {
+            MockMultipartFile file = new MockMultipartFile(
+                "file",
+                jsonFilePath.getFileName().toString(),
+                MediaType.APPLICATION_JSON_VALUE,
+                inputStream
+            );
+
+            mockMvc.perform(multipart("/api/books/upload")
+                    .file(file)
+                    .param("mode", UploadMode.COPY.name()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.createdCount").value(0))
+                .andExpect(jsonPath("$.failedCount").value(10));
+        }
+    }
+
+    @Test
+    @Transactional
+    @Rollback
+    void uploadBooks_givenSummaryFailureMode_returnsFailuresFileWith200() throws Exception {
+        Path jsonFilePath = ResourceUtil.getResourcePath("upload-job.json");
+        MockMultipartFile file = new MockMultipartFile(
+            "file",
+            jsonFilePath.getFileName().toString(),
+            MediaType.APPLICATION_JSON_VALUE,
+            Files.readAllBytes(jsonFilePath)
+        );
+
+        String jsonResponse = mockMvc.perform(multipart("/api/books/upload")
+                .file(file)
+                .param("failures", "SUMMARY"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.createdCount").value(2))
+            .andExpect(jsonPath("$.failedCount").value(1))
+            .andExpect(jsonPath("$.failureCounts.ALREADY_EXISTS").value(1))
+            .andExpect(jsonPath("$.failuresFileId").exists())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+        UploadResponse response = objectMapper.readValue(jsonResponse, UploadResponse.class);
+
+        String failures = mockMvc.perform(get("/api/books/upload/failures/{id}", response.getFailuresFileId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+        assertThat(failures.lines().toList()).hasSize(1);
+    }
+
+    @Test
+    void submitBookUploadJob_givenValidJSONMultipartFile_completesJobWith202() throws Exception {
+        Path jsonFilePath = ResourceUtil.getResourcePath("upload-job.json");
+        MockMultipartFile file = new MockMultipartFile(
+            "file",
+            jsonFilePath.getFileName().toString(),
+            MediaType.APPLICATION_JSON_VALUE,
+            Files.readAllBytes(jsonFilePath)
+        );
+
+        String jsonResponse = mockMvc.perform(multipart("/api/books/upload/jobs")
+                .file(file))
+            .andExpect(status().isAccepted())
+            .andExpect(header().exists(HttpHeaders.LOCATION))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+        UUID id = objectMapper.readValue(jsonResponse, UploadJobDto.class).id();
+
+        UploadJobDto job = awaitUploadJob(id);
+        try {
+            assertThat(job.status()).isEqualTo(UploadJob.Status.COMPLETED);
+            assertThat(job.parsedCount()).isEqualTo(3);
+            assertThat(job.createdCount()).isEqualTo(2);
+            assertThat(job.failedCount()).isEqualTo(1);
+            assertThat(bookRepository.findByTitleAndAuthorId("A Handful of Dust", 21L)).isPresent();
+        } finally {
+            bookRepository.findByTitleAndAuthorId("The Wind's Twelve Quarters", 12L).ifPresent(bookRepository::delete);
+            bookRepository.findByTitleAndAuthorId("A Handful of Dust", 21L).ifPresent(bookRepository::delete);
+        }
+    }
+
+    @Test
+    void getBookUploadJob_givenNotExistingId_returns404() throws Exception {
+        mockMvc.perform(get("/api/books/upload/jobs/{id}", UUID.randomUUID()))
+            .andExpect(status().isNotFound());
+    }
+
+    UploadJobDto awaitUploadJob(UUID id) throws Exception {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            String jsonResponse = mockMvc.perform(get("/api/books/upload/jobs/{id}", id))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+            UploadJobDto job = objectMapper.readValue(jsonResponse, UploadJobDto.class);
+            if (job.finishedAt() != null) {
+                return job;
+            }
+            Thread.sleep(100);
+        }
+        throw new AssertionError("Upload job %s isn't finished".formatted(id));
+    }
+
     void testSearchBooks(BookFilter filter, int expectedTotalElements, Comparator<BookInfoDto> comparator) throws Exception {
         int page = filter.page() != null ? filter.page() : 0;
         int size = filter.size() != null ? filter.size() : 10;
@@ -536,8 +875,10 @@ class BookControllerIT {
             expectedBooks,
             page,
             size,
-            expectedTotalElements,
-            expectedTotalPages
+            (long) expectedTotalElements,
+            expectedTotalPages,
+            page + 1 < expectedTotalPages,
+            null
         );
 
         mockMvc.perform(post("/api/books/_list")
@@ -630,6 +971,11 @@ class BookControllerIT {
     }
 
     void testUploadJSONFile(Path jsonFilePath, int expectedCreatedCount, int expectedFailedCount)
+        throws Exception {
+        testUploadJSONFile(jsonFilePath, expectedCreatedCount, expectedFailedCount, UploadMode.BATCH);
+    }
+
+    void testUploadJSONFile(Path jsonFilePath, int expectedCreatedCount, int expectedFailedCount, UploadMode mode)
         throws Exception {
         InputStream inputStream = Files.newInputStream(jsonFilePath);
 
@@ -647,7 +993,8 @@ class BookControllerIT {
         expectedResponse.setFailedItems(List.of());
 
         mockMvc.perform(multipart("/api/books/upload")
-                .file(file))
+                .file(file)
+                .param("mode", mode.name()))
             .andExpect(status().isOk())
             .andExpect(content().contentType(MediaType.APPLICATION_JSON))
             .andExpect(content().json(objectMapper.writeValueAsString(expectedResponse)));
@@ -664,4 +1011,8 @@ class BookControllerIT {
         }
     }
 
+    private static boolean hasWordWithPrefix(String text, String prefix) {
+        return Arrays.stream(text.toLowerCase().split("[^\\p{L}\\p{N}]+")).anyMatch(word -> word.startsWith(prefix));
+    }
+
 }
@@ -0,0 +1,115 @@
+package com.melnyk.profitsoft_2.controller;
+
+import com.melnyk.profitsoft_2.config.CacheConfig;
+import com.melnyk.profitsoft_2.config.props.CacheProps;
+import com.melnyk.profitsoft_2.controller.CacheRegionsEndpoint.RegionDescriptor;
+import com.melnyk.profitsoft_2.controller.CacheRegionsEndpoint.TierDescriptor;
+import com.melnyk.profitsoft_2.dto.response.BookDetailsDto;
+import com.melnyk.profitsoft_2.service.AuthorSnapshot;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.cache.Cache;
+import org.springframework.cache.jcache.JCacheCacheManager;
+import org.springframework.util.unit.DataSize;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CacheRegionsEndpointTest {
+
+    javax.cache.CacheManager jCacheManager;
+    JCacheCacheManager cacheManager;
+    CacheRegionsEndpoint endpoint;
+    CacheRegionsJmxEndpointExtension jmxExtension;
+
+    @BeforeEach
+    void setUp() {
+        CacheProps props = new CacheProps();
+        CacheProps.Region books = new CacheProps.Region();
+        books.setOffheapSize(DataSize.ofMegabytes(1));
+        props.getRegions().put(CacheConfig.BOOK_CACHE_NAME, books);
+        jCacheManager = new CacheConfig().jCacheManager(props);
+        cacheManager = new JCacheCacheManager(jCacheManager);
+        cacheManager.afterPropertiesSet();
+        endpoint = new CacheRegionsEndpoint(cacheManager);
+        jmxExtension = new CacheRegionsJmxEndpointExtension(endpoint);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jCacheManager.close();
+    }
+
+    @Test
+    void regions_thenShowsTiersOfAllRegions() {
+        assertThat(endpoint.regions()).containsOnlyKeys(
+            CacheConfig.GENRE_CACHE_NAME, CacheConfig.AUTHOR_CACHE_NAME, CacheConfig.BOOK_CACHE_NAME,
+            CacheConfig.SEARCH_COUNT_CACHE_NAME, CacheConfig.BOOK_SEARCH_CACHE_NAME);
+        RegionDescriptor genres = endpoint.region(CacheConfig.GENRE_CACHE_NAME);
+        assertThat(genres.tiers()).containsOnlyKeys("heap");
+        assertThat(genres.tiers().get("heap").size()).isEqualTo("1000 entries");
+        assertThat(endpoint.region("UNKNOWN")).isNull();
+    }
+
+    @Test
+    void region_thenCountsMappingsOfEachTier() {
+        Cache cache = cacheManager.getCache(CacheConfig.AUTHOR_CACHE_NAME);
+        cache.put(1L, new AuthorSnapshot(1L, "First", "Last", null, null));
+        cache.put(2L, new AuthorSnapshot(2L, "First", "Last", null, null));
+
+        TierDescriptor heap = endpoint.region(CacheConfig.AUTHOR_CACHE_NAME).tiers().get("heap");
+
+        assertThat(heap.mappings()).isEqualTo(2);
+        assertThat(heap.occupiedBytes()).isEqualTo(-1);
+
+        cacheManager.getCache(CacheConfig.BOOK_CACHE_NAME).put(1L, BookDetailsDto.builder().id(1L).title("Dune").build());
+
+        TierDescriptor offheap = endpoint.region(CacheConfig.BOOK_CACHE_NAME).tiers().get("offheap");
+        assertThat(offheap.size()).isEqualTo("1048576 B");
+        assertThat(offheap.mappings()).isEqualTo(1);
+        assertThat(offheap.occupiedBytes()).isPositive();
+    }
+
+    @Test
+    void resize_thenKeepsEntriesAndSetsHeapSize() {
+        Cache cache = cacheManager.getCache(CacheConfig.AUTHOR_CACHE_NAME);
+        cache.put(1L, new AuthorSnapshot(1L, "First", "Last", null, null));
+
+        RegionDescriptor resized = jmxExtension.resize(CacheConfig.AUTHOR_CACHE_NAME, 10);
+
+        assertThat(resized.tiers().get("heap").size()).isEqualTo("10 entries");
+        assertThat(cache.get(1L)).isNotNull();
+        assertThatThrownBy(() -> jmxExtension.resize(CacheConfig.AUTHOR_CACHE_NAME, 0))
+            .isInstanceOf(InvalidEndpointRequestException.class);
+    }
+
+    @Test
+    void clear_thenRemovesAllEntries() {
+        Cache cache = cacheManager.getCache(CacheConfig.BOOK_SEARCH_CACHE_NAME);
+        cache.put("page", "books");
+
+        assertThat(jmxExtension.clear(CacheConfig.BOOK_SEARCH_CACHE_NAME)).isNotNull();
+        assertThat(cache.get("page")).isNull();
+    }
+
+    @Test
+    void regions_thenExportStatisticsToMicrometer() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        javax.cache.Cache<Object, Object> cache = jCacheManager.getCache(CacheConfig.BOOK_SEARCH_CACHE_NAME);
+        new JCacheMetrics<>(cache, Tags.empty()).bindTo(registry);
+
+        cache.put("page", "books");
+        cache.get("page");
+        cache.get("other page");
+
+        assertThat(registry.get("cache.gets").tag("result", "hit").functionCounter().count()).isOne();
+        assertThat(registry.get("cache.gets").tag("result", "miss").functionCounter().count()).isOne();
+        assertThat(registry.get("cache.puts").functionCounter().count()).isOne();
+    }
+
+}
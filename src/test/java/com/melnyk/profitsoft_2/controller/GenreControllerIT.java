@@ -194,6 +194,8 @@ class GenreControllerIT {
             null,
             null,
             null,
+            null,
+            null,
             null
         );
 
@@ -212,12 +214,32 @@ class GenreControllerIT {
             null,
             null,
             null,
+            null,
+            null,
             null
         );
 
         testSearchGenres(filter, expectedTotalElements, Comparator.comparingLong(GenreInfoDto::getId));
     }
 
+    @Test
+    @Transactional(readOnly = true)
+    void autocompleteGenres_givenWord_returnsGenresWithTheWordFirstWith200() throws Exception {
+        String content = mockMvc.perform(get("/api/genres/_autocomplete")
+                .param("query", "Fiction")
+                .param("limit", "50"))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+        List<String> names = new ArrayList<>();
+        objectMapper.readTree(content).forEach(x -> names.add(x.get("name").asString()));
+        assertThat(names.subList(0, 3))
+            .containsExactlyInAnyOrder("Fiction narrative", "Fiction in verse", "Science fiction");
+        assertThat(names).contains("Narrative nonfiction", "Metafiction");
+    }
+
     @Test
     void searchGenres_givenSortParamByMissingField_returnsGenresWith400() throws Exception {
         String invalidSort = "field,asc";
@@ -248,6 +270,8 @@ class GenreControllerIT {
             null,
             null,
             null,
+            null,
+            null,
             null
         );
 
@@ -342,8 +366,10 @@ class GenreControllerIT {
             expectedGenres,
             page,
             size,
-            expectedTotalElements,
-            expectedTotalPages
+            (long) expectedTotalElements,
+            expectedTotalPages,
+            page + 1 < expectedTotalPages,
+            null
         );
 
         mockMvc.perform(post("/api/genres/_list")
@@ -0,0 +1,300 @@
+package com.melnyk.profitsoft_2.controller;
+
+import com.melnyk.profitsoft_2.Profitsoft2Application;
+import com.melnyk.profitsoft_2.config.TestConfig;
+import com.melnyk.profitsoft_2.dto.response.ReportJobDto;
+import com.melnyk.profitsoft_2.service.BookService;
+import com.melnyk.profitsoft_2.service.impl.ReportJobServiceImpl;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Lifecycle of report jobs. Reports are written by a mocked {@link BookService}, which can be held
+ * to keep a job running.
+ */
+@SpringBootTest(
+    classes = Profitsoft2Application.class,
+    properties = {
+        "report.jobs.spool-dir=${java.io.tmpdir}/book-reports-" + ReportJobControllerIT.NAME,
+        "report.jobs.pool-size=1",
+        "report.jobs.queue-capacity=1",
+        "report.jobs.max-retained=1",
+        "report.jobs.cleanup-interval=PT1H"
+    }
+)
+@AutoConfigureMockMvc
+@Import(TestConfig.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@AutoConfigureEmbeddedDatabase(
+    provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.DEFAULT,
+    type = AutoConfigureEmbeddedDatabase.DatabaseType.POSTGRES,
+    beanName = "reportJobDatasource"
+)
+@ActiveProfiles("test")
+@EmbeddedKafka(topics = "${kafka.topics.books}")
+class ReportJobControllerIT {
+
+    static final String NAME = "report-job-it";
+    static final String REPORT = "id,title\n1,Title\n";
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    ReportJobServiceImpl reportJobService;
+
+    @MockitoBean
+    BookService bookService;
+
+    // a job writing its report waits for it, the report is written at once by default
+    volatile CountDownLatch release;
+    final AtomicBoolean interrupted = new AtomicBoolean();
+
+    @BeforeEach
+    void beforeEach() throws Exception {
+        release = new CountDownLatch(0);
+        interrupted.set(false);
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(3);
+            LongConsumer progressListener = invocation.getArgument(4);
+            try {
+                if (!release.await(10, TimeUnit.SECONDS)) {
+                    throw new IllegalStateException("Report isn't released");
+                }
+            } catch (InterruptedException e) {
+                interrupted.set(true);
+                throw e;
+            }
+            out.write(REPORT.getBytes(StandardCharsets.UTF_8));
+            progressListener.accept(2);
+            return null;
+        }).when(bookService).writeReport(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void submitBookReportJob_givenValidFilter_completesJobWith202() throws Exception {
+        ReportJobDto submitted = submit();
+
+        assertThat(submitted.createdAt()).isNotNull();
+
+        ReportJobDto job = awaitReportJob(submitted.id());
+        assertThat(job.status()).isEqualTo(ReportJobDto.Status.COMPLETED);
+        assertThat(job.rowsWritten()).isEqualTo(2);
+        assertThat(job.startedAt()).isNotNull();
+        assertThat(job.error()).isNull();
+    }
+
+    @Test
+    void getBookReportJob_givenRunningJob_returnsStatusWith200() throws Exception {
+        release = new CountDownLatch(1);
+        try {
+            UUID id = submit().id();
+
+            ReportJobDto job = awaitStatus(id, ReportJobDto.Status.RUNNING);
+            assertThat(job.startedAt()).isNotNull();
+            assertThat(job.finishedAt()).isNull();
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void getBookReportJob_givenNotExistingId_returns404() throws Exception {
+        mockMvc.perform(get("/api/books/_report/jobs/{id}", UUID.randomUUID()))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void downloadBookReport_givenCompletedJob_returnsFileWith200() throws Exception {
+        UUID id = submit().id();
+        awaitReportJob(id);
+
+        mockMvc.perform(get("/api/books/_report/jobs/{id}/file", id))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=report-" + id + ".csv"))
+            .andExpect(content().contentType("text/csv"))
+            .andExpect(content().string(REPORT));
+    }
+
+    @Test
+    void downloadBookReport_whenFileIsDeleted_returns404() throws Exception {
+        UUID id = submit().id();
+        awaitReportJob(id);
+        Files.delete(Path.of(System.getProperty("java.io.tmpdir"), "book-reports-" + NAME, id + ".csv"));
+
+        mockMvc.perform(get("/api/books/_report/jobs/{id}/file", id))
+            .andExpect(status().isNotFound())
+            .andExpect(header().doesNotExist(HttpHeaders.CONTENT_DISPOSITION));
+    }
+
+    @Test
+    void downloadBookReport_givenRunningJob_returns400() throws Exception {
+        release = new CountDownLatch(1);
+        try {
+            UUID id = submit().id();
+            awaitStatus(id, ReportJobDto.Status.RUNNING);
+
+            mockMvc.perform(get("/api/books/_report/jobs/{id}/file", id))
+                .andExpect(status().isBadRequest());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void deleteBookReportJob_givenRunningJob_cancelsJobWith204() throws Exception {
+        release = new CountDownLatch(1);
+        try {
+            UUID id = submit().id();
+            awaitStatus(id, ReportJobDto.Status.RUNNING);
+
+            mockMvc.perform(delete("/api/books/_report/jobs/{id}", id))
+                .andExpect(status().isNoContent());
+
+            mockMvc.perform(get("/api/books/_report/jobs/{id}", id))
+                .andExpect(status().isNotFound());
+            mockMvc.perform(get("/api/books/_report/jobs/{id}/file", id))
+                .andExpect(status().isNotFound());
+            awaitInterrupted();
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void deleteBookReportJob_givenCompletedJob_deletesJobWith204() throws Exception {
+        UUID id = submit().id();
+        awaitReportJob(id);
+
+        mockMvc.perform(delete("/api/books/_report/jobs/{id}", id))
+            .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/books/_report/jobs/{id}/file", id))
+            .andExpect(status().isNotFound());
+        mockMvc.perform(delete("/api/books/_report/jobs/{id}", id))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void removeExpiredJobs_givenMoreFinishedJobsThanRetained_removesOldestJobs() throws Exception {
+        UUID oldest = submit().id();
+        awaitReportJob(oldest);
+        UUID newest = submit().id();
+        awaitReportJob(newest);
+
+        reportJobService.removeExpiredJobs();
+
+        mockMvc.perform(get("/api/books/_report/jobs/{id}", oldest))
+            .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/books/_report/jobs/{id}/file", newest))
+            .andExpect(status().isOk())
+            .andExpect(content().string(REPORT));
+    }
+
+    @Test
+    void submitBookReportJob_whenQueueIsFull_returns503() throws Exception {
+        release = new CountDownLatch(1);
+        UUID running;
+        UUID queued;
+        try {
+            running = submit().id();
+            awaitStatus(running, ReportJobDto.Status.RUNNING);
+            queued = submit().id();
+
+            mockMvc.perform(post("/api/books/_report/jobs")
+                    .param("format", "CSV")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{}"))
+                .andExpect(status().isServiceUnavailable());
+        } finally {
+            release.countDown();
+        }
+
+        assertThat(awaitReportJob(running).status()).isEqualTo(ReportJobDto.Status.COMPLETED);
+        assertThat(awaitReportJob(queued).status()).isEqualTo(ReportJobDto.Status.COMPLETED);
+    }
+
+    ReportJobDto submit() throws Exception {
+        String jsonResponse = mockMvc.perform(post("/api/books/_report/jobs")
+                .param("format", "CSV")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{}"))
+            .andExpect(status().isAccepted())
+            .andExpect(header().exists(HttpHeaders.LOCATION))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+        return objectMapper.readValue(jsonResponse, ReportJobDto.class);
+    }
+
+    ReportJobDto getReportJob(UUID id) throws Exception {
+        String jsonResponse = mockMvc.perform(get("/api/books/_report/jobs/{id}", id))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+        return objectMapper.readValue(jsonResponse, ReportJobDto.class);
+    }
+
+    ReportJobDto awaitReportJob(UUID id) throws Exception {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            ReportJobDto job = getReportJob(id);
+            if (job.finishedAt() != null) {
+                return job;
+            }
+            Thread.sleep(100);
+        }
+        throw new AssertionError("Report job %s isn't finished".formatted(id));
+    }
+
+    ReportJobDto awaitStatus(UUID id, ReportJobDto.Status status) throws Exception {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            ReportJobDto job = getReportJob(id);
+            if (job.status() == status) {
+                return job;
+            }
+            Thread.sleep(100);
+        }
+        throw new AssertionError("Report job %s isn't %s".formatted(id, status));
+    }
+
+    void awaitInterrupted() throws Exception {
+        for (int attempt = 0; attempt < 100 && !interrupted.get(); attempt++) {
+            Thread.sleep(100);
+        }
+        assertThat(interrupted).isTrue();
+    }
+
+}
@@ -0,0 +1,68 @@
+package com.melnyk.profitsoft_2.event;
+
+import com.melnyk.profitsoft_2.config.CacheConfig;
+import com.melnyk.profitsoft_2.service.impl.CacheVersions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CacheInvalidationKafkaListenerTest {
+
+    static final String NODE_ID = "this-node";
+
+    @Mock
+    CacheInvalidationKafkaPublisher publisher;
+
+    Cache cache;
+
+    CacheInvalidationKafkaListener listener;
+
+    @BeforeEach
+    void setUp() {
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(CacheConfig.BOOK_CACHE_NAME);
+        cache = cacheManager.getCache(CacheConfig.BOOK_CACHE_NAME);
+        cache.put(1L, "first");
+        cache.put(2L, "second");
+        listener = new CacheInvalidationKafkaListener(cacheManager, new CacheVersions(), publisher);
+        when(publisher.getNodeId()).thenReturn(NODE_ID);
+    }
+
+    @Test
+    void on_whenSentByAnotherNode_thenEvictsKeys() {
+        listener.on(new CacheInvalidationEvent(CacheConfig.BOOK_CACHE_NAME, List.of(1L)), origin("other-node"));
+
+        assertThat(cache.get(1L)).isNull();
+        assertThat(cache.get(2L)).isNotNull();
+    }
+
+    @Test
+    void on_whenSentByThisNode_thenKeepsKeys() {
+        listener.on(new CacheInvalidationEvent(CacheConfig.BOOK_CACHE_NAME, List.of(1L, 2L)), origin(NODE_ID));
+
+        assertThat(cache.get(1L)).isNotNull();
+        assertThat(cache.get(2L)).isNotNull();
+    }
+
+    @Test
+    void on_whenCacheIsUnknown_thenIgnoresEvent() {
+        listener.on(new CacheInvalidationEvent("UNKNOWN", List.of(1L)), origin("other-node"));
+
+        assertThat(cache.get(1L)).isNotNull();
+    }
+
+    private static byte[] origin(String nodeId) {
+        return nodeId.getBytes(StandardCharsets.UTF_8);
+    }
+
+}
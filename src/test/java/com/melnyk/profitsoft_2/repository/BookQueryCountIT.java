@@ -0,0 +1,171 @@
+package com.melnyk.profitsoft_2.repository;
+
+import com.melnyk.profitsoft_2.Profitsoft2Application;
+import com.melnyk.profitsoft_2.config.TestConfig;
+import com.melnyk.profitsoft_2.dto.request.filter.CountMode;
+import com.melnyk.profitsoft_2.dto.request.filter.impl.BookFilter;
+import com.melnyk.profitsoft_2.dto.response.BookInfoDto;
+import com.melnyk.profitsoft_2.dto.response.PageDto;
+import com.melnyk.profitsoft_2.service.BookService;
+import com.melnyk.profitsoft_2.service.ReportFormat;
+import com.melnyk.profitsoft_2.service.ReportPartitioning;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Counts statements Hibernate prepares for bulk reads of books, so lazy loading of authors or genres
+ * (a statement per book or per batch of books) fails the build.
+ */
+@SpringBootTest(
+    classes = Profitsoft2Application.class,
+    properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "report.chunk-size=" + BookQueryCountIT.CHUNK_SIZE
+    }
+)
+@Import(TestConfig.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@AutoConfigureEmbeddedDatabase(
+    provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.DEFAULT,
+    type = AutoConfigureEmbeddedDatabase.DatabaseType.POSTGRES,
+    beanName = "bookQueryCountDatasource"
+)
+@ActiveProfiles("test")
+@EmbeddedKafka(topics = "${kafka.topics.books}")
+class BookQueryCountIT {
+
+    static final int CHUNK_SIZE = 500;
+    static final int AUTHOR_COUNT = 40;
+    static final int GENRE_COUNT = 10;
+    static final int BOOK_COUNT = 2 * CHUNK_SIZE + 1;
+
+    @Autowired
+    BookService bookService;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    Statistics statistics;
+
+    @BeforeAll
+    void seed() {
+        jdbcTemplate.update("""
+            INSERT INTO authors (first_name, last_name)
+            SELECT 'First' || i, 'Last' || i FROM generate_series(1, ?) i
+            """, AUTHOR_COUNT);
+        jdbcTemplate.update("""
+            INSERT INTO genres (name)
+            SELECT 'Genre ' || i FROM generate_series(1, ?) i
+            """, GENRE_COUNT);
+        long firstAuthorId = jdbcTemplate.queryForObject("SELECT min(id) FROM authors", Long.class);
+        long firstGenreId = jdbcTemplate.queryForObject("SELECT min(id) FROM genres", Long.class);
+        jdbcTemplate.update("""
+            INSERT INTO books (title, description, author_id, year_published, pages)
+            SELECT 'Title ' || i, 'Description ' || i, ? + i % ?, 1900 + i % 125, 50 + i % 1000
+            FROM generate_series(1, ?) i
+            """, firstAuthorId, AUTHOR_COUNT, BOOK_COUNT);
+        jdbcTemplate.update("""
+            INSERT INTO books_genres (book_id, genre_id)
+            SELECT id, ? + id % ? FROM books
+            UNION ALL
+            SELECT id, ? + (id + 1) % ? FROM books
+            """, firstGenreId, GENRE_COUNT, firstGenreId, GENRE_COUNT);
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @BeforeEach
+    void clearStatistics() {
+        statistics.clear();
+    }
+
+    @Test
+    void writeReport_givenSeveralChunks_selectsGenresOncePerChunk() throws Exception {
+        BookFilter filter = new BookFilter(
+            null, null, null, null, null, null, null, null,
+            null, null, null, null, null, null, null, null, null);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        bookService.writeReport(filter, ReportFormat.CSV, ReportPartitioning.NONE, out, rows -> {});
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(BOOK_COUNT + 1);
+        // the books with their authors, then the genres of each of the 3 chunks
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1 + 3);
+        assertThat(statistics.getCollectionFetchCount()).isZero();
+        assertThat(statistics.getEntityFetchCount()).isZero();
+    }
+
+    @Test
+    void search_givenPage_selectsBooksWithoutLoadingEntities() {
+        BookFilter filter = new BookFilter(
+            null, null, 1950, 2000, null, null, null, null,
+            1, 20, "yearPublished,desc", null, null, null, null, null, null);
+
+        PageDto<BookInfoDto> page = bookService.search(filter);
+
+        assertThat(page.content()).hasSize(20).allMatch(book -> book.getGenres().size() == 2);
+        // the ids, the count, the books with their authors and the genres
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getCollectionFetchCount()).isZero();
+    }
+
+    @Test
+    void search_givenCursor_selectsIdsWithoutLoadingEntities() {
+        BookFilter filter = new BookFilter(
+            null, null, null, null, null, null, null, null,
+            null, 20, "yearPublished,desc", "", null, null, null, null, null);
+
+        PageDto<BookInfoDto> first = bookService.search(filter);
+        statistics.clear();
+        PageDto<BookInfoDto> second = bookService.search(new BookFilter(
+            null, null, null, null, null, null, null, null,
+            null, 20, "yearPublished,desc", first.nextCursor(), null, null, null, null, null));
+
+        assertThat(second.content()).hasSize(20).allMatch(book -> book.getGenres().size() == 2);
+        assertThat(second.nextCursor()).isNotNull();
+        // the ids with their sort keys, the books with their authors and the genres
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getCollectionFetchCount()).isZero();
+    }
+
+    @Test
+    void search_givenNoCount_selectsIdsWithoutLoadingEntities() {
+        BookFilter filter = new BookFilter(
+            null, null, 1950, 2000, null, null, null, null,
+            1, 20, "pages,asc", null, CountMode.NONE, null, null, null, null);
+
+        PageDto<BookInfoDto> page = bookService.search(filter);
+
+        assertThat(page.content()).hasSize(20).allMatch(book -> book.getGenres().size() == 2);
+        assertThat(page.hasNext()).isTrue();
+        assertThat(page.totalElements()).isNull();
+        // the ids, the books with their authors and the genres, no count
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getCollectionFetchCount()).isZero();
+    }
+
+}
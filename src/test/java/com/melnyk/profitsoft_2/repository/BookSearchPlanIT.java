@@ -0,0 +1,231 @@
+package com.melnyk.profitsoft_2.repository;
+
+import com.melnyk.profitsoft_2.Profitsoft2Application;
+import com.melnyk.profitsoft_2.config.TestConfig;
+import com.melnyk.profitsoft_2.dto.request.filter.impl.BookFilter;
+import com.melnyk.profitsoft_2.entity.Book;
+import com.melnyk.profitsoft_2.util.PageUtil;
+import com.melnyk.profitsoft_2.util.SpecificationFactory;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs representative book searches on a seeded database and checks their plans, so a changed query
+ * or a dropped index that makes a search scan the whole table fails the build.
+ *
+ * <p>Criteria values are inlined into the captured SQL, which is explained as is. Seeded data is skewed
+ * so each filter selects well under 1% of the books, the cases are the selective searches an index must serve.</p>
+ */
+@Slf4j
+@SpringBootTest(
+    classes = Profitsoft2Application.class,
+    properties = {
+        "spring.jpa.properties.hibernate.criteria.value_handling_mode=inline",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+            + "com.melnyk.profitsoft_2.repository.StatementCapture",
+        "spring.jpa.show-sql=false"
+    }
+)
+@Import(TestConfig.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@AutoConfigureEmbeddedDatabase(
+    provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.DEFAULT,
+    type = AutoConfigureEmbeddedDatabase.DatabaseType.POSTGRES,
+    beanName = "bookPlanDatasource"
+)
+@ActiveProfiles("test")
+@EmbeddedKafka(topics = "${kafka.topics.books}")
+class BookSearchPlanIT {
+
+    static final int AUTHOR_COUNT = 2_000;
+    static final int GENRE_COUNT = 50;
+    static final int BOOK_COUNT = 100_000;
+    static final int RARE_GENRE_BOOK_COUNT = 50;
+    static final int BENCHMARK_RUNS = 20;
+
+    @Autowired
+    BookRepository bookRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    Instant seededAt;
+    long firstAuthorId;
+    long rareGenreId;
+
+    @BeforeAll
+    void seed() {
+        seededAt = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        jdbcTemplate.update("""
+            INSERT INTO authors (first_name, last_name)
+            SELECT 'First' || i, 'Last' || i FROM generate_series(1, ?) i
+            """, AUTHOR_COUNT);
+        jdbcTemplate.update("""
+            INSERT INTO genres (name)
+            SELECT 'Genre ' || i FROM generate_series(1, ?) i
+            """, GENRE_COUNT + 1);
+        firstAuthorId = jdbcTemplate.queryForObject("SELECT min(id) FROM authors", Long.class);
+        long firstGenreId = jdbcTemplate.queryForObject("SELECT min(id) FROM genres", Long.class);
+        rareGenreId = firstGenreId + GENRE_COUNT;
+
+        // a book per minute back from the seeding time, 50 books per author, 800 per year and 100 per page count
+        jdbcTemplate.update("""
+            INSERT INTO books (title, description, author_id, year_published, pages, created_at, updated_at)
+            SELECT 'Title ' || i, 'Description ' || i, ? + i % ?, 1900 + i % 125, 50 + i % 1000,
+                ?::timestamp - i * interval '1 minute', ?::timestamp - i * interval '1 minute'
+            FROM generate_series(1, ?) i
+            """,
+            firstAuthorId, AUTHOR_COUNT, seededAt.toString().replace("Z", ""), seededAt.toString().replace("Z", ""),
+            BOOK_COUNT);
+        // two common genres per book, the last genre is rare
+        jdbcTemplate.update("""
+            INSERT INTO books_genres (book_id, genre_id)
+            SELECT id, ? + id % ? FROM books
+            UNION ALL
+            SELECT id, ? + (id + 7) % ? FROM books
+            UNION ALL
+            SELECT id, ? FROM books WHERE id % ? = 0
+            """,
+            firstGenreId, GENRE_COUNT, firstGenreId, GENRE_COUNT, rareGenreId, BOOK_COUNT / RARE_GENRE_BOOK_COUNT);
+        jdbcTemplate.execute("ANALYZE authors, genres, books, books_genres");
+    }
+
+    @Test
+    void search_byAuthorIds_usesAuthorIndex() {
+        Set<Long> authorIds = Set.of(firstAuthorId, firstAuthorId + 10, firstAuthorId + 20);
+        assertPlan(filter(authorIds, null, null, null, null, null, null, "id,asc"), "idx_books_author_id_id");
+    }
+
+    @Test
+    void search_byYearPublished_usesYearIndex() {
+        assertPlan(filter(null, null, 1950, 1950, null, null, null, "yearPublished,asc"), "idx_books_year_published_id");
+    }
+
+    @Test
+    void search_byPages_usesPagesIndex() {
+        assertPlan(filter(null, null, null, null, 500, 500, null, "pages,desc"), "idx_books_pages_id");
+    }
+
+    @Test
+    void search_byCreatedAt_usesCreatedAtIndex() {
+        Instant end = seededAt.minus(1, ChronoUnit.DAYS);
+        assertPlan(
+            filter(null, null, null, null, null, null, new Instant[] { end.minus(1, ChronoUnit.HOURS), end, null, null },
+                "createdAt,desc"),
+            "idx_books_created_at_id"
+        );
+    }
+
+    @Test
+    void search_byUpdatedAt_usesUpdatedAtIndex() {
+        Instant end = seededAt.minus(2, ChronoUnit.DAYS);
+        assertPlan(
+            filter(null, null, null, null, null, null, new Instant[] { null, null, end.minus(1, ChronoUnit.HOURS), end },
+                "updatedAt,asc"),
+            "idx_books_updated_at_id"
+        );
+    }
+
+    @Test
+    void search_byRareGenre_usesGenreIndex() {
+        assertPlan(filter(null, Set.of(rareGenreId), null, null, null, null, null, "id,asc"),
+            "idx_books_genres_genre_id_book_id");
+    }
+
+    /**
+     * Runs the id and count queries of the search, checks that the id query uses the index and neither
+     * of them scans the books table, and logs the average time of the search.
+     */
+    private void assertPlan(BookFilter filter, String expectedIndex) {
+        Specification<Book> spec = SpecificationFactory.createForBook(filter);
+        Pageable pageable = PageRequest.of(0, 10, PageUtil.parseSort(filter.sort(), "id,asc"));
+
+        StatementCapture.clear();
+        long start = System.nanoTime();
+        for (int i = 0; i < BENCHMARK_RUNS; i++) {
+            transactionTemplate.executeWithoutResult(status -> bookRepository.findIds(spec, pageable));
+        }
+        log.info("Book search {} took {} us on average",
+            filter, (System.nanoTime() - start) / BENCHMARK_RUNS / 1_000);
+
+        List<String> statements = StatementCapture.statements();
+        String idQuery = statements.stream().filter(sql -> sql.contains(" fetch first ")).findFirst().orElseThrow();
+        String countQuery = statements.stream().filter(sql -> sql.startsWith("select count(")).findFirst().orElseThrow();
+
+        List<JsonNode> idPlan = explain(idQuery.replaceAll("offset \\? rows", "offset 0 rows")
+            .replaceAll("fetch first \\? rows", "fetch first " + pageable.getPageSize() + " rows"));
+        List<JsonNode> countPlan = explain(countQuery);
+
+        assertThat(idPlan).as(idQuery)
+            .anyMatch(node -> expectedIndex.equals(node.path("Index Name").asString(null)))
+            .noneMatch(BookSearchPlanIT::isBooksSeqScan);
+        assertThat(countPlan).as(countQuery).noneMatch(BookSearchPlanIT::isBooksSeqScan);
+    }
+
+    /**
+     * Returns all nodes of the plan of the query.
+     */
+    private List<JsonNode> explain(String sql) {
+        assertThat(sql).as("all values are inlined").doesNotContain("?");
+        String json = jdbcTemplate.queryForObject("EXPLAIN (FORMAT JSON) " + sql, String.class);
+        List<JsonNode> nodes = new ArrayList<>();
+        collectNodes(objectMapper.readTree(json).get(0).get("Plan"), nodes);
+        return nodes;
+    }
+
+    private static void collectNodes(JsonNode node, List<JsonNode> nodes) {
+        nodes.add(node);
+        node.path("Plans").forEach(child -> collectNodes(child, nodes));
+    }
+
+    private static boolean isBooksSeqScan(JsonNode node) {
+        return "Seq Scan".equals(node.path("Node Type").asString(null))
+            && "books".equals(node.path("Relation Name").asString(null));
+    }
+
+    private static BookFilter filter(
+        Set<Long> authorIds,
+        Set<Long> genreIds,
+        Integer minYearPublished,
+        Integer maxYearPublished,
+        Integer minPages,
+        Integer maxPages,
+        Instant[] timestamps,
+        String sort
+    ) {
+        Instant[] time = timestamps != null ? timestamps : new Instant[4];
+        return new BookFilter(
+            null, null, minYearPublished, maxYearPublished, authorIds, minPages, maxPages, genreIds,
+            0, 10, sort, null, null, time[0], time[1], time[2], time[3]);
+    }
+
+}
@@ -0,0 +1,30 @@
+package com.melnyk.profitsoft_2.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Records SQL statements prepared by Hibernate, registered by
+ * {@code hibernate.session_factory.statement_inspector}.
+ */
+public class StatementCapture implements StatementInspector {
+
+    private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.add(sql);
+        return sql;
+    }
+
+    public static List<String> statements() {
+        return List.copyOf(STATEMENTS);
+    }
+
+    public static void clear() {
+        STATEMENTS.clear();
+    }
+
+}
@@ -0,0 +1,28 @@
+package com.melnyk.profitsoft_2.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReportFormatTest {
+
+    @Test
+    void fromAcceptHeader_givenQualities_thenPicksFormatOfHighestQuality() {
+        assertThat(ReportFormat.fromAcceptHeader("text/csv;q=0.1, application/x-ndjson"))
+            .isEqualTo(ReportFormat.NDJSON);
+        assertThat(ReportFormat.fromAcceptHeader("*/*;q=0.5, text/csv;q=0.8"))
+            .isEqualTo(ReportFormat.CSV);
+    }
+
+    @Test
+    void fromAcceptHeader_givenEqualQualities_thenPicksMostSpecificFormat() {
+        assertThat(ReportFormat.fromAcceptHeader("*/*, text/csv")).isEqualTo(ReportFormat.CSV);
+    }
+
+    @Test
+    void fromAcceptHeader_givenOnlyUnacceptableOrUnknownTypes_thenPicksExcel() {
+        assertThat(ReportFormat.fromAcceptHeader("text/csv;q=0, text/html")).isEqualTo(ReportFormat.EXCEL);
+        assertThat(ReportFormat.fromAcceptHeader(null)).isEqualTo(ReportFormat.EXCEL);
+    }
+
+}
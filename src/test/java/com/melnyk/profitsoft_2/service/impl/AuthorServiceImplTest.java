@@ -11,6 +11,7 @@ import com.melnyk.profitsoft_2.entity.Author;
 import com.melnyk.profitsoft_2.exception.ResourceNotFoundException;
 import com.melnyk.profitsoft_2.mapper.AuthorMapper;
 import com.melnyk.profitsoft_2.repository.AuthorRepository;
+import com.melnyk.profitsoft_2.service.AuthorSnapshot;
 import com.melnyk.profitsoft_2.util.PageUtil;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -49,6 +50,12 @@ class AuthorServiceImplTest {
     @Mock
     PaginationProps paginationProps;
 
+    @Mock
+    BookSearchCache bookSearchCache;
+
+    @Mock
+    BookSuggestIndex bookSuggestIndex;
+
     @InjectMocks
     AuthorServiceImpl authorService;
 
@@ -121,7 +128,7 @@ class AuthorServiceImplTest {
         AuthorDetailsDto dto = new AuthorDetailsDto(1L, "firstName1", "lastName1", FIXED_CREATED_AT, FIXED_CREATED_AT);
 
         when(authorRepository.findById(1L)).thenReturn(Optional.of(entity));
-        when(authorMapper.toDetailsDto(entity)).thenReturn(dto);
+        when(authorMapper.toDetailsDto(AuthorSnapshot.of(entity))).thenReturn(dto);
 
         AuthorDetailsDto result = authorService.getById(1L);
 
@@ -139,7 +146,7 @@ class AuthorServiceImplTest {
     @Test
     void search_whenFilterIsValid_thenReturnsPagedResult() {
         Pageable pageable = PageRequest.of(0, 10);
-        AuthorFilter filter = new AuthorFilter(null, null, null, 0, 10, null, null, null, null, null);
+        AuthorFilter filter = new AuthorFilter(null, null, null, 0, 10, null, null, null, null, null, null, null);
         Author entity = Author.builder()
             .id(1L)
             .firstName("firstName1")
@@ -200,6 +207,8 @@ class AuthorServiceImplTest {
         AuthorDetailsDto result = authorService.updateById(1L, req);
 
         assertThat(result).isEqualTo(dto);
+        verify(bookSearchCache).evictAuthor(1L);
+        verify(bookSuggestIndex).putAuthorBooks(1L);
     }
 
     @Test
@@ -252,4 +261,16 @@ class AuthorServiceImplTest {
             .isInstanceOf(ResourceNotFoundException.class);
     }
 
-}
\ No newline at end of file
+    @Test
+    void autocomplete_whenQueryHasCaseAndSpaces_thenSearchesNormalizedQuery() {
+        Author entity = Author.builder().id(1L).firstName("Logan").lastName("Stanton").build();
+        AuthorInfoDto dto = new AuthorInfoDto(1L, "Logan", "Stanton");
+        when(authorRepository.findMostSimilar("sci_", "%sci\\_%", 5)).thenReturn(List.of(entity));
+        when(authorMapper.toInfoDto(entity)).thenReturn(dto);
+
+        assertThat(authorService.autocomplete(" SCI_ ", 5)).containsExactly(dto);
+        assertThat(authorService.autocomplete(" ", 5)).isEmpty();
+        verifyNoMoreInteractions(authorRepository);
+    }
+
+}
@@ -0,0 +1,102 @@
+package com.melnyk.profitsoft_2.service.impl;
+
+import com.melnyk.profitsoft_2.dto.response.BookInfoDto;
+import com.melnyk.profitsoft_2.service.ExcelReportService.SheetPartition;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BookExcelReportServiceTest {
+
+    final BookExcelReportService reportService = new BookExcelReportService();
+
+    ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void writePartitioned_whenPartitionsExceedBuffer_thenWritesSheetsInOrder() throws Exception {
+        List<SheetPartition<BookInfoDto>> partitions = List.of(
+            partition("Drama", 1, 300),
+            partition("Fantasy", 301, 350),
+            partition("Drama", 351, 351),
+            partition("Empty", 0, -1)
+        );
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        AtomicLong rowsWritten = new AtomicLong();
+
+        reportService.writePartitioned(partitions, executor, 10, out, rowsWritten::addAndGet);
+
+        assertThat(rowsWritten).hasValue(351);
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            assertThat(workbook.getNumberOfSheets()).isEqualTo(4);
+            assertThat(workbook.getSheetName(0)).isEqualTo("Drama");
+            assertThat(workbook.getSheetName(1)).isEqualTo("Fantasy");
+            assertThat(workbook.getSheetName(2)).isEqualTo("Drama (2)");
+            assertThat(workbook.getSheetName(3)).isEqualTo("Empty");
+
+            Sheet drama = workbook.getSheetAt(0);
+            assertThat(drama.getRow(0).getCell(0).getStringCellValue()).isEqualTo("id");
+            assertThat(drama.getLastRowNum()).isEqualTo(300);
+            assertThat(drama.getRow(300).getCell(0).getNumericCellValue()).isEqualTo(300);
+
+            assertThat(workbook.getSheetAt(1).getRow(1).getCell(0).getNumericCellValue()).isEqualTo(301);
+            assertThat(workbook.getSheetAt(2).getLastRowNum()).isEqualTo(1);
+            assertThat(workbook.getSheetAt(3).getLastRowNum()).isZero();
+        }
+    }
+
+    @Test
+    void writePartitioned_whenProducerFails_thenRethrowsException() {
+        List<SheetPartition<BookInfoDto>> partitions = List.of(
+            partition("Drama", 1, 1000),
+            new SheetPartition<>("Broken", sink -> {
+                throw new IllegalStateException("Connection lost");
+            })
+        );
+
+        assertThatThrownBy(() -> reportService.writePartitioned(partitions, executor, 10, new ByteArrayOutputStream(), rows -> { }))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("Connection lost");
+    }
+
+    @Test
+    void writePartitioned_whenNoPartitions_thenWritesSingleEmptySheet() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        reportService.writePartitioned(List.of(), executor, 10, out, rows -> { });
+
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            assertThat(workbook.getNumberOfSheets()).isEqualTo(1);
+            assertThat(workbook.getSheetAt(0).getLastRowNum()).isZero();
+        }
+    }
+
+    SheetPartition<BookInfoDto> partition(String name, long fromId, long toId) {
+        return new SheetPartition<>(name, sink -> LongStream.rangeClosed(fromId, toId)
+            .mapToObj(id -> BookInfoDto.builder().id(id).title("Book " + id).build())
+            .forEach(sink));
+    }
+
+}
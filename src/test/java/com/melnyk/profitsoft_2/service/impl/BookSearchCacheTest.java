@@ -0,0 +1,136 @@
+package com.melnyk.profitsoft_2.service.impl;
+
+import com.melnyk.profitsoft_2.config.CacheConfig;
+import com.melnyk.profitsoft_2.dto.request.filter.CountMode;
+import com.melnyk.profitsoft_2.dto.request.filter.SearchMode;
+import com.melnyk.profitsoft_2.dto.request.filter.impl.BookFilter;
+import com.melnyk.profitsoft_2.dto.response.AuthorInfoDto;
+import com.melnyk.profitsoft_2.dto.response.BookInfoDto;
+import com.melnyk.profitsoft_2.dto.response.GenreInfoDto;
+import com.melnyk.profitsoft_2.dto.response.PageDto;
+import com.melnyk.profitsoft_2.entity.Book;
+import com.melnyk.profitsoft_2.repository.BookRepository;
+import com.melnyk.profitsoft_2.service.impl.BookSearchCache.BookState;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class BookSearchCacheTest {
+
+    final ConcurrentMapCacheManager cacheManager =
+        new ConcurrentMapCacheManager(CacheConfig.BOOK_SEARCH_CACHE_NAME, CacheConfig.SEARCH_COUNT_CACHE_NAME);
+    final SearchCountServiceImpl searchCountService = new SearchCountServiceImpl(null, cacheManager);
+    final BookSearchCache bookSearchCache = new BookSearchCache(cacheManager, searchCountService);
+
+    final Pageable pageable = PageRequest.of(0, 10, Sort.by("id"));
+
+    final BookInfoDto book = BookInfoDto.builder()
+        .id(1L)
+        .title("Dune")
+        .author(new AuthorInfoDto(10L, "Frank", "Herbert"))
+        .yearPublished(1965)
+        .pages(412)
+        .genres(List.of(new GenreInfoDto(100L, "Sci-Fi")))
+        .build();
+
+    final AtomicInteger loadCount = new AtomicInteger();
+    final Supplier<PageDto<BookInfoDto>> loader = () -> {
+        loadCount.incrementAndGet();
+        return new PageDto<>(List.of(book), 0, 10, 1L, 1, false, null);
+    };
+
+    @Test
+    void get_whenSameFilterDiffersOnlyInCase_thenLoadsOnce() {
+        bookSearchCache.get(filter("DUNE", null), pageable, loader);
+        PageDto<BookInfoDto> result = bookSearchCache.get(filter("dune", null), pageable, loader);
+
+        assertThat(result.content()).containsExactly(book);
+        assertThat(loadCount).hasValue(1);
+    }
+
+    @Test
+    void evictBooks_whenBookMatchesOnlyOneFilter_thenEvictsOnlyItsPages() {
+        bookSearchCache.get(filter("dune", null), pageable, loader);
+        bookSearchCache.get(filter("tolkien", null), pageable, loader);
+
+        bookSearchCache.evictBooks(List.of(new BookState("Dune Messiah", 10L, 1969, 256, Set.of(100L), null, null)));
+        bookSearchCache.get(filter("dune", null), pageable, loader);
+        bookSearchCache.get(filter("tolkien", null), pageable, loader);
+
+        assertThat(loadCount).hasValue(3);
+    }
+
+    @Test
+    void evictGenreAndAuthor_whenPagesShowOrFilterThem_thenEvictsOnlyThesePages() {
+        bookSearchCache.get(filter("dune", null), pageable, loader);
+        bookSearchCache.get(filter(null, Set.of(200L)), pageable, () -> new PageDto<>(List.of(), 0, 10, 0L, 0, false, null));
+
+        bookSearchCache.evictGenre(100L);
+        bookSearchCache.get(filter("dune", null), pageable, loader);
+        assertThat(loadCount).hasValue(2);
+
+        bookSearchCache.evictAuthor(11L);
+        bookSearchCache.get(filter("dune", null), pageable, loader);
+        assertThat(loadCount).hasValue(2);
+
+        bookSearchCache.evictAuthor(10L);
+        bookSearchCache.get(filter("dune", null), pageable, loader);
+        assertThat(loadCount).hasValue(3);
+    }
+
+    @Test
+    void evictBooksAndAuthor_whenFilterSearchesFullText_thenEvictsItsPages() {
+        BookFilter fullTextFilter = filter("herbert", SearchMode.FULL_TEXT, null);
+        bookSearchCache.get(fullTextFilter, pageable, loader);
+
+        // the title doesn't contain the query, but the author name or the description may
+        bookSearchCache.evictBooks(List.of(new BookState("Children of Dune", 10L, 1976, 444, Set.of(100L), null, null)));
+        bookSearchCache.get(fullTextFilter, pageable, loader);
+        assertThat(loadCount).hasValue(2);
+
+        bookSearchCache.evictAuthor(11L);
+        bookSearchCache.get(fullTextFilter, pageable, loader);
+        assertThat(loadCount).hasValue(3);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void evictBooks_whenFilterCountIsCached_thenEvictsCount() {
+        BookRepository bookRepository = mock(BookRepository.class);
+        Specification<Book> spec = mock(Specification.class);
+        when(bookRepository.count(spec)).thenReturn(1L);
+        BookFilter cachedCountFilter = new BookFilter(
+            "dune", null, null, null, null, null, null, null, 0, 10, "id,asc", null, CountMode.CACHED,
+            null, null, null, null);
+        Supplier<PageDto<BookInfoDto>> countingLoader = () -> new PageDto<>(searchCountService.withTotal(
+            Book.class, bookRepository, spec, new SliceImpl<>(List.of(book), pageable, false), cachedCountFilter));
+
+        bookSearchCache.get(cachedCountFilter, pageable, countingLoader);
+        bookSearchCache.evictBooks(List.of(new BookState("Dune Messiah", 10L, 1969, 256, Set.of(100L), null, null)));
+        bookSearchCache.get(cachedCountFilter, pageable, countingLoader);
+
+        verify(bookRepository, times(2)).count(spec);
+    }
+
+    private BookFilter filter(String query, Set<Long> genreIds) {
+        return filter(query, null, genreIds);
+    }
+
+    private BookFilter filter(String query, SearchMode search, Set<Long> genreIds) {
+        return new BookFilter(
+            query, search, null, null, null, null, null, genreIds, 0, 10, "id,asc", null, null, null, null, null, null);
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.melnyk.profitsoft_2.service.impl;
+
+import com.melnyk.profitsoft_2.dto.response.AuthorInfoDto;
+import com.melnyk.profitsoft_2.dto.response.BookDetailsDto;
+import com.melnyk.profitsoft_2.repository.BookRepository;
+import com.melnyk.profitsoft_2.repository.BookTitleView;
+import com.melnyk.profitsoft_2.util.PrefixIndex.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BookSuggestIndexTest {
+
+    final BookRepository bookRepository = mock(BookRepository.class);
+    final BookSuggestIndex bookSuggestIndex = new BookSuggestIndex(bookRepository, mock(TransactionTemplate.class));
+
+    final AuthorInfoDto herbert = new AuthorInfoDto(10L, "Frank", "Herbert");
+
+    @BeforeEach
+    void setUp() {
+        bookSuggestIndex.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookSuggestIndex.destroy();
+    }
+
+    @Test
+    void suggest_whenBooksPutUpdatedAndRemoved_thenReturnsCurrentBooks() {
+        bookSuggestIndex.put(book(1L, "Dune", herbert));
+        bookSuggestIndex.put(book(2L, "Dune Messiah", herbert));
+        bookSuggestIndex.put(book(2L, "Messiah of Dune", herbert));
+        bookSuggestIndex.remove(1L);
+
+        assertThat(bookSuggestIndex.suggest("dune", 10)).containsExactly(new Document(2L, "Messiah of Dune", "Frank Herbert"));
+        assertThat(bookSuggestIndex.suggest("herb mess", 10)).hasSize(1);
+    }
+
+    @Test
+    void suggest_whenChangesAreMergedIntoIndex_thenReturnsAllBooks() {
+        for (long id = 1; id <= 2000; id++) {
+            bookSuggestIndex.put(book(id, "Book " + id, herbert));
+        }
+        bookSuggestIndex.remove(1L);
+
+        assertThat(bookSuggestIndex.suggest("book", 3)).extracting(Document::id).containsExactly(2L, 3L, 4L);
+        assertThat(bookSuggestIndex.suggest("book 200", 10)).extracting(Document::id).containsExactly(200L, 2000L);
+    }
+
+    @Test
+    void putAuthorBooks_whenAuthorRenamed_thenMatchesNewName() {
+        bookSuggestIndex.put(book(1L, "Dune", herbert));
+        when(bookRepository.findTitleViewsByAuthorId(10L))
+            .thenReturn(List.of(new BookTitleView(1L, "Dune", 10L, "Frank", "Herbert Jr.")));
+
+        bookSuggestIndex.putAuthorBooks(10L);
+
+        assertThat(bookSuggestIndex.suggest("jr", 10)).extracting(Document::id).containsExactly(1L);
+    }
+
+    private static BookDetailsDto book(Long id, String title, AuthorInfoDto author) {
+        return BookDetailsDto.builder().id(id).title(title).author(author).build();
+    }
+
+}
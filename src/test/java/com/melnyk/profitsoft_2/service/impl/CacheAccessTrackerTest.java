@@ -0,0 +1,39 @@
+package com.melnyk.profitsoft_2.service.impl;
+
+import com.melnyk.profitsoft_2.config.CacheConfig;
+import com.melnyk.profitsoft_2.config.props.CacheProps;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheAccessTrackerTest {
+
+    final CacheProps cacheProps = new CacheProps();
+    CacheAccessTracker cacheAccessTracker;
+
+    @BeforeEach
+    void setUp() {
+        cacheProps.getWarmup().setMaxAuthors(2);
+        cacheAccessTracker = new CacheAccessTracker(cacheProps);
+        cacheAccessTracker.init();
+    }
+
+    @Test
+    void getRecentKeys_whenMoreKeysAreAccessedThanKept_thenKeepsMostRecentOnes() {
+        for (long id = 1; id <= 5; id++) {
+            cacheAccessTracker.onAccess(CacheConfig.AUTHOR_CACHE_NAME, id);
+        }
+        cacheAccessTracker.onAccess(CacheConfig.AUTHOR_CACHE_NAME, 4L);
+
+        assertThat(cacheAccessTracker.getRecentKeys(CacheConfig.AUTHOR_CACHE_NAME, 10)).containsExactly(4L, 5L);
+    }
+
+    @Test
+    void getRecentKeys_whenCacheIsNotTracked_thenReturnsNoKeys() {
+        cacheAccessTracker.onAccess(CacheConfig.GENRE_CACHE_NAME, 1L);
+
+        assertThat(cacheAccessTracker.getRecentKeys(CacheConfig.GENRE_CACHE_NAME, 10)).isEmpty();
+    }
+
+}
@@ -0,0 +1,70 @@
+package com.melnyk.profitsoft_2.service.impl;
+
+import com.melnyk.profitsoft_2.config.CacheConfig;
+import com.melnyk.profitsoft_2.config.props.CacheProps;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CacheRefreshAheadTest {
+
+    final CacheProps cacheProps = new CacheProps();
+    CacheRefreshAhead cacheRefreshAhead;
+
+    @BeforeEach
+    void setUp() {
+        CacheProps.Region region = new CacheProps.Region();
+        region.setRefreshAfter(Duration.ofMillis(50));
+        cacheProps.getRegions().put(CacheConfig.BOOK_CACHE_NAME, region);
+        cacheRefreshAhead = new CacheRefreshAhead(cacheProps);
+        cacheRefreshAhead.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        cacheRefreshAhead.destroy();
+    }
+
+    @Test
+    void onHit_whenEntryIsOlderThanRefreshAfter_thenReloadsIt() throws Exception {
+        CountDownLatch reloaded = new CountDownLatch(1);
+        cacheRefreshAhead.onLoad(CacheConfig.BOOK_CACHE_NAME, 1L);
+
+        cacheRefreshAhead.onHit(CacheConfig.BOOK_CACHE_NAME, 1L, reloaded::countDown);
+        assertThat(reloaded.getCount()).isOne();
+
+        Thread.sleep(100);
+        cacheRefreshAhead.onHit(CacheConfig.BOOK_CACHE_NAME, 1L, reloaded::countDown);
+        assertThat(reloaded.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void onHit_whenRegionIsNotRefreshed_thenNeverReloads() throws Exception {
+        AtomicInteger reloads = new AtomicInteger();
+        cacheRefreshAhead.onLoad(CacheConfig.AUTHOR_CACHE_NAME, 1L);
+
+        Thread.sleep(100);
+        cacheRefreshAhead.onHit(CacheConfig.AUTHOR_CACHE_NAME, 1L, reloads::incrementAndGet);
+        cacheRefreshAhead.destroy();
+
+        assertThat(reloads).hasValue(0);
+    }
+
+    @Test
+    void init_whenRefreshAfterIsNotLessThanTtl_thenThrows() {
+        CacheProps.Region region = cacheProps.getRegions().get(CacheConfig.BOOK_CACHE_NAME);
+        region.setRefreshAfter(region.getTimeToLive());
+        CacheRefreshAhead invalid = new CacheRefreshAhead(cacheProps);
+
+        assertThatThrownBy(invalid::init).isInstanceOf(IllegalStateException.class);
+    }
+
+}
@@ -0,0 +1,85 @@
+package com.melnyk.profitsoft_2.service.impl;
+
+import com.melnyk.profitsoft_2.config.CacheConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheVersionsTest {
+
+    final CacheVersions cacheVersions = new CacheVersions();
+    final Cache cache = new ConcurrentMapCache(CacheConfig.BOOK_CACHE_NAME);
+
+    @Test
+    void putIfUnchanged_whenEntryIsNotChanged_thenPutsLoadedEntry() {
+        long version = cacheVersions.get(cache, 1L);
+
+        assertThat(cacheVersions.putIfUnchanged(cache, 1L, "loaded", version)).isTrue();
+        assertThat(cache.get(1L, String.class)).isEqualTo("loaded");
+    }
+
+    @Test
+    void putIfUnchanged_whenUpdateIsPutDuringRefresh_thenKeepsUpdatedEntry() throws Exception {
+        cache.put(1L, "old");
+        CountDownLatch rowRead = new CountDownLatch(1);
+        CountDownLatch updated = new CountDownLatch(1);
+
+        // the refresh reads the row before the update commits and puts it after the update is cached
+        CompletableFuture<Boolean> refresh = CompletableFuture.supplyAsync(() -> {
+            long version = cacheVersions.get(cache, 1L);
+            String row = "old";
+            rowRead.countDown();
+            await(updated);
+            return cacheVersions.putIfUnchanged(cache, 1L, row, version);
+        });
+        await(rowRead);
+        cacheVersions.put(cache, 1L, "new");
+        updated.countDown();
+
+        assertThat(refresh.get(5, TimeUnit.SECONDS)).isFalse();
+        assertThat(cache.get(1L, String.class)).isEqualTo("new");
+    }
+
+    @Test
+    void putIfUnchanged_whenEntryIsEvictedDuringLoad_thenDoesNotCacheIt() {
+        long version = cacheVersions.get(cache, 1L);
+        cacheVersions.evict(cache, 1L);
+
+        assertThat(cacheVersions.putIfUnchanged(cache, 1L, "deleted", version)).isFalse();
+        assertThat(cache.get(1L)).isNull();
+    }
+
+    @Test
+    void putIfUnchanged_whenUpdateIsPutBetweenCheckAndPut_thenEvictsEntry() {
+        // the update bumps the version and is cached right before the loaded entry overwrites it
+        Cache racingCache = new ConcurrentMapCache(CacheConfig.BOOK_CACHE_NAME) {
+            @Override
+            public void put(Object key, Object value) {
+                if ("old".equals(value)) {
+                    cacheVersions.put(this, key, "new");
+                }
+                super.put(key, value);
+            }
+        };
+        long version = cacheVersions.get(racingCache, 1L);
+
+        assertThat(cacheVersions.putIfUnchanged(racingCache, 1L, "old", version)).isFalse();
+        assertThat(racingCache.get(1L)).isNull();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -0,0 +1,122 @@
+package com.melnyk.profitsoft_2.service.impl;
+
+import com.melnyk.profitsoft_2.config.CacheConfig;
+import com.melnyk.profitsoft_2.config.props.CacheProps;
+import com.melnyk.profitsoft_2.service.AuthorService;
+import com.melnyk.profitsoft_2.service.BookService;
+import com.melnyk.profitsoft_2.service.GenreService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.health.contributor.Status;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import tools.jackson.databind.ObjectMapper;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CacheWarmerTest {
+
+    @Mock
+    GenreService genreService;
+
+    @Mock
+    AuthorService authorService;
+
+    @Mock
+    BookService bookService;
+
+    @TempDir
+    Path tempDir;
+
+    final ObjectMapper objectMapper = new ObjectMapper();
+    final CacheProps cacheProps = new CacheProps();
+
+    CacheAccessTracker cacheAccessTracker;
+    CacheWarmer cacheWarmer;
+
+    @BeforeEach
+    void setUp() {
+        cacheProps.getWarmup().setHotKeysFile(tempDir.resolve("hot-keys.json"));
+        cacheProps.getWarmup().setBatchSize(2);
+        cacheProps.getWarmup().setMaxBooks(2);
+        cacheAccessTracker = new CacheAccessTracker(cacheProps);
+        cacheAccessTracker.init();
+        cacheWarmer = new CacheWarmer(cacheProps, genreService, authorService, bookService, cacheAccessTracker,
+            objectMapper);
+    }
+
+    @Test
+    void run_givenHotKeysFile_thenLoadsEntriesInBatchesAndIsUp() throws Exception {
+        Files.writeString(tempDir.resolve("hot-keys.json"), """
+            {"bookIds": [1, 2, 3], "authorIds": [10]}
+            """);
+        when(genreService.cacheAll()).thenReturn(5);
+        when(authorService.findAllByIds(List.of(10L))).thenReturn(List.of());
+        when(bookService.cacheAllByIds(List.of(1L, 2L))).thenReturn(2);
+        when(bookService.cacheAllByIds(List.of(3L))).thenReturn(1);
+
+        assertThat(cacheWarmer.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+        cacheWarmer.run(null);
+
+        assertThat(cacheWarmer.health().getStatus()).isEqualTo(Status.UP);
+        assertThat(cacheWarmer.health().getDetails())
+            .containsEntry("genres", 5)
+            .containsEntry("authors", 0)
+            .containsEntry("books", 3);
+    }
+
+    @Test
+    void run_whenHotKeysFileIsMissing_thenLoadsGenresOnly() {
+        cacheWarmer.run(null);
+
+        verify(genreService).cacheAll();
+        verify(authorService, never()).findAllByIds(any());
+        verify(bookService, never()).cacheAllByIds(any());
+        assertThat(cacheWarmer.health().getStatus()).isEqualTo(Status.UP);
+    }
+
+    @Test
+    void run_whenLoadingFails_thenIsUp() {
+        when(genreService.cacheAll()).thenThrow(new IllegalStateException("Database is unavailable"));
+
+        cacheWarmer.run(null);
+
+        assertThat(cacheWarmer.health().getStatus()).isEqualTo(Status.UP);
+        assertThat(cacheWarmer.health().getDetails()).containsEntry("error", "Database is unavailable");
+    }
+
+    @Test
+    void saveHotKeys_whenContextIsClosed_thenWritesMostRecentlyAccessedIds() throws Exception {
+        cacheAccessTracker.onAccess(CacheConfig.BOOK_CACHE_NAME, 7L);
+        cacheAccessTracker.onAccess(CacheConfig.BOOK_CACHE_NAME, 8L);
+        cacheAccessTracker.onAccess(CacheConfig.BOOK_CACHE_NAME, 9L);
+        cacheAccessTracker.onAccess(CacheConfig.BOOK_CACHE_NAME, 7L);
+        cacheAccessTracker.onAccess(CacheConfig.AUTHOR_CACHE_NAME, 70L);
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.registerBean(CacheWarmer.class, () -> cacheWarmer);
+        context.refresh();
+
+        context.close();
+
+        assertThat(objectMapper.readValue(tempDir.resolve("hot-keys.json").toFile(), CacheWarmer.HotKeys.class))
+            .isEqualTo(new CacheWarmer.HotKeys(List.of(7L, 9L), List.of(70L)));
+
+        cacheWarmer.run(null);
+
+        verify(bookService).cacheAllByIds(List.of(7L, 9L));
+        verify(authorService).findAllByIds(List.of(70L));
+    }
+
+}
@@ -1,5 +1,6 @@
 package com.melnyk.profitsoft_2.service.impl;
 
+import com.melnyk.profitsoft_2.config.CacheConfig;
 import com.melnyk.profitsoft_2.config.props.PaginationProps;
 import com.melnyk.profitsoft_2.dto.request.GenreRequestDto;
 import com.melnyk.profitsoft_2.dto.request.filter.PageFilter;
@@ -12,16 +13,22 @@ import com.melnyk.profitsoft_2.exception.ResourceAlreadyExistsException;
 import com.melnyk.profitsoft_2.exception.ResourceNotFoundException;
 import com.melnyk.profitsoft_2.mapper.GenreMapper;
 import com.melnyk.profitsoft_2.repository.GenreRepository;
+import com.melnyk.profitsoft_2.repository.KeysetQueryExecutor;
+import com.melnyk.profitsoft_2.repository.KeysetQueryExecutor.KeysetSlice;
+import com.melnyk.profitsoft_2.service.GenreSnapshot;
 import com.melnyk.profitsoft_2.util.PageUtil;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.transaction.support.TransactionCallback;
 import org.springframework.transaction.support.TransactionTemplate;
@@ -49,6 +56,12 @@ class GenreServiceImplTest {
     @Mock
     PaginationProps paginationProps;
 
+    @Mock
+    BookSearchCache bookSearchCache;
+
+    @Mock
+    KeysetQueryExecutor keysetQueryExecutor;
+
     @InjectMocks
     GenreServiceImpl genreService;
 
@@ -114,7 +127,7 @@ class GenreServiceImplTest {
         GenreDetailsDto dto = new GenreDetailsDto(1L, "Drama", FIXED_CREATED_AT, FIXED_CREATED_AT);
 
         when(genreRepository.findById(1L)).thenReturn(Optional.of(entity));
-        when(genreMapper.toDetailsDto(entity)).thenReturn(dto);
+        when(genreMapper.toDetailsDto(GenreSnapshot.of(entity))).thenReturn(dto);
 
         GenreDetailsDto result = genreService.getById(1L);
 
@@ -132,7 +145,7 @@ class GenreServiceImplTest {
     @Test
     void search_whenFilterIsValid_thenReturnsPagedResult() {
         Pageable pageable = PageRequest.of(0, 10);
-        GenreFilter filter = new GenreFilter(null, 0, 10, null, null, null, null, null);
+        GenreFilter filter = new GenreFilter(null, 0, 10, null, null, null, null, null, null, null);
         Genre entity = Genre.builder()
             .id(1L)
             .name("Sci-Fi")
@@ -160,6 +173,38 @@ class GenreServiceImplTest {
         }
     }
 
+    @Test
+    void search_whenCursorIsPresent_thenReturnsSliceWithoutTotals() {
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("name"));
+        GenreFilter filter = new GenreFilter(null, null, 10, null, "cursor1", null, null, null, null, null);
+        Genre entity = Genre.builder()
+            .id(1L)
+            .name("Sci-Fi")
+            .createdAt(FIXED_CREATED_AT)
+            .updatedAt(FIXED_CREATED_AT)
+            .build();
+
+        GenreInfoDto dto = new GenreInfoDto(1L, "Sci-Fi");
+
+        when(keysetQueryExecutor.findSlice(
+            eq(Genre.class), any(Specification.class), eq(Sort.by("name")), eq(10), eq("cursor1")))
+            .thenReturn(new KeysetSlice<>(List.of(entity), "cursor2"));
+
+        when(genreMapper.toInfoDto(entity)).thenReturn(dto);
+
+        try(var pageUtil = mockStatic(PageUtil.class)) {
+            pageUtil.when(() -> PageUtil.pageableFrom(any(PageFilter.class), any(PaginationProps.class)))
+                .thenReturn(pageable);
+
+            PageDto<GenreInfoDto> result = genreService.search(filter);
+
+            assertThat(result.content()).containsExactly(dto);
+            assertThat(result.nextCursor()).isEqualTo("cursor2");
+            assertThat(result.totalElements()).isNull();
+            verify(genreRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+        }
+    }
+
     @Test
     void updateById_whenValidRequest_thenReturnsUpdatedDto() {
         GenreRequestDto req = new GenreRequestDto("New");
@@ -189,6 +234,37 @@ class GenreServiceImplTest {
         GenreDetailsDto result = genreService.updateById(1L, req);
 
         assertThat(result).isEqualTo(dto);
+        verify(bookSearchCache).evictGenre(1L);
+    }
+
+    @Test
+    void updateById_whenNameChanged_thenCachesGenreByNewNameOnly() {
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(CacheConfig.GENRE_CACHE_NAME);
+        GenreServiceImpl cachingGenreService = new GenreServiceImpl(genreRepository, keysetQueryExecutor, null,
+            bookSearchCache, genreMapper, transactionTemplate, paginationProps, cacheManager, null, null,
+            new CacheVersions());
+        Cache cache = cacheManager.getCache(CacheConfig.GENRE_CACHE_NAME);
+        Genre found = Genre.builder()
+            .id(1L).name("Old")
+            .createdAt(FIXED_CREATED_AT).updatedAt(FIXED_CREATED_AT)
+            .build();
+        cache.put(1L, GenreSnapshot.of(found));
+        cache.put("Old", GenreSnapshot.of(found));
+
+        when(transactionTemplate.execute(any()))
+            .thenAnswer(invocation -> {
+                TransactionCallback<?> cb = invocation.getArgument(0);
+                return cb.doInTransaction(null);
+            });
+        when(genreRepository.findById(1L)).thenReturn(Optional.of(found));
+        when(genreRepository.findByName("New")).thenReturn(Optional.empty());
+        when(genreRepository.save(found)).thenReturn(found);
+
+        cachingGenreService.updateById(1L, new GenreRequestDto("New"));
+
+        assertThat(cache.get("Old")).isNull();
+        assertThat(cache.get("New", GenreSnapshot.class).id()).isEqualTo(1L);
+        assertThat(cache.get(1L, GenreSnapshot.class).name()).isEqualTo("New");
     }
 
     @Test
@@ -262,4 +338,16 @@ class GenreServiceImplTest {
             .isInstanceOf(ResourceNotFoundException.class);
     }
 
-}
\ No newline at end of file
+    @Test
+    void autocomplete_whenQueryHasCaseAndSpaces_thenSearchesNormalizedQuery() {
+        Genre entity = Genre.builder().id(1L).name("Science fiction").build();
+        GenreInfoDto dto = new GenreInfoDto(1L, "Science fiction");
+        when(genreRepository.findMostSimilar("sci_", "%sci\\_%", 5)).thenReturn(List.of(entity));
+        when(genreMapper.toInfoDto(entity)).thenReturn(dto);
+
+        assertThat(genreService.autocomplete(" SCI_ ", 5)).containsExactly(dto);
+        assertThat(genreService.autocomplete(" ", 5)).isEmpty();
+        verifyNoMoreInteractions(genreRepository);
+    }
+
+}
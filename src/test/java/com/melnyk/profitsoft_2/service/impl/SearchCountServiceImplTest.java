@@ -0,0 +1,121 @@
+package com.melnyk.profitsoft_2.service.impl;
+
+import com.melnyk.profitsoft_2.config.CacheConfig;
+import com.melnyk.profitsoft_2.dto.request.filter.CountMode;
+import com.melnyk.profitsoft_2.dto.request.filter.impl.GenreFilter;
+import com.melnyk.profitsoft_2.entity.Genre;
+import com.melnyk.profitsoft_2.repository.GenreRepository;
+import com.melnyk.profitsoft_2.repository.RowCountEstimator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.OptionalLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SearchCountServiceImplTest {
+
+    @Mock
+    GenreRepository genreRepository;
+
+    @Mock
+    RowCountEstimator rowCountEstimator;
+
+    @Mock
+    Specification<Genre> spec;
+
+    SearchCountServiceImpl searchCountService;
+
+    final Pageable pageable = PageRequest.of(0, 2);
+    final List<Genre> content = List.of(Genre.builder().id(1L).build(), Genre.builder().id(2L).build());
+
+    @BeforeEach
+    void setUp() {
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(CacheConfig.SEARCH_COUNT_CACHE_NAME);
+        searchCountService = new SearchCountServiceImpl(rowCountEstimator, cacheManager);
+        lenient().when(genreRepository.findBy(eq(spec), any())).thenReturn(new SliceImpl<>(content, pageable, true));
+    }
+
+    @Test
+    void findSlice_whenCountModeIsNone_thenReturnsSliceWithoutCount() {
+        Slice<Genre> result = searchCountService.findSlice(
+            Genre.class, genreRepository, spec, pageable, filter("drama", CountMode.NONE));
+
+        assertThat(result).isNotInstanceOf(Page.class);
+        assertThat(result.getContent()).isEqualTo(content);
+        assertThat(result.hasNext()).isTrue();
+        verify(genreRepository, never()).count(any(Specification.class));
+    }
+
+    @Test
+    void findSlice_whenCountModeIsCached_thenCountsOnceForAllPagesOfSearch() {
+        when(genreRepository.count(spec)).thenReturn(5L);
+
+        Slice<Genre> first = searchCountService.findSlice(
+            Genre.class, genreRepository, spec, pageable, filter("Drama", CountMode.CACHED));
+        Slice<Genre> second = searchCountService.findSlice(
+            Genre.class, genreRepository, spec, pageable.next(), filter("drama", CountMode.CACHED));
+
+        assertThat(((Page<Genre>) first).getTotalElements()).isEqualTo(5);
+        assertThat(((Page<Genre>) second).getTotalElements()).isEqualTo(5);
+        verify(genreRepository, times(1)).count(spec);
+    }
+
+    @Test
+    void findSlice_whenCountModeIsEstimated_thenEstimatesOnlyUnrestrictedSearch() {
+        when(rowCountEstimator.estimate(Genre.class)).thenReturn(OptionalLong.of(1000));
+        when(genreRepository.count(spec)).thenReturn(5L);
+
+        Slice<Genre> all = searchCountService.findSlice(
+            Genre.class, genreRepository, spec, pageable, filter(" ", CountMode.ESTIMATED));
+        Slice<Genre> filtered = searchCountService.findSlice(
+            Genre.class, genreRepository, spec, pageable, filter("drama", CountMode.ESTIMATED));
+
+        assertThat(((Page<Genre>) all).getTotalElements()).isEqualTo(1000);
+        assertThat(((Page<Genre>) filtered).getTotalElements()).isEqualTo(5);
+        verify(rowCountEstimator, times(1)).estimate(Genre.class);
+    }
+
+    @Test
+    void findSlice_whenCachedCountIsBelowReadRows_thenKeepsNextPage() {
+        when(genreRepository.count(spec)).thenReturn(1L);
+        when(genreRepository.findBy(eq(spec), any())).thenReturn(new SliceImpl<>(content, pageable.next(), true));
+
+        Slice<Genre> result = searchCountService.findSlice(
+            Genre.class, genreRepository, spec, pageable.next(), filter("drama", CountMode.CACHED));
+
+        assertThat(result.hasNext()).isTrue();
+        assertThat(((Page<Genre>) result).getTotalElements()).isEqualTo(5);
+    }
+
+    @Test
+    void findSlice_whenEstimateIsAboveReadRowsOfLastPage_thenEndsAtLastPage() {
+        when(rowCountEstimator.estimate(Genre.class)).thenReturn(OptionalLong.of(1000));
+        when(genreRepository.findBy(eq(spec), any())).thenReturn(new SliceImpl<>(content, pageable.next(), false));
+
+        Slice<Genre> result = searchCountService.findSlice(
+            Genre.class, genreRepository, spec, pageable.next(), filter(" ", CountMode.ESTIMATED));
+
+        assertThat(result.hasNext()).isFalse();
+        assertThat(((Page<Genre>) result).getTotalElements()).isEqualTo(4);
+    }
+
+    private GenreFilter filter(String query, CountMode count) {
+        return new GenreFilter(query, null, null, null, null, count, null, null, null, null);
+    }
+
+}
@@ -0,0 +1,97 @@
+package com.melnyk.profitsoft_2.service.impl;
+
+import com.melnyk.profitsoft_2.config.props.UploadProps;
+import com.melnyk.profitsoft_2.service.UploadFailureMode;
+import com.melnyk.profitsoft_2.service.UploadFailureReason;
+import com.melnyk.profitsoft_2.service.UploadFailures;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UploadFailureServiceImplTest {
+
+    final ObjectMapper objectMapper = JsonMapper.builder().build();
+
+    @TempDir
+    Path dir;
+
+    UploadFailureServiceImpl failureService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        UploadProps props = new UploadProps();
+        props.setFailures(new UploadProps.Failures(dir, 2, Duration.ofDays(1), Duration.ofMinutes(10)));
+        failureService = new UploadFailureServiceImpl(props, objectMapper);
+        failureService.init();
+    }
+
+    @Test
+    void open_givenAllMode_keepsEveryFailureInMemory() throws Exception {
+        try (UploadFailures failures = failureService.open(UploadFailureMode.ALL)) {
+            for (int i = 0; i < 5; i++) {
+                failures.add(Map.of("title", "book" + i), UploadFailureReason.INVALID, "invalid");
+            }
+
+            assertThat(failures.getItems()).hasSize(5);
+            assertThat(failures.getFileId()).isNull();
+        }
+        try (var files = Files.list(dir)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    void open_givenSummaryMode_keepsFirstFailuresAndWritesAllIntoFile() throws Exception {
+        UUID fileId;
+        try (UploadFailures failures = failureService.open(UploadFailureMode.SUMMARY)) {
+            failures.add(Map.of("title", "book1"), UploadFailureReason.INVALID, "invalid");
+            failures.add(Map.of("title", "book2"), UploadFailureReason.ALREADY_EXISTS, "exists");
+            failures.add(Map.of("title", "book3"), UploadFailureReason.ALREADY_EXISTS, "exists");
+            fileId = failures.getFileId();
+
+            assertThat(failures.getCount()).isEqualTo(3);
+            assertThat(failures.getItems()).hasSize(2);
+            assertThat(failures.getCounts()).containsExactly(
+                Map.entry(UploadFailureReason.INVALID, 1L),
+                Map.entry(UploadFailureReason.ALREADY_EXISTS, 2L)
+            );
+        }
+
+        List<String> lines = Files.readAllLines(dir.resolve(fileId + ".ndjson"));
+        assertThat(lines).hasSize(3);
+        assertThat(objectMapper.readTree(lines.get(2)).get("object").get("title").asString()).isEqualTo("book3");
+        assertThat(objectMapper.readTree(lines.get(2)).get("reason").asString()).isEqualTo("exists");
+    }
+
+    @Test
+    void open_givenFileIdAndSize_dropsFailuresAfterCheckpoint() throws Exception {
+        UUID fileId = UUID.randomUUID();
+        long checkpoint;
+        try (UploadFailures failures = failureService.open(fileId, 0)) {
+            failures.add(Map.of("title", "book1"), UploadFailureReason.INVALID, "invalid");
+            checkpoint = failures.flush();
+            failures.add(Map.of("title", "book2"), UploadFailureReason.INVALID, "invalid");
+        }
+
+        try (UploadFailures failures = failureService.open(fileId, checkpoint)) {
+            failures.add(Map.of("title", "book3"), UploadFailureReason.INVALID, "invalid");
+        }
+
+        List<String> lines = Files.readAllLines(dir.resolve(fileId + ".ndjson"));
+        assertThat(lines).hasSize(2);
+        assertThat(lines.get(0)).contains("book1");
+        assertThat(lines.get(1)).contains("book3");
+    }
+
+}
@@ -0,0 +1,171 @@
+package com.melnyk.profitsoft_2.service.impl;
+
+import com.melnyk.profitsoft_2.config.props.UploadProps;
+import com.melnyk.profitsoft_2.dto.response.UploadResponse;
+import com.melnyk.profitsoft_2.entity.UploadJob;
+import com.melnyk.profitsoft_2.mapper.UploadJobMapper;
+import com.melnyk.profitsoft_2.repository.BookRepository;
+import com.melnyk.profitsoft_2.repository.UploadJobRepository;
+import com.melnyk.profitsoft_2.service.BookService;
+import com.melnyk.profitsoft_2.service.UploadFailureService;
+import com.melnyk.profitsoft_2.service.UploadFailures;
+import com.melnyk.profitsoft_2.service.UploadMode;
+import com.melnyk.profitsoft_2.service.UploadProgressListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UploadJobServiceImplTest {
+
+    @Mock
+    BookService bookService;
+
+    @Mock
+    BookRepository bookRepository;
+
+    @Mock
+    UploadJobRepository uploadJobRepository;
+
+    @Mock
+    UploadJobMapper uploadJobMapper;
+
+    @Mock
+    UploadFailureService uploadFailureService;
+
+    @Mock
+    TransactionTemplate transactionTemplate;
+
+    @Mock
+    UploadFailures failures;
+
+    @TempDir
+    Path dir;
+
+    UploadJobServiceImpl uploadJobService;
+
+    final UUID jobId = UUID.randomUUID();
+    final AtomicReference<String> owner = new AtomicReference<>();
+    UploadJob job;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        UploadProps props = new UploadProps();
+        props.setJobs(new UploadProps.Jobs(
+            dir, 1, 20, Duration.ofDays(1), Duration.ofMinutes(10), Duration.ofSeconds(30), Duration.ofMinutes(2)));
+        uploadJobService = new UploadJobServiceImpl(bookService, bookRepository, uploadJobRepository, uploadJobMapper,
+            uploadFailureService, transactionTemplate, props);
+        uploadJobService.init();
+
+        Path spoolFile = Files.writeString(dir.resolve(jobId + ".json"), "[]");
+        // stopped while running, after 500 objects and 42 bytes of failures were committed
+        job = UploadJob.builder()
+            .id(jobId)
+            .status(UploadJob.Status.RUNNING)
+            .mode(UploadMode.BATCH)
+            .spoolFile(spoolFile.toString())
+            .parsedCount(500)
+            .createdCount(480)
+            .failedCount(20)
+            .failuresSize(42)
+            .owner("stopped-node")
+            .build();
+        when(uploadJobRepository.findAllByStatusInOrderByCreatedAt(any())).thenReturn(List.of(job));
+    }
+
+    @AfterEach
+    void tearDown() {
+        uploadJobService.destroy();
+    }
+
+    @Test
+    void resumeJobs_givenJobWithCheckpoint_thenResumesItFromCheckpoint() throws Exception {
+        givenClaimed();
+        when(uploadFailureService.open(jobId, 42)).thenReturn(failures);
+        when(failures.flush()).thenReturn(50L);
+        when(bookService.upload(any(), eq(UploadMode.BATCH), eq(500L), eq(failures), any()))
+            .thenAnswer(invocation -> {
+                invocation.<UploadProgressListener>getArgument(4).onChunkProcessed(100, 90, 10);
+                return new UploadResponse();
+            });
+        when(uploadJobRepository.addProgress(eq(jobId), anyString(), eq(100L), eq(90L), eq(10L), eq(50L)))
+            .thenReturn(1);
+        when(uploadJobRepository.finish(eq(jobId), anyString(), eq(UploadJob.Status.COMPLETED), isNull(), any()))
+            .thenReturn(1);
+
+        uploadJobService.resumeJobs();
+
+        verify(uploadJobRepository, timeout(5000))
+            .finish(eq(jobId), eq(owner.get()), eq(UploadJob.Status.COMPLETED), isNull(), any());
+        verify(bookService).upload(any(), eq(UploadMode.BATCH), eq(500L), eq(failures), any());
+        verify(uploadJobRepository).addProgress(jobId, owner.get(), 100L, 90L, 10L, 50L);
+        assertThat(owner.get()).isNotEqualTo("stopped-node");
+        assertThat(Path.of(job.getSpoolFile())).doesNotExist();
+    }
+
+    @Test
+    void resumeJobs_whenJobIsOwnedByLiveNode_thenDoesNotRunIt() {
+        when(uploadJobRepository.claim(eq(jobId), anyString(), any(), any())).thenReturn(0);
+
+        uploadJobService.resumeJobs();
+
+        verify(uploadJobRepository, after(200).never()).findById(any());
+        verifyNoInteractions(bookService);
+        assertThat(Path.of(job.getSpoolFile())).exists();
+    }
+
+    @Test
+    void resumeJobs_whenJobIsTakenOverDuringUpload_thenLeavesItToNewOwner() throws Exception {
+        givenClaimed();
+        when(uploadFailureService.open(jobId, 42)).thenReturn(failures);
+        when(bookService.upload(any(), eq(UploadMode.BATCH), eq(500L), eq(failures), any()))
+            .thenAnswer(invocation -> {
+                invocation.<UploadProgressListener>getArgument(4).onChunkProcessed(100, 90, 10);
+                return new UploadResponse();
+            });
+        when(uploadJobRepository.addProgress(eq(jobId), anyString(), anyLong(), anyLong(), anyLong(), anyLong()))
+            .thenReturn(0);
+
+        uploadJobService.resumeJobs();
+
+        verify(uploadJobRepository, timeout(5000)).addProgress(eq(jobId), anyString(), anyLong(), anyLong(), anyLong(), anyLong());
+        verify(uploadJobRepository, after(200).never()).finish(any(), any(), any(), any(), any());
+        assertThat(Path.of(job.getSpoolFile())).exists();
+    }
+
+    private void givenClaimed() {
+        when(uploadJobRepository.claim(eq(jobId), anyString(), any(), any())).thenAnswer(invocation -> {
+            owner.set(invocation.getArgument(1));
+            job.setOwner(owner.get());
+            return 1;
+        });
+        when(uploadJobRepository.findById(jobId)).thenReturn(Optional.of(job));
+        when(transactionTemplate.execute(any()))
+            .thenAnswer(invocation -> {
+                TransactionCallback<?> cb = invocation.getArgument(0);
+                return cb.doInTransaction(null);
+            });
+    }
+
+}
@@ -0,0 +1,78 @@
+package com.melnyk.profitsoft_2.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ChunkedIterableTest {
+
+    @Test
+    void iterator_withPartialLastChunk_mapsAllElementsInOrder() {
+        List<Integer> chunkSizes = new ArrayList<>();
+        AtomicInteger afterChunkCalls = new AtomicInteger();
+
+        ChunkedIterable<Integer, String> iterable = new ChunkedIterable<>(
+            List.of(1, 2, 3, 4, 5).iterator(),
+            2,
+            chunk -> {
+                chunkSizes.add(chunk.size());
+                return chunk.stream().map(String::valueOf).toList();
+            },
+            afterChunkCalls::incrementAndGet
+        );
+
+        List<String> result = new ArrayList<>();
+        iterable.forEach(result::add);
+
+        assertThat(result).containsExactly("1", "2", "3", "4", "5");
+        assertThat(chunkSizes).containsExactly(2, 2, 1);
+        assertThat(afterChunkCalls).hasValue(3);
+    }
+
+    @Test
+    void iterator_readsSourceLazily() {
+        AtomicInteger mappedChunks = new AtomicInteger();
+
+        ChunkedIterable<Integer, Integer> iterable = new ChunkedIterable<>(
+            List.of(1, 2, 3, 4).iterator(),
+            2,
+            chunk -> {
+                mappedChunks.incrementAndGet();
+                return chunk;
+            },
+            () -> {}
+        );
+
+        var iterator = iterable.iterator();
+        assertThat(mappedChunks).hasValue(0);
+
+        iterator.next();
+        iterator.next();
+        assertThat(mappedChunks).hasValue(1);
+    }
+
+    @Test
+    void iterator_withEmptySource_returnsNothing() {
+        ChunkedIterable<Integer, Integer> iterable = new ChunkedIterable<>(
+            List.<Integer>of().iterator(), 10, chunk -> chunk, () -> {}
+        );
+
+        assertThat(iterable.iterator().hasNext()).isFalse();
+    }
+
+    @Test
+    void iterator_calledTwice_throwsIllegalState() {
+        ChunkedIterable<Integer, Integer> iterable = new ChunkedIterable<>(
+            List.of(1).iterator(), 10, chunk -> chunk, () -> {}
+        );
+        iterable.iterator();
+
+        assertThatThrownBy(iterable::iterator).isInstanceOf(IllegalStateException.class);
+    }
+
+}
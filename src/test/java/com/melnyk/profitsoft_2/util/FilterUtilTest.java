@@ -0,0 +1,42 @@
+package com.melnyk.profitsoft_2.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FilterUtilTest {
+
+    @Test
+    void normalize_withBlankString_returnsNull() {
+        assertThat(FilterUtil.normalize(" ")).isNull();
+        assertThat(FilterUtil.normalize("Dune")).isEqualTo("dune");
+    }
+
+    @Test
+    void normalize_withEmptyCollection_returnsNull() {
+        assertThat(FilterUtil.normalize(Set.of())).isNull();
+        assertThat(FilterUtil.normalize(Set.of(1L))).containsExactly(1L);
+    }
+
+    @Test
+    void toContainsPattern_withWildcards_escapesThem() {
+        assertThat(FilterUtil.toContainsPattern("sci-fi")).isEqualTo("%sci-fi%");
+        assertThat(FilterUtil.toContainsPattern("100%_\\")).isEqualTo("%100\\%\\_\\\\%");
+    }
+
+    @Test
+    void toPrefixTsQuery_withWords_returnsPrefixConjunction() {
+        assertThat(FilterUtil.toPrefixTsQuery("Dune  Mess")).isEqualTo("dune:* & mess:*");
+        assertThat(FilterUtil.toPrefixTsQuery("Кобзар 1840")).isEqualTo("кобзар:* & 1840:*");
+    }
+
+    @Test
+    void toPrefixTsQuery_withOperators_dropsThem() {
+        assertThat(FilterUtil.toPrefixTsQuery("dune | !messiah:*")).isEqualTo("dune:* & messiah:*");
+        assertThat(FilterUtil.toPrefixTsQuery("' & !")).isNull();
+        assertThat(FilterUtil.toPrefixTsQuery(null)).isNull();
+    }
+
+}
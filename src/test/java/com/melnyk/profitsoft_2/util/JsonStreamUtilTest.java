@@ -0,0 +1,69 @@
+package com.melnyk.profitsoft_2.util;
+
+import com.melnyk.profitsoft_2.dto.request.BookRequestDto;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.MappingIterator;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectReader;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JsonStreamUtilTest {
+
+    final ObjectReader reader = new ObjectMapper().readerFor(BookRequestDto.class);
+
+    @Test
+    void readValues_withOffsetInsideArray_skipsNestedValues() {
+        String json = """
+            [
+              {"title": "A", "authorId": 1, "genreIds": [1, 2]},
+              {"title": "B", "authorId": 1, "genreIds": [{"nested": [3]}]},
+              {"title": "C", "authorId": 2, "genreIds": [3]},
+              {"title": "D", "authorId": 2, "genreIds": [4]}
+            ]
+            """;
+
+        assertThat(readTitles(json, 2)).containsExactly("C", "D");
+    }
+
+    @Test
+    void readValues_withZeroOffset_readsAllValues() {
+        String json = """
+            [{"title": "A"}, {"title": "B"}]
+            """;
+
+        assertThat(readTitles(json, 0)).containsExactly("A", "B");
+    }
+
+    @Test
+    void readValues_withOffsetBeyondEnd_returnsEmptyIterator() {
+        String json = """
+            [{"title": "A"}, {"title": "B"}]
+            """;
+
+        assertThat(readTitles(json, 2)).isEmpty();
+        assertThat(readTitles(json, 5)).isEmpty();
+    }
+
+    @Test
+    void readValues_withRootLevelValues_skipsValues() {
+        String json = """
+            {"title": "A"} {"title": "B"} {"title": "C"}
+            """;
+
+        assertThat(readTitles(json, 1)).containsExactly("B", "C");
+    }
+
+    List<String> readTitles(String json, long offset) {
+        InputStream in = new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+        try (MappingIterator<BookRequestDto> iter = JsonStreamUtil.readValues(reader, in, offset)) {
+            return iter.readAll().stream().map(BookRequestDto::title).toList();
+        }
+    }
+
+}
@@ -0,0 +1,51 @@
+package com.melnyk.profitsoft_2.util;
+
+import com.melnyk.profitsoft_2.repository.BookKey;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LongHashSetTest {
+
+    @Test
+    void add_givenRandomValues_thenBehavesLikeHashSet() {
+        Random random = new Random(42);
+        LongHashSet set = new LongHashSet();
+        Set<Long> expected = new HashSet<>();
+
+        for (int i = 0; i < 100_000; i++) {
+            // a narrow range produces repeated values
+            long value = random.nextInt(50_000) * 0x9e3779b97f4a7c15L;
+            assertThat(set.add(value)).isEqualTo(expected.add(value));
+        }
+
+        assertThat(set.size()).isEqualTo(expected.size());
+        for (long value : expected) {
+            assertThat(set.contains(value)).isTrue();
+        }
+        assertThat(set.contains(-1)).isEqualTo(expected.contains(-1L));
+    }
+
+    @Test
+    void add_givenZero_thenStoresItSeparately() {
+        LongHashSet set = new LongHashSet(0);
+
+        assertThat(set.contains(0)).isFalse();
+        assertThat(set.add(0)).isTrue();
+        assertThat(set.add(0)).isFalse();
+        assertThat(set.contains(0)).isTrue();
+        assertThat(set.size()).isEqualTo(1);
+    }
+
+    @Test
+    void hash64_givenEqualKeys_returnsEqualHashes() {
+        assertThat(new BookKey("Dune", 1L).hash64()).isEqualTo(new BookKey("Dune", 1L).hash64());
+        assertThat(new BookKey("Dune", 1L).hash64()).isNotEqualTo(new BookKey("Dune", 2L).hash64());
+        assertThat(new BookKey("Dune", 1L).hash64()).isNotEqualTo(new BookKey("Dune ", 1L).hash64());
+    }
+
+}
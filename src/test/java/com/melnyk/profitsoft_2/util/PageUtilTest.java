@@ -10,13 +10,13 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 class PageUtilTest {
 
-    record PageFilterImpl(Integer page, Integer size, String sort) implements PageFilter { }
+    record PageFilterImpl(Integer page, Integer size, String sort, String cursor) implements PageFilter { }
 
     final PaginationProps props = new PaginationProps(1, 20, "name,asc");
 
     @Test
     void pageableFrom_withFilterValues_returnsCorrectPageable() {
-        PageFilter filter = new PageFilterImpl(2, 5, "id,desc");
+        PageFilter filter = new PageFilterImpl(2, 5, "id,desc", null);
         Pageable pageable = PageUtil.pageableFrom(filter, props);
 
         assertThat(pageable.getPageNumber()).isEqualTo(2);
@@ -26,7 +26,7 @@ class PageUtilTest {
 
     @Test
     void pageableFrom_withNullFilter_usesDefaults() {
-        PageFilter filter = new PageFilterImpl(null, null, null);
+        PageFilter filter = new PageFilterImpl(null, null, null, null);
         Pageable pageable = PageUtil.pageableFrom(filter, props);
 
         assertThat(pageable.getPageNumber()).isEqualTo(props.getPage());
@@ -0,0 +1,55 @@
+package com.melnyk.profitsoft_2.util;
+
+import com.melnyk.profitsoft_2.util.PrefixIndex.Document;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrefixIndexTest {
+
+    final PrefixIndex index = PrefixIndex.builder()
+        .add(3, "Children of Dune", "Frank Herbert")
+        .add(1, "Dune", "Frank Herbert")
+        .add(2, "Dune Messiah", "Frank Herbert")
+        .add(4, "The Hobbit", "John Ronald Reuel Tolkien")
+        .add(5, "Frankenstein", "Mary Shelley")
+        .build();
+
+    @Test
+    void search_withPrefix_returnsTitlesStartingWithItAndShorterFirst() {
+        assertThat(ids(index.search(PrefixIndex.words("DUN"), 10, id -> false))).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void search_withSeveralWords_returnsDocumentsMatchingAllOfThem() {
+        assertThat(ids(index.search(PrefixIndex.words("frank mess"), 10, id -> false))).containsExactly(2L);
+        assertThat(ids(index.search(PrefixIndex.words("frank"), 10, id -> false))).containsExactly(5L, 1L, 2L, 3L);
+        assertThat(index.search(PrefixIndex.words("dune hobbit"), 10, id -> false)).isEmpty();
+    }
+
+    @Test
+    void search_withLimitAndExcludedIds_returnsBestRemainingDocuments() {
+        assertThat(ids(index.search(PrefixIndex.words("dune"), 2, id -> id == 1L))).containsExactly(2L, 3L);
+        assertThat(index.search(PrefixIndex.words(" - "), 10, id -> false)).isEmpty();
+    }
+
+    @Test
+    void builder_whenDocumentAddedTwice_thenKeepsTheLastOne() {
+        PrefixIndex rebuilt = PrefixIndex.builder().add(1, "Dune", "Frank Herbert").add(1, "Dune (1965)", null).build();
+
+        List<Document> documents = new ArrayList<>();
+        rebuilt.forEach(documents::add);
+
+        assertThat(documents).containsExactly(new Document(1, "Dune (1965)", null));
+        assertThat(rebuilt.search(PrefixIndex.words("herbert"), 10, id -> false)).isEmpty();
+        assertThat(ids(rebuilt.search(PrefixIndex.words("196"), 10, id -> false))).containsExactly(1L);
+    }
+
+    private static List<Long> ids(List<Document> documents) {
+        return documents.stream().map(Document::id).toList();
+    }
+
+}
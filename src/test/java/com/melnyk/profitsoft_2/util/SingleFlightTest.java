@@ -0,0 +1,83 @@
+package com.melnyk.profitsoft_2.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    static final int CALLERS = 16;
+
+    final SingleFlight<Long, String> singleFlight = new SingleFlight<>();
+
+    @Test
+    void load_whenCalledConcurrently_thenRunsLoaderOnce() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(executor.submit(() -> singleFlight.load(1L, () -> {
+                    loads.incrementAndGet();
+                    await(release);
+                    return "book";
+                })));
+            }
+            // the first caller is loading, the others are waiting for it or about to
+            while (loads.get() == 0) {
+                Thread.onSpinWait();
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("book");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(loads).hasValue(1);
+        assertThat(singleFlight.inFlight()).isZero();
+    }
+
+    @Test
+    void load_whenLoadCompleted_thenNextCallLoadsAgain() {
+        AtomicInteger loads = new AtomicInteger();
+
+        singleFlight.load(1L, () -> "v" + loads.incrementAndGet());
+        String second = singleFlight.load(1L, () -> "v" + loads.incrementAndGet());
+
+        assertThat(second).isEqualTo("v2");
+    }
+
+    @Test
+    void load_whenLoaderThrows_thenThrowsAndForgetsKey() {
+        assertThatThrownBy(() -> singleFlight.load(1L, () -> {
+            throw new IllegalStateException("Not found");
+        })).isInstanceOf(IllegalStateException.class).hasMessage("Not found");
+
+        assertThat(singleFlight.inFlight()).isZero();
+        assertThat(singleFlight.load(1L, () -> "book")).isEqualTo("book");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,62 @@
+package com.melnyk.profitsoft_2.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StageTimerTest {
+
+    @Test
+    void time_withRepeatedStages_sumsDurationsInFirstTimedOrder() {
+        StageTimer timer = new StageTimer();
+
+        timer.time("parse", () -> sleep(20));
+        String result = timer.time("insert", () -> "ok");
+        timer.time("parse", () -> sleep(20));
+
+        Map<String, Long> millis = timer.toMillis();
+
+        assertThat(result).isEqualTo("ok");
+        assertThat(millis).containsOnlyKeys("parse", "insert");
+        assertThat(millis.keySet()).containsExactly("parse", "insert");
+        assertThat(millis.get("parse")).isGreaterThanOrEqualTo(40);
+    }
+
+    @Test
+    void time_withNestedStage_excludesItFromEnclosingStage() {
+        StageTimer timer = new StageTimer();
+
+        timer.time("insert", () -> {
+            timer.time("wait", () -> sleep(50));
+            sleep(10);
+        });
+
+        Map<String, Long> millis = timer.toMillis();
+
+        assertThat(millis.get("wait")).isGreaterThanOrEqualTo(50);
+        assertThat(millis.get("insert")).isGreaterThanOrEqualTo(10).isLessThan(50);
+    }
+
+    @Test
+    void time_whenActionFails_stillRecordsStage() {
+        StageTimer timer = new StageTimer();
+
+        assertThatThrownBy(() -> timer.time("lookup", () -> {
+            throw new IllegalStateException("failed");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(timer.toMillis()).containsKey("lookup");
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,127 @@
+package com.melnyk.profitsoft_2.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StagedPipelineTest {
+
+    ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void run_givenSeveralWorkers_thenPublishesInOrderOfReading() {
+        Iterator<Integer> source = IntStream.range(0, 200).boxed().iterator();
+        List<Integer> consumed = Collections.synchronizedList(new ArrayList<>());
+        List<Integer> published = new ArrayList<>();
+
+        StagedPipeline.<Integer, Integer>run(
+            () -> source.hasNext() ? source.next() : null,
+            item -> item * 2,
+            (item, turn) -> {
+                sleepRandomly();
+                consumed.add(item);
+                turn.await();
+                published.add(item);
+            },
+            4,
+            2,
+            executor
+        );
+
+        List<Integer> expected = IntStream.range(0, 200).map(x -> x * 2).boxed().toList();
+        assertThat(published).containsExactlyElementsOf(expected);
+        assertThat(consumed).containsExactlyInAnyOrderElementsOf(expected);
+    }
+
+    @Test
+    void run_givenNoWorkers_thenRunsInCallingThread() {
+        Iterator<Integer> source = IntStream.range(0, 5).boxed().iterator();
+        Thread caller = Thread.currentThread();
+        List<Integer> published = new ArrayList<>();
+
+        StagedPipeline.<Integer, Integer>run(
+            () -> source.hasNext() ? source.next() : null,
+            item -> item + 1,
+            (item, turn) -> {
+                assertThat(Thread.currentThread()).isSameAs(caller);
+                turn.await();
+                published.add(item);
+            },
+            0,
+            1,
+            null
+        );
+
+        assertThat(published).containsExactly(1, 2, 3, 4, 5);
+    }
+
+    @Test
+    void run_whenWorkerFails_thenAbortsAndRethrows() {
+        Iterator<Integer> source = IntStream.range(0, 10_000).boxed().iterator();
+
+        assertThatThrownBy(() -> StagedPipeline.<Integer, Integer>run(
+            () -> source.hasNext() ? source.next() : null,
+            item -> item,
+            (item, turn) -> {
+                if (item == 10) {
+                    throw new IllegalStateException("broken item");
+                }
+                turn.await();
+            },
+            3,
+            2,
+            executor
+        ))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("broken item");
+
+        assertThat(source.hasNext()).isTrue();
+    }
+
+    @Test
+    void run_whenReaderFails_thenRethrows() {
+        assertThatThrownBy(() -> StagedPipeline.<Integer, Integer>run(
+            () -> {
+                throw new IllegalArgumentException("broken file");
+            },
+            item -> item,
+            (item, turn) -> {},
+            2,
+            2,
+            executor
+        ))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("broken file");
+    }
+
+    private static void sleepRandomly() {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextInt(3));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}